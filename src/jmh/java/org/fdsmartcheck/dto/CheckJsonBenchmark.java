@@ -0,0 +1,84 @@
+package org.fdsmartcheck.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.fdsmartcheck.dto.request.CheckRequest;
+import org.fdsmartcheck.dto.response.CheckResponse;
+import org.fdsmartcheck.model.enums.CheckType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (De)serialização JSON do corpo do check-in (CheckRequest) e da resposta (CheckResponse)
+ * O ObjectMapper é montado como o do Spring Boot (módulos registrados, fuso de spring.jackson.time-zone).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private byte[] requestJson;
+    private CheckResponse response;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .timeZone("America/Sao_Paulo")
+                .build();
+
+        CheckRequest request = CheckRequest.builder()
+                .qrCode("SUB-7d0c9a3e-5b8f-4c1d-9e2a-benchmark")
+                .requestId("c0a80164-7f3e-4b7a-9d1e-2f6b8a9c0d11")
+                .type(CheckType.CHECKIN)
+                .geoPayload(CheckRequest.GeoPayload.builder()
+                        .latitude(-23.550710)
+                        .longitude(-46.633150)
+                        .timestamp(1_773_140_400_000L)
+                        .deviceId("device-3f9c2a7e-benchmark")
+                        .build())
+                .signature("9f2b6c1d0e4a7b3c5d8e1f2a4b6c8d0e1f3a5b7c9d1e3f5a7b9c1d3e5f7a9b1c")
+                .build();
+        requestJson = objectMapper.writeValueAsBytes(request);
+
+        LocalDateTime checkinTime = LocalDateTime.of(2026, 3, 10, 7, 55);
+        response = CheckResponse.builder()
+                .id("check-1")
+                .eventId("event-1")
+                .eventTitle("Semana Acadêmica")
+                .subEventId("sub-1")
+                .subEventTitle("Palestra de abertura")
+                .userId("user-1")
+                .userName("Maria Benchmark")
+                .type("CHECKIN")
+                .checkinTime(checkinTime)
+                .createdAt(checkinTime)
+                .message("Check-in realizado")
+                .build();
+    }
+
+    @Benchmark
+    public CheckRequest readCheckRequest() throws IOException {
+        return objectMapper.readValue(requestJson, CheckRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeCheckResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,90 @@
+package org.fdsmartcheck.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.fdsmartcheck.model.User;
+import org.fdsmartcheck.model.enums.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emissão (login) e verificação (toda requisição autenticada) do JWT
+ *
+ * legacy* reproduz a verificação anterior ao verify(): chave decodificada e parser montado a
+ * cada chamada, e três parses por requisição (extractUsername no filtro, mais extractUsername e
+ * extração da expiração em isTokenValid).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private String secret;
+    private JwtTokenProvider tokenProvider;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        secret = Base64.getEncoder().encodeToString(
+                "benchmark-jwt-secret-with-at-least-256-bits".getBytes(StandardCharsets.UTF_8));
+        tokenProvider = new JwtTokenProvider(secret, 3_600_000);
+
+        user = User.builder()
+                .id("5b1f8c1e-0d7a-4a43-9a55-0c2f4f1b7d21")
+                .name("Maria Benchmark")
+                .email("maria.benchmark@fdsmartcheck.org")
+                .role(Role.STUDENT)
+                .accountVersion(3L)
+                .build();
+        token = tokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return tokenProvider.verify(token);
+    }
+
+    @Benchmark
+    public boolean legacyVerify() {
+        String username = legacyParse(token).getSubject();
+        return username.equals(legacyParse(token).getSubject())
+                && !legacyParse(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public Claims legacyParseOnce() {
+        return legacyParse(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(user);
+    }
+
+    private Claims legacyParse(String jwt) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .build()
+                .parseSignedClaims(jwt)
+                .getPayload();
+    }
+}
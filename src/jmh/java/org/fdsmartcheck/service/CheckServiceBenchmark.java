@@ -0,0 +1,83 @@
+package org.fdsmartcheck.service;
+
+import org.fdsmartcheck.dto.response.CheckResponse;
+import org.fdsmartcheck.model.Check;
+import org.fdsmartcheck.model.enums.Role;
+import org.fdsmartcheck.security.AuthenticatedUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem da resposta do check-in/checkout a partir do snapshot do QR Code e do usuário do token
+ * toResponse não usa as dependências do serviço, então ele é criado sem elas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckServiceBenchmark {
+
+    private CheckService checkService;
+    private ResolvedQRCode subEvent;
+    private AuthenticatedUser user;
+    private Check checkIn;
+    private Check checkOut;
+
+    @Setup
+    public void setUp() {
+        checkService = new CheckService(null, null, null, null, null, null, null, null, null, null, null);
+
+        LocalDateTime start = LocalDateTime.of(2026, 3, 10, 8, 0);
+        subEvent = ResolvedQRCode.builder()
+                .qrCodeId("qr-1")
+                .codeData("SUB-7d0c9a3e-benchmark")
+                .active(true)
+                .subEventId("sub-1")
+                .subEventTitle("Palestra de abertura")
+                .startDate(start)
+                .endDate(start.plusHours(2))
+                .checkinStart(start.minusMinutes(30))
+                .checkinEnd(start.plusMinutes(30))
+                .checkoutStart(start.plusHours(1))
+                .checkoutEnd(start.plusHours(3))
+                .eventId("event-1")
+                .eventTitle("Semana Acadêmica")
+                .build();
+        user = new AuthenticatedUser("user-1", "maria.benchmark@fdsmartcheck.org", "Maria Benchmark", Role.STUDENT);
+
+        checkIn = Check.builder()
+                .id("check-1")
+                .checkinTime(start.minusMinutes(5))
+                .isPresent(true)
+                .build();
+        checkOut = Check.builder()
+                .id("check-2")
+                .checkinTime(start.minusMinutes(5))
+                .checkoutTime(start.plusHours(2))
+                .isPresent(true)
+                .build();
+    }
+
+    @Benchmark
+    public CheckResponse toResponseCheckIn() {
+        return checkService.toResponse(checkIn, subEvent, user);
+    }
+
+    @Benchmark
+    public CheckResponse toResponseCheckOut() {
+        return checkService.toResponse(checkOut, subEvent, user);
+    }
+}
@@ -0,0 +1,159 @@
+package org.fdsmartcheck.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fdsmartcheck.config.ExecutionMode;
+import org.fdsmartcheck.dto.request.CheckRequest;
+import org.fdsmartcheck.model.enums.CheckType;
+import org.fdsmartcheck.metrics.CheckMetrics;
+import org.fdsmartcheck.security.GeoPayloadSigner;
+import org.fdsmartcheck.security.InMemoryNonceStore;
+import org.fdsmartcheck.utils.GeoUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação completa do payload de geolocalização do check-in: assinatura, nonce (store em memória),
+ * timestamp e distância
+ *
+ * Cada chamada usa um requestId novo, como requisições reais; o payload é assinado de novo a cada
+ * iteração para o timestamp continuar dentro da tolerância.
+ *
+ * legacy* reproduz a assinatura anterior ao GeoPayloadSigner: payload convertido em Map pelo
+ * ObjectMapper, ordenado num TreeMap, serializado em JSON, Mac novo a cada chamada e hexadecimal
+ * com String.format. O setup confere que as duas implementações produzem a mesma assinatura.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoSecurityServiceBenchmark {
+
+    private static final double EVENT_LAT = -23.550520;
+    private static final double EVENT_LNG = -46.633308;
+    private static final String SECRET = "benchmark-geo-secret";
+
+    private ObjectMapper objectMapper;
+    private GeoPayloadSigner signer;
+    private GeoSecurityService service;
+    private CheckRequest request;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .timeZone("America/Sao_Paulo")
+                .build();
+        signer = new GeoPayloadSigner(SECRET, new ExecutionMode(new StandardEnvironment()));
+        InMemoryNonceStore nonceStore = new InMemoryNonceStore(60, 12, 1_000_000, InMemoryNonceStore.OverflowPolicy.EVICT_OLDEST);
+
+        service = new GeoSecurityService(new GeoUtils(), signer, nonceStore, new CheckMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "maxTimeDiffSeconds", 60L);
+        ReflectionTestUtils.setField(service, "defaultRadiusMeters", 100.0);
+    }
+
+    @Setup(Level.Iteration)
+    public void signPayload() {
+        CheckRequest.GeoPayload payload = CheckRequest.GeoPayload.builder()
+                .latitude(-23.550710)
+                .longitude(-46.633150)
+                .timestamp(Instant.now().toEpochMilli())
+                .deviceId("device-3f9c2a7e-benchmark")
+                .build();
+
+        request = CheckRequest.builder()
+                .qrCode("SUB-benchmark")
+                .type(CheckType.CHECKIN)
+                .geoPayload(payload)
+                .signature(signer.sign(payload.getDeviceId(), payload.getLatitude(), payload.getLongitude(), payload.getTimestamp()))
+                .build();
+
+        if (!request.getSignature().equals(legacySign())) {
+            throw new IllegalStateException("GeoPayloadSigner divergiu da assinatura via ObjectMapper");
+        }
+    }
+
+    @Benchmark
+    public CheckRequest validateGeoPayload() {
+        request.setRequestId("req-" + sequence++);
+        service.validateGeoPayload(request, EVENT_LAT, EVENT_LNG, null);
+        return request;
+    }
+
+    @Benchmark
+    public boolean verifySignature() {
+        CheckRequest.GeoPayload payload = request.getGeoPayload();
+        return signer.verify(payload.getDeviceId(), payload.getLatitude(), payload.getLongitude(),
+                payload.getTimestamp(), request.getSignature());
+    }
+
+    @Benchmark
+    public String sign() {
+        CheckRequest.GeoPayload payload = request.getGeoPayload();
+        return signer.sign(payload.getDeviceId(), payload.getLatitude(), payload.getLongitude(), payload.getTimestamp());
+    }
+
+    @Benchmark
+    public String legacySign() {
+        CheckRequest.GeoPayload payload = request.getGeoPayload();
+        try {
+            TreeMap<String, Object> sortedMap = new TreeMap<>();
+            sortedMap.put("deviceId", payload.getDeviceId());
+            sortedMap.put("latitude", payload.getLatitude());
+            sortedMap.put("longitude", payload.getLongitude());
+            sortedMap.put("timestamp", payload.getTimestamp());
+            return legacySignature(objectMapper.writeValueAsString(sortedMap));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public boolean legacyVerify() {
+        try {
+            Map<String, Object> map = objectMapper.convertValue(
+                    request.getGeoPayload(),
+                    new TypeReference<Map<String, Object>>() {}
+            );
+            String payloadJson = objectMapper.writeValueAsString(new TreeMap<>(map));
+            return legacySignature(payloadJson).equals(request.getSignature());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String legacySignature(String data) throws Exception {
+        Mac sha256Hmac = Mac.getInstance("HmacSHA256");
+        sha256Hmac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+
+        byte[] hash = sha256Hmac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        StringBuilder result = new StringBuilder();
+        for (byte b : hash) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package org.fdsmartcheck.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distância de Haversine entre o usuário e o local do evento
+ * As coordenadas ficam em campos não finais para o JIT não dobrar o cálculo em constante.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoUtilsBenchmark {
+
+    private final GeoUtils geoUtils = new GeoUtils();
+
+    private double userLat = -23.550710;
+    private double userLng = -46.633150;
+    private double eventLat = -23.550520;
+    private double eventLng = -46.633308;
+
+    @Benchmark
+    public double calculateDistance() {
+        return geoUtils.calculateDistance(userLat, userLng, eventLat, eventLng);
+    }
+}
@@ -0,0 +1,136 @@
+package org.fdsmartcheck.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.fdsmartcheck.dto.request.CheckBatchRequest;
+import org.fdsmartcheck.dto.request.CheckRequest;
+import org.fdsmartcheck.model.enums.CheckType;
+import org.fdsmartcheck.security.GeoPayloadSigner;
+import org.fdsmartcheck.security.JwtTokenProvider;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Controle de admissão do check-in com o servidor folgado
+ *
+ * 1. taxa por subevento de 1/s (burst 1): check-ins seguidos de vários alunos no mesmo subevento
+ *    passam todos, porque a taxa só recusa com o limite de concorrência saturado
+ * 2. o lote (POST /api/checkin/batch) passa pela admissão: cada lote conta em
+ *    fdsmartcheck.admission.requests{outcome=admitted} e, com uma única vaga
+ *    (initial/min/max-limit=1), lotes seguidos continuam sendo aceitos (a vaga é devolvida)
+ *
+ * Qualquer verificação que não confira encerra com erro (código de saída diferente de zero).
+ *
+ * mvn -P loadtest verify -Dloadtest.main=org.fdsmartcheck.loadtest.AdmissionCheck
+ */
+public class AdmissionCheck {
+
+    private static final int STUDENTS = 10;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestEnvironment.prepareJvm();
+
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext context = null;
+        LoadTestSeeder seeder = null;
+        try {
+            Properties properties = LoadTestEnvironment.appProperties();
+            properties.setProperty("app.checkin.admission.sub-event.rate-per-second", "1");
+            properties.setProperty("app.checkin.admission.sub-event.burst", "1");
+            properties.setProperty("app.checkin.admission.initial-limit", "1");
+            properties.setProperty("app.checkin.admission.min-limit", "1");
+            properties.setProperty("app.checkin.admission.max-limit", "1");
+            postgres = LoadTestEnvironment.startPostgres(properties);
+            context = LoadTestEnvironment.startApp(properties);
+
+            seeder = new LoadTestSeeder(context.getBean(JdbcTemplate.class));
+            seeder.seed(STUDENTS * 2);
+
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            GeoPayloadSigner signer = context.getBean(GeoPayloadSigner.class);
+            JwtTokenProvider tokenProvider = context.getBean(JwtTokenProvider.class);
+            HttpClient httpClient = HttpClient.newHttpClient();
+            String baseUrl = LoadTestEnvironment.baseUrl(context);
+
+            for (int i = 0; i < STUDENTS; i++) {
+                HttpResponse<String> response = post(httpClient, baseUrl + "/api/checkin",
+                        LoadTestEnvironment.studentToken(tokenProvider, i),
+                        objectMapper.writeValueAsBytes(item(signer, seeder.getQrCode())));
+                check(response.statusCode() == 200, "check-in " + i + " com o servidor folgado: "
+                        + response.statusCode() + " " + response.body());
+            }
+            System.out.printf("ok: %d check-ins seguidos no mesmo subevento com taxa de 1/s e servidor folgado%n", STUDENTS);
+
+            for (int i = STUDENTS; i < STUDENTS * 2; i++) {
+                CheckBatchRequest batch = CheckBatchRequest.builder()
+                        .items(List.of(item(signer, seeder.getQrCode())))
+                        .build();
+                HttpResponse<String> response = post(httpClient, baseUrl + "/api/checkin/batch",
+                        LoadTestEnvironment.studentToken(tokenProvider, i), objectMapper.writeValueAsBytes(batch));
+                check(response.statusCode() == 200
+                                && objectMapper.readTree(response.body()).get("results").get(0).get("success").asBoolean(),
+                        "lote " + i + " com uma vaga de concorrência: " + response.statusCode() + " " + response.body());
+            }
+            double admitted = context.getBean(MeterRegistry.class).get("fdsmartcheck.admission.requests")
+                    .tag("outcome", "admitted").counter().count();
+            check(admitted == STUDENTS * 2, "admitidos: " + admitted + ", esperados " + STUDENTS * 2);
+            System.out.printf("ok: %d lotes seguidos admitidos com uma única vaga de concorrência%n", STUDENTS);
+        } finally {
+            if (seeder != null) {
+                seeder.clean();
+            }
+            if (context != null) {
+                context.close();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private static HttpResponse<String> post(HttpClient httpClient, String url, String token, byte[] body)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static CheckRequest item(GeoPayloadSigner signer, String qrCode) {
+        String deviceId = "admission-test-device";
+        double latitude = LoadTestSeeder.LATITUDE;
+        double longitude = LoadTestSeeder.LONGITUDE;
+        long timestamp = System.currentTimeMillis();
+
+        return CheckRequest.builder()
+                .qrCode(qrCode)
+                .requestId(UUID.randomUUID().toString())
+                .type(CheckType.CHECKIN)
+                .geoPayload(CheckRequest.GeoPayload.builder()
+                        .latitude(latitude)
+                        .longitude(longitude)
+                        .timestamp(timestamp)
+                        .deviceId(deviceId)
+                        .build())
+                .signature(signer.sign(deviceId, latitude, longitude, timestamp))
+                .build();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
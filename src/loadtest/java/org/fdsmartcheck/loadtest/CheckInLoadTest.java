@@ -0,0 +1,224 @@
+package org.fdsmartcheck.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.fdsmartcheck.security.GeoPayloadSigner;
+import org.fdsmartcheck.security.JwtTokenProvider;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Teste de carga ponta a ponta do check-in (perfil Maven loadtest)
+ *
+ * Sobe o app inteiro contra um Postgres local — embutido (binários zonky, sem Docker) ou o
+ * informado em loadtest.jdbc-url — semeia os alunos, o subevento e o QR Code ativo e dispara a
+ * rajada de POST /api/checkin do início de uma sessão. Sem loadtest.sweep roda uma rodada com
+ * loadtest.concurrency; com ele roda uma rodada por nível e aponta o joelho da curva: o último
+ * nível em que dobrar a concorrência ainda aumentou a vazão em pelo menos loadtest.knee-gain.
+ * Com loadtest.modes o app é iniciado uma vez por modo de execução (threads de plataforma ou
+ * virtuais, ver ExecutionMode) e as mesmas rodadas são comparadas lado a lado.
+ *
+ * Propriedades (-D):
+ *   loadtest.users        alunos, um check-in cada por rodada (padrão 2000)
+ *   loadtest.concurrency  requisições simultâneas da rodada única (padrão 32)
+ *   loadtest.sweep        níveis de concorrência, ex.: 1,2,4,8,16,32,64,128
+ *   loadtest.knee-gain    ganho mínimo de vazão entre níveis (padrão 0.10)
+ *   loadtest.warmup       rodada de aquecimento descartada antes das medições (padrão true)
+ *   loadtest.modes        modos comparados, ex.: platform,virtual (virtual requer Java 21+)
+ *   loadtest.result       arquivo JSON com os resultados (padrão target/loadtest-result.json)
+ *   loadtest.jdbc-url, loadtest.jdbc-username, loadtest.jdbc-password  Postgres existente
+ * A configuração do app parte de application.properties.example; qualquer propriedade do app
+ * também pode ser passada com -D (ex.: -Dspring.datasource.hikari.maximum-pool-size=20).
+ */
+public class CheckInLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestEnvironment.prepareJvm();
+
+        int users = Integer.getInteger("loadtest.users", 2000);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        List<Integer> sweep = parseLevels(System.getProperty("loadtest.sweep", ""));
+        double kneeGain = Double.parseDouble(System.getProperty("loadtest.knee-gain", "0.10"));
+        boolean warmup = Boolean.parseBoolean(System.getProperty("loadtest.warmup", "true"));
+        File resultFile = new File(System.getProperty("loadtest.result", "target/loadtest-result.json"));
+        List<String> modes = parseModes(System.getProperty("loadtest.modes", ""));
+        List<Integer> levels = sweep.isEmpty() ? List.of(concurrency) : sweep;
+
+        EmbeddedPostgres postgres = null;
+        try {
+            Properties properties = LoadTestEnvironment.appProperties();
+            postgres = LoadTestEnvironment.startPostgres(properties);
+            boolean cleanUp = LoadTestEnvironment.isExternalDatabase();
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("users", users);
+
+            if (modes.isEmpty()) {
+                ModeResult result = runMode(null, properties, users, levels, warmup, !sweep.isEmpty(), kneeGain, cleanUp);
+                report.putAll(result.toMap());
+            } else {
+                Map<String, ModeResult> results = new LinkedHashMap<>();
+                for (String mode : modes) {
+                    properties.setProperty("spring.threads.virtual.enabled", String.valueOf(mode.equals("virtual")));
+                    results.put(mode, runMode(mode, properties, users, levels, warmup, !sweep.isEmpty(), kneeGain, cleanUp));
+                }
+                printComparison(levels, results);
+
+                Map<String, Object> byMode = new LinkedHashMap<>();
+                results.forEach((mode, result) -> byMode.put(mode, result.toMap()));
+                report.put("modes", byMode);
+            }
+
+            writeResults(resultFile, report);
+            System.out.println("Resultados em " + resultFile.getAbsolutePath());
+        } finally {
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    /**
+     * Sobe o app, semeia os dados e roda o aquecimento e as rodadas de cada nível
+     *
+     * @param mode platform/virtual, ou null para usar a configuração recebida
+     */
+    private static ModeResult runMode(String mode, Properties properties, int users, List<Integer> levels,
+                                      boolean warmup, boolean sweep, double kneeGain, boolean cleanUp) {
+        ConfigurableApplicationContext context = null;
+        LoadTestSeeder seeder = null;
+        try {
+            context = LoadTestEnvironment.startApp(properties);
+
+            String baseUrl = LoadTestEnvironment.baseUrl(context);
+            seeder = new LoadTestSeeder(context.getBean(JdbcTemplate.class));
+            seeder.seed(users);
+
+            JwtTokenProvider tokenProvider = context.getBean(JwtTokenProvider.class);
+            List<String> tokens = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                tokens.add(LoadTestEnvironment.studentToken(tokenProvider, i));
+            }
+
+            LoadDriver driver = new LoadDriver(baseUrl, context.getBean(ObjectMapper.class),
+                    context.getBean(GeoPayloadSigner.class), seeder.getQrCode(), tokens);
+
+            System.out.printf("%nTeste de carga%s: %d check-ins por rodada, níveis %s%n",
+                    mode != null ? " (threads " + mode + ")" : "", users, levels);
+
+            if (warmup) {
+                System.out.println("aquecimento: " + driver.run(levels.get(levels.size() - 1)).summary());
+                seeder.resetChecks();
+            }
+
+            List<LevelResult> results = new ArrayList<>();
+            for (int level : levels) {
+                LevelResult result = driver.run(level);
+                results.add(result);
+                System.out.println(result.summary());
+                seeder.resetChecks();
+            }
+
+            LevelResult knee = sweep ? findKnee(results, kneeGain) : null;
+            if (knee != null) {
+                System.out.printf("Joelho: concorrência %d (%.1f req/s, p99 %.2f ms); acima disso a vazão cresce menos de %.0f%%%n",
+                        knee.getConcurrency(), knee.throughput(), knee.percentileMillis(99), kneeGain * 100);
+            } else if (sweep) {
+                System.out.println("Joelho não atingido: a vazão ainda cresce no maior nível; amplie loadtest.sweep");
+            }
+            return new ModeResult(results, knee);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            if (seeder != null && cleanUp) {
+                seeder.clean();
+            }
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static void printComparison(List<Integer> levels, Map<String, ModeResult> results) {
+        System.out.printf("%nComparação por modo de execução%n");
+        for (int i = 0; i < levels.size(); i++) {
+            for (Map.Entry<String, ModeResult> entry : results.entrySet()) {
+                System.out.printf("%-8s %s%n", entry.getKey(), entry.getValue().levels.get(i).summary());
+            }
+        }
+    }
+
+    /**
+     * Último nível cujo seguinte ainda aumentou a vazão em pelo menos minGain
+     */
+    static LevelResult findKnee(List<LevelResult> results, double minGain) {
+        for (int i = 0; i + 1 < results.size(); i++) {
+            LevelResult current = results.get(i);
+            LevelResult next = results.get(i + 1);
+            if (next.throughput() < current.throughput() * (1 + minGain)) {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    private static List<Integer> parseLevels(String value) {
+        List<Integer> levels = new ArrayList<>();
+        for (String level : value.split(",")) {
+            if (!level.isBlank()) {
+                levels.add(Integer.parseInt(level.trim()));
+            }
+        }
+        return levels;
+    }
+
+    private static List<String> parseModes(String value) {
+        List<String> modes = new ArrayList<>();
+        for (String mode : value.split(",")) {
+            String trimmed = mode.trim().toLowerCase();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!trimmed.equals("platform") && !trimmed.equals("virtual")) {
+                throw new IllegalArgumentException("loadtest.modes aceita platform e virtual: " + mode);
+            }
+            modes.add(trimmed);
+        }
+        return modes;
+    }
+
+    private static void writeResults(File file, Map<String, Object> report) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+    }
+
+    private static final class ModeResult {
+        private final List<LevelResult> levels;
+        private final LevelResult knee;
+
+        private ModeResult(List<LevelResult> levels, LevelResult knee) {
+            this.levels = levels;
+            this.knee = knee;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("levels", levels.stream().map(LevelResult::toMap).toList());
+            map.put("kneeConcurrency", knee != null ? knee.getConcurrency() : null);
+            return map;
+        }
+    }
+}
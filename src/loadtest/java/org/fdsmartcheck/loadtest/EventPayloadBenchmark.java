@@ -0,0 +1,250 @@
+package org.fdsmartcheck.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.fdsmartcheck.dto.request.EventRequest;
+import org.fdsmartcheck.model.enums.Role;
+import org.fdsmartcheck.security.JwtTokenProvider;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tamanho das respostas de GET /api/events e GET /api/events/upcoming com imagens nos eventos
+ *
+ * Cria loadtest.events.count eventos futuros por POST /api/events, cada um com uma imagem PNG de
+ * loadtest.events.image-kb KB em Base64, e mede as duas listagens (uma página com todos os
+ * eventos): bytes da resposta, bytes com gzip e tempo mediano de loadtest.events.iterations
+ * requisições. Ao lado, a estimativa do formato antigo, que levava o campo imageBase64 de cada
+ * evento na listagem (resposta atual + o campo com o Base64 de cada imagem).
+ *
+ * Confere também que as listagens não trazem Base64, só imageUrl, e que a URL da imagem devolve
+ * os bytes enviados (200) e 304 sem corpo com If-None-Match.
+ *
+ * Qualquer verificação que não confira encerra com erro (código de saída diferente de zero).
+ *
+ * mvn -P loadtest verify -Dloadtest.main=org.fdsmartcheck.loadtest.EventPayloadBenchmark
+ * Propriedades (-D, via loadtest.options): loadtest.events.count (padrão 50),
+ * loadtest.events.image-kb (padrão 300), loadtest.events.iterations (padrão 20),
+ * loadtest.jdbc-url e credenciais de um Postgres existente.
+ */
+public class EventPayloadBenchmark {
+
+    private static final String ADMIN_ID = "loadtest-payload-admin";
+    private static final String IMAGE_FIELD = ",\"imageBase64\":\"\"";
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    public static void main(String[] args) throws Exception {
+        LoadTestEnvironment.prepareJvm();
+
+        int count = Integer.getInteger("loadtest.events.count", 50);
+        int imageKb = Integer.getInteger("loadtest.events.image-kb", 300);
+        int iterations = Integer.getInteger("loadtest.events.iterations", 20);
+
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext context = null;
+        JdbcTemplate jdbcTemplate = null;
+        try {
+            Properties properties = LoadTestEnvironment.appProperties();
+            properties.setProperty("app.events.upcoming.max-size", String.valueOf(Math.max(50, count)));
+            postgres = LoadTestEnvironment.startPostgres(properties);
+            context = LoadTestEnvironment.startApp(properties);
+
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+            clean(jdbcTemplate);
+            jdbcTemplate.update("""
+                    INSERT INTO users (id, name, email, password, role, is_active, account_version, created_at)
+                    VALUES (?, 'Eventos', ? || '@loadtest.local', '-', 'ADMIN', true, 0, LOCALTIMESTAMP)
+                    """, ADMIN_ID, ADMIN_ID);
+
+            Client client = new Client(context);
+            Map<String, byte[]> images = createEvents(client, count, imageKb);
+
+            List<String[]> table = new ArrayList<>();
+            table.add(measure(client, "/api/events?size=" + count, images, iterations));
+            table.add(measure(client, "/api/events/upcoming?limit=" + count, images, iterations));
+
+            checkImage(client, images);
+
+            System.out.printf("%n%d eventos com imagem de %d KB (Base64: %d KB)%n",
+                    count, imageKb, Base64.getEncoder().encodeToString(new byte[imageKb * 1024]).length() / 1024);
+            System.out.printf("%-32s %12s %12s %10s %16s %16s%n",
+                    "", "bytes", "gzip", "mediana", "antigo (est.)", "antigo gzip");
+            for (String[] row : table) {
+                System.out.printf("%-32s %12s %12s %10s %16s %16s%n", (Object[]) row);
+            }
+        } finally {
+            if (jdbcTemplate != null) {
+                clean(jdbcTemplate);
+            }
+            if (context != null) {
+                context.close();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    /**
+     * @return bytes da imagem de cada evento criado, pelo id
+     */
+    private static Map<String, byte[]> createEvents(Client client, int count, int imageKb) throws Exception {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Map<String, byte[]> images = new HashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            byte[] image = new byte[imageKb * 1024];
+            random.nextBytes(image);
+            System.arraycopy(PNG_SIGNATURE, 0, image, 0, PNG_SIGNATURE.length);
+
+            EventRequest request = new EventRequest();
+            request.setTitle("Evento de carga " + i);
+            request.setDescription("Evento sintético para medir o tamanho das listagens");
+            request.setImageBase64("data:image/png;base64," + Base64.getEncoder().encodeToString(image));
+            request.setLatitude(LoadTestSeeder.LATITUDE);
+            request.setLongitude(LoadTestSeeder.LONGITUDE);
+            request.setRadius(LoadTestSeeder.RADIUS_METERS);
+            request.setStartDate(start.plusHours(i));
+            request.setEndDate(start.plusHours(i + 2));
+
+            HttpResponse<byte[]> response = client.post("/api/events", request);
+            check(response.statusCode() == 201, "evento recusado: " + new String(response.body()));
+            images.put(client.json(response).get("id").asText(), image);
+        }
+        return images;
+    }
+
+    private static String[] measure(Client client, String path, Map<String, byte[]> images, int iterations)
+            throws Exception {
+        HttpResponse<byte[]> response = client.get(path, null);
+        check(response.statusCode() == 200, path + ": " + response.statusCode());
+        byte[] body = response.body();
+        JsonNode events = client.json(response);
+
+        check(events.size() == images.size(), path + ": " + events.size() + " eventos, esperados " + images.size());
+        check(!new String(body).contains("base64"), path + ": a listagem não deveria trazer Base64");
+
+        // Formato antigo: o mesmo JSON com o campo imageBase64 de cada evento
+        long legacyExtra = 0;
+        StringBuilder legacyImages = new StringBuilder();
+        for (JsonNode event : events) {
+            check(event.hasNonNull("imageUrl"), path + ": evento sem imageUrl: " + event);
+            String base64 = Base64.getEncoder().encodeToString(images.get(event.get("id").asText()));
+            legacyExtra += IMAGE_FIELD.length() + base64.length();
+            legacyImages.append(base64);
+        }
+
+        long[] millis = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long begin = System.nanoTime();
+            check(client.get(path, null).statusCode() == 200, path + ": requisição recusada");
+            millis[i] = (System.nanoTime() - begin) / 1_000_000;
+        }
+        Arrays.sort(millis);
+
+        long gzip = gzip(body);
+        long legacyGzip = gzip + gzip(legacyImages.toString().getBytes());
+        return new String[]{"GET " + path, kb(body.length), kb(gzip), millis[iterations / 2] + " ms",
+                kb(body.length + legacyExtra), kb(legacyGzip)};
+    }
+
+    private static void checkImage(Client client, Map<String, byte[]> images) throws Exception {
+        HttpResponse<byte[]> list = client.get("/api/events/upcoming?limit=1", null);
+        JsonNode event = client.json(list).get(0);
+        String imageUrl = event.get("imageUrl").asText();
+
+        HttpResponse<byte[]> image = client.get(imageUrl, null);
+        check(image.statusCode() == 200, "imagem: " + image.statusCode());
+        check(Arrays.equals(image.body(), images.get(event.get("id").asText())), "imagem diferente da enviada");
+        String etag = image.headers().firstValue("ETag").orElseThrow(() -> new IllegalStateException("imagem sem ETag"));
+
+        HttpResponse<byte[]> notModified = client.get(imageUrl, etag);
+        check(notModified.statusCode() == 304 && notModified.body().length == 0,
+                "If-None-Match com o ETag atual deveria dar 304 sem corpo: " + notModified.statusCode());
+
+        System.out.printf("ok: %s devolve %s (200) e 304 sem corpo com If-None-Match%n", imageUrl, kb(image.body().length));
+    }
+
+    private static long gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.size();
+    }
+
+    private static String kb(long bytes) {
+        return String.format("%.1f KB", bytes / 1024.0);
+    }
+
+    private static void clean(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM event_images WHERE event_id IN (SELECT id FROM events WHERE created_by = ?)", ADMIN_ID);
+        jdbcTemplate.update("DELETE FROM events WHERE created_by = ?", ADMIN_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", ADMIN_ID);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    /**
+     * Requisições do administrador semeado
+     */
+    private static final class Client {
+
+        private final HttpClient httpClient = HttpClient.newHttpClient();
+        private final String baseUrl;
+        private final ObjectMapper objectMapper;
+        private final String token;
+
+        private Client(ConfigurableApplicationContext context) {
+            this.baseUrl = LoadTestEnvironment.baseUrl(context);
+            this.objectMapper = context.getBean(ObjectMapper.class);
+            this.token = LoadTestEnvironment.token(context.getBean(JwtTokenProvider.class), ADMIN_ID, "Eventos", Role.ADMIN);
+        }
+
+        private HttpResponse<byte[]> get(String path, String ifNoneMatch) throws IOException, InterruptedException {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Authorization", "Bearer " + token)
+                    .GET();
+            if (ifNoneMatch != null) {
+                request.header("If-None-Match", ifNoneMatch);
+            }
+            return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        }
+
+        private HttpResponse<byte[]> post(String path, Object body) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+
+        private JsonNode json(HttpResponse<byte[]> response) throws IOException {
+            return objectMapper.readTree(response.body());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.fdsmartcheck.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.fdsmartcheck.model.enums.Role;
+import org.fdsmartcheck.security.JwtTokenProvider;
+import org.fdsmartcheck.service.AttendanceCounterService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Relatório Excel do evento pelos dois caminhos de GET /api/reports/event/{id}/excel:
+ * XSSF em memória (app.reports.excel.streaming=false) e SXSSF em streaming (padrão)
+ *
+ * 1. as duas planilhas têm as mesmas linhas, nas mesmas posições, com os mesmos valores e a
+ *    mesma formatação (negrito, tamanho da fonte, preenchimento) — exceto o valor de
+ *    "Gerado em:", que é o horário da geração; as larguras de coluna são só impressas
+ *    (autoSizeColumn x estimativa pelo tamanho do texto)
+ * 2. memória de cada caminho para o mesmo evento, medida por HeapMeter na segunda requisição
+ *    (a primeira aquece o caminho)
+ *
+ * Qualquer diferença encerra com erro (código de saída diferente de zero).
+ *
+ * mvn -P loadtest verify -Dloadtest.main=org.fdsmartcheck.loadtest.ExcelReportCheck
+ * Propriedades (-D, via loadtest.options): loadtest.report.sub-events (padrão 25),
+ * loadtest.report.attendees (padrão 2000), loadtest.jdbc-url e credenciais de um Postgres existente.
+ */
+public class ExcelReportCheck {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestEnvironment.prepareJvm();
+
+        int subEvents = Integer.getInteger("loadtest.report.sub-events", 25);
+        int attendees = Integer.getInteger("loadtest.report.attendees", 2000);
+
+        EmbeddedPostgres postgres = null;
+        ReportSeeder seeder = null;
+        try {
+            Properties properties = LoadTestEnvironment.appProperties();
+            postgres = LoadTestEnvironment.startPostgres(properties);
+
+            properties.setProperty("app.reports.excel.streaming", "false");
+            HeapMeter.Measurement<byte[]> inMemory;
+            ConfigurableApplicationContext context = LoadTestEnvironment.startApp(properties);
+            try {
+                // Conexão própria: a limpeza no fim roda com os contextos já fechados
+                seeder = new ReportSeeder(new JdbcTemplate(new DriverManagerDataSource(
+                        properties.getProperty("spring.datasource.url"),
+                        properties.getProperty("spring.datasource.username"),
+                        properties.getProperty("spring.datasource.password"))));
+                seeder.seed(subEvents, attendees);
+                context.getBean(AttendanceCounterService.class).reconcile();
+
+                inMemory = download(context);
+            } finally {
+                context.close();
+            }
+
+            properties.setProperty("app.reports.excel.streaming", "true");
+            HeapMeter.Measurement<byte[]> streaming;
+            context = LoadTestEnvironment.startApp(properties);
+            try {
+                streaming = download(context);
+            } finally {
+                context.close();
+            }
+
+            int rows = compare(inMemory.result, streaming.result, subEvents * attendees);
+            System.out.printf("ok: XSSF e SXSSF com as mesmas %d linhas (%d de presença)%n", rows, subEvents * attendees);
+
+            System.out.printf("%nGET /api/reports/event/{id}/excel, %d subeventos x %d presenças%n", subEvents, attendees);
+            System.out.printf("XSSF  %s | %6.1f MB%n", inMemory.format(), inMemory.result.length / (1024.0 * 1024.0));
+            System.out.printf("SXSSF %s | %6.1f MB%n", streaming.format(), streaming.result.length / (1024.0 * 1024.0));
+        } finally {
+            if (seeder != null) {
+                seeder.clean();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private static HeapMeter.Measurement<byte[]> download(ConfigurableApplicationContext context) throws Exception {
+        String token = LoadTestEnvironment.token(context.getBean(JwtTokenProvider.class),
+                ReportSeeder.ADMIN_ID, "Relatórios", Role.ADMIN);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(LoadTestEnvironment.baseUrl(context)
+                        + "/api/reports/event/" + ReportSeeder.EVENT_ID + "/excel"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        HttpClient httpClient = HttpClient.newHttpClient();
+
+        get(httpClient, request);
+        return HeapMeter.measure(() -> get(httpClient, request));
+    }
+
+    private static byte[] get(HttpClient httpClient, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        check(response.statusCode() == 200, "relatório recusado: " + response.statusCode());
+        return response.body();
+    }
+
+    /**
+     * @return número de linhas comparadas
+     */
+    private static int compare(byte[] expectedBytes, byte[] actualBytes, int attendanceRows) throws IOException {
+        try (XSSFWorkbook expected = new XSSFWorkbook(new ByteArrayInputStream(expectedBytes));
+             XSSFWorkbook actual = new XSSFWorkbook(new ByteArrayInputStream(actualBytes))) {
+            XSSFSheet expectedSheet = expected.getSheetAt(0);
+            XSSFSheet actualSheet = actual.getSheetAt(0);
+
+            check(expected.getNumberOfSheets() == actual.getNumberOfSheets(), "número de abas diferente");
+            check(expectedSheet.getSheetName().equals(actualSheet.getSheetName()), "nome da aba diferente");
+            check(expectedSheet.getLastRowNum() == actualSheet.getLastRowNum(), "última linha diferente: "
+                    + expectedSheet.getLastRowNum() + " x " + actualSheet.getLastRowNum());
+            check(expectedSheet.getPhysicalNumberOfRows() == actualSheet.getPhysicalNumberOfRows(),
+                    "número de linhas diferente");
+
+            int dataRows = 0;
+            for (int r = 0; r <= expectedSheet.getLastRowNum(); r++) {
+                Row expectedRow = expectedSheet.getRow(r);
+                Row actualRow = actualSheet.getRow(r);
+                check((expectedRow == null) == (actualRow == null), "linha " + r + " só existe em uma das planilhas");
+                if (expectedRow == null) {
+                    continue;
+                }
+                check(expectedRow.getLastCellNum() == actualRow.getLastCellNum(), "linha " + r + ": número de células");
+
+                boolean generatedAt = "Gerado em:".equals(text(expectedRow.getCell(0)));
+                for (int c = 0; c < expectedRow.getLastCellNum(); c++) {
+                    if (generatedAt && c == 1) {
+                        continue;
+                    }
+                    compareCell(r, c, expectedRow.getCell(c), actualRow.getCell(c));
+                }
+                if (expectedRow.getLastCellNum() == 4 && !"Nome".equals(text(expectedRow.getCell(0)))) {
+                    dataRows++;
+                }
+            }
+            check(dataRows == attendanceRows, "linhas de presença: " + dataRows + ", esperadas " + attendanceRows);
+
+            List<String> widths = new ArrayList<>();
+            for (int c = 0; c < 4; c++) {
+                widths.add(expectedSheet.getColumnWidth(c) / 256 + "/" + actualSheet.getColumnWidth(c) / 256);
+            }
+            System.out.println("larguras das colunas (caracteres, XSSF/SXSSF): " + String.join(" ", widths));
+
+            return expectedSheet.getPhysicalNumberOfRows();
+        }
+    }
+
+    private static void compareCell(int r, int c, Cell expected, Cell actual) {
+        String where = "linha " + r + ", coluna " + c;
+        check((expected == null) == (actual == null), where + ": célula só existe em uma das planilhas");
+        if (expected == null) {
+            return;
+        }
+        check(expected.getCellType() == actual.getCellType(), where + ": tipo " + expected.getCellType()
+                + " x " + actual.getCellType());
+        check(Objects.equals(text(expected), text(actual)), where + ": \"" + text(expected) + "\" x \"" + text(actual) + "\"");
+
+        String expectedStyle = style((XSSFCellStyle) expected.getCellStyle());
+        String actualStyle = style((XSSFCellStyle) actual.getCellStyle());
+        check(expectedStyle.equals(actualStyle), where + ": estilo " + expectedStyle + " x " + actualStyle);
+    }
+
+    private static String text(Cell cell) {
+        if (cell == null) {
+            return null;
+        }
+        return switch (cell.getCellType()) {
+            case STRING -> cell.getStringCellValue();
+            case NUMERIC -> String.valueOf(cell.getNumericCellValue());
+            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
+            default -> cell.toString();
+        };
+    }
+
+    private static String style(XSSFCellStyle style) {
+        XSSFFont font = style.getFont();
+        XSSFColor fill = style.getFillForegroundColorColor();
+        return "bold=" + font.getBold()
+                + " size=" + font.getFontHeightInPoints()
+                + " fill=" + style.getFillPattern()
+                + " color=" + (fill != null ? Arrays.toString(fill.getRGB()) : "-");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,624 @@
+package org.fdsmartcheck.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.fdsmartcheck.model.enums.CheckType;
+import org.fdsmartcheck.model.enums.EventStatus;
+import org.fdsmartcheck.repository.AttendanceSummaryRepository;
+import org.fdsmartcheck.repository.AttendanceSummaryRepository.Delta;
+import org.fdsmartcheck.repository.CheckBatchWriter;
+import org.fdsmartcheck.repository.CheckBatchWriter.CheckRow;
+import org.fdsmartcheck.repository.CheckHistoryRepository;
+import org.fdsmartcheck.repository.CheckRepository;
+import org.fdsmartcheck.repository.EventRepository;
+import org.fdsmartcheck.repository.EventSpecifications;
+import org.fdsmartcheck.repository.QRCodeRepository;
+import org.fdsmartcheck.repository.SubEventRepository;
+import org.fdsmartcheck.repository.SubscriptionRepository;
+import org.fdsmartcheck.repository.UserRepository;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * EXPLAIN de todas as consultas dos repositórios (org.fdsmartcheck.repository) sobre tabelas
+ * sintéticas grandes, recusando leituras sequenciais
+ *
+ * Cada cenário chama um método de repositório numa transação desfeita no fim; os comandos que o
+ * Hibernate/JdbcTemplate realmente enviam são capturados pelo datasource-proxy e repetidos com
+ * EXPLAIN (FORMAT JSON) e os mesmos parâmetros. Falha quando:
+ * - algum plano tem Seq Scan sobre uma tabela grande, fora das exceções de ALLOWED_SEQ_SCANS
+ * - algum método público de repositório do pacote não tem cenário
+ *
+ * Qualquer verificação que não confira encerra com erro (código de saída diferente de zero).
+ *
+ * mvn -P loadtest verify -Dloadtest.main=org.fdsmartcheck.loadtest.ExplainPlanCheck
+ * Propriedades (-D, via loadtest.options): loadtest.explain.users (padrão 100000; eventos, subeventos,
+ * inscrições e checks são proporcionais), loadtest.jdbc-url e credenciais de um Postgres existente.
+ */
+public class ExplainPlanCheck {
+
+    private static final String REPOSITORY_PACKAGE = "org.fdsmartcheck.repository";
+    private static final String PREFIX = "explain-";
+
+    private static final Set<String> LARGE_TABLES = Set.of(
+            "users", "events", "sub_events", "subscriptions", "checks", "qr_codes", "attendance_summaries");
+
+    /**
+     * Leituras sequenciais esperadas, por cenário: só as tabelas listadas, pelo motivo indicado
+     */
+    private static final Map<String, SeqScanAllowance> ALLOWED_SEQ_SCANS = Map.of(
+            "AttendanceSummaryRepository.reconcile", new SeqScanAllowance(
+                    Set.of("attendance_summaries", "sub_events"),
+                    "a limpeza dos contadores órfãos compara as duas tabelas inteiras; roda de hora em hora"),
+            "EventRepository.findAll (listagem, primeira página)", new SeqScanAllowance(
+                    Set.of("events"),
+                    "total da listagem sem filtro: conta quase todos os eventos, nenhum índice evita percorrê-los")
+    );
+
+    private static final int SUB_EVENTS_PER_EVENT = 5;
+    private static final int SUBSCRIPTIONS_PER_USER = 5;
+    private static final int CHECKS_PER_USER = 4;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestEnvironment.prepareJvm();
+
+        int users = Integer.getInteger("loadtest.explain.users", 100_000);
+
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext context = null;
+        Dataset dataset = null;
+        try {
+            Properties properties = LoadTestEnvironment.appProperties();
+            postgres = LoadTestEnvironment.startPostgres(properties);
+            properties.setProperty("app.sql.tracing.enabled", "true");
+            // A reconciliação agendada rodaria durante a carga e entraria na captura
+            properties.setProperty("app.attendance.counters.reconcile-initial-delay-ms", "86400000");
+            context = LoadTestEnvironment.startApp(properties);
+
+            dataset = new Dataset(context.getBean(JdbcTemplate.class), users);
+            dataset.seed();
+
+            ExplainPlanCheck check = new ExplainPlanCheck(context, dataset);
+            check.run();
+        } finally {
+            if (dataset != null) {
+                dataset.clean();
+            }
+            if (context != null) {
+                context.close();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private final ConfigurableApplicationContext context;
+    private final Dataset dataset;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CaptureListener capture = new CaptureListener();
+    private final Map<String, Runnable> scenarios = new LinkedHashMap<>();
+
+    private ExplainPlanCheck(ConfigurableApplicationContext context, Dataset dataset) {
+        this.context = context;
+        this.dataset = dataset;
+        this.dataSource = context.getBean(DataSource.class);
+        this.transactionTemplate = context.getBean(TransactionTemplate.class);
+        this.entityManager = context.getBean(EntityManager.class);
+
+        if (!(dataSource instanceof ProxyDataSource proxy)) {
+            throw new IllegalStateException("DataSource sem datasource-proxy (app.sql.tracing.enabled=false?)");
+        }
+        proxy.getProxyConfig().getQueryListener().addListener(capture);
+    }
+
+    private void run() throws Exception {
+        registerScenarios();
+        checkCoverage();
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Runnable> scenario : scenarios.entrySet()) {
+            String name = scenario.getKey();
+            List<CapturedStatement> statements = capture(scenario.getValue());
+            check(!statements.isEmpty(), name + ": nenhum comando SQL capturado");
+
+            System.out.printf("%n%s%n", name);
+            for (CapturedStatement statement : statements) {
+                JsonNode plan = explain(statement);
+                Set<String> nodes = new LinkedHashSet<>();
+                Set<String> seqScans = new TreeSet<>();
+                collect(plan, nodes, seqScans);
+
+                System.out.printf("  %s%n    %s%n", abbreviate(statement.sql), String.join(", ", nodes));
+
+                if (!seqScans.isEmpty()) {
+                    SeqScanAllowance allowance = ALLOWED_SEQ_SCANS.get(name);
+                    if (allowance != null && allowance.relations.containsAll(seqScans)) {
+                        System.out.printf("    Seq Scan permitido em %s: %s%n", seqScans, allowance.reason);
+                    } else {
+                        failures.add(name + ": Seq Scan em " + seqScans + " — " + abbreviate(statement.sql));
+                    }
+                }
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            System.out.printf("%n%d leituras sequenciais sobre tabelas grandes:%n", failures.size());
+            failures.forEach(failure -> System.out.println("  " + failure));
+            throw new IllegalStateException("Leituras sequenciais em " + failures.size() + " comandos");
+        }
+
+        System.out.printf("%nok: %d cenários, nenhuma leitura sequencial fora das exceções (%s)%n",
+                scenarios.size(), dataset.describe());
+    }
+
+    private void registerScenarios() {
+        String user = dataset.userId(42);
+        String event = dataset.eventId(7);
+        String subEvent = dataset.subscribedSubEventId(42, 0);
+        String otherSubEvent = dataset.subscribedSubEventId(42, 1);
+        String checkId = dataset.checkId(42, 0);
+        LocalDateTime now = LocalDateTime.now();
+
+        AttendanceSummaryRepository attendance = context.getBean(AttendanceSummaryRepository.class);
+        scenario("AttendanceSummaryRepository.add", () -> attendance.add(subEvent, 3, new Delta().checkIn()));
+        scenario("AttendanceSummaryRepository.addAll",
+                () -> attendance.addAll(Map.of(subEvent, new Delta().checkIn(), otherSubEvent, new Delta().checkIn()), 2));
+        scenario("AttendanceSummaryRepository.summarizeByEventId", () -> attendance.summarizeByEventId(event));
+        scenario("AttendanceSummaryRepository.summarizeBySubEventId", () -> attendance.summarizeBySubEventId(subEvent));
+        scenario("AttendanceSummaryRepository.reconcile", attendance::reconcile);
+
+        CheckBatchWriter batchWriter = context.getBean(CheckBatchWriter.class);
+        scenario("CheckBatchWriter.insertAll", () -> batchWriter.insertAll(List.of(
+                new CheckRow(UUID.randomUUID().toString(), dataset.subscribedSubEventId(42, 4), user,
+                        now, 0.0, 0.0, null, null, null)), now));
+        scenario("CheckBatchWriter.checkoutAll", () -> batchWriter.checkoutAll(List.of(
+                new CheckRow(checkId, subEvent, user, null, null, null, now, 0.0, 0.0)), now));
+
+        CheckHistoryRepository history = context.getBean(CheckHistoryRepository.class);
+        scenario("CheckHistoryRepository.find (aluno)",
+                () -> history.find(user, null, null, null, null, null, null, null, 51));
+        scenario("CheckHistoryRepository.find (aluno, próxima página)",
+                () -> history.find(user, null, null, null, null, null, now.minusDays(200), checkId, 51));
+        scenario("CheckHistoryRepository.find (admin, todos)",
+                () -> history.find(null, null, null, null, null, null, null, null, 51));
+        scenario("CheckHistoryRepository.find (admin, todos, próxima página)",
+                () -> history.find(null, null, null, null, null, null, now.minusDays(200), checkId, 51));
+        scenario("CheckHistoryRepository.find (admin, período)",
+                () -> history.find(null, null, null, now.minusDays(30), now.minusDays(20), null, null, null, 51));
+        scenario("CheckHistoryRepository.find (evento)",
+                () -> history.find(null, event, null, null, null, null, null, null, 51));
+        scenario("CheckHistoryRepository.find (subevento, checkouts)",
+                () -> history.find(null, null, subEvent, null, null, CheckType.CHECKOUT, null, null, 51));
+
+        CheckRepository checks = context.getBean(CheckRepository.class);
+        scenario("CheckRepository.findBySubEventId", () -> checks.findBySubEventId(subEvent));
+        scenario("CheckRepository.findBySubEventIdAndUserId", () -> checks.findBySubEventIdAndUserId(subEvent, user));
+        scenario("CheckRepository.existsBySubEventIdAndUserId", () -> checks.existsBySubEventIdAndUserId(subEvent, user));
+        scenario("CheckRepository.streamAttendanceByEventId", () -> {
+            try (Stream<?> rows = checks.streamAttendanceByEventId(event)) {
+                rows.limit(1).count();
+            }
+        });
+        scenario("CheckRepository.streamAttendanceBySubEventId", () -> {
+            try (Stream<?> rows = checks.streamAttendanceBySubEventId(subEvent)) {
+                rows.limit(1).count();
+            }
+        });
+        scenario("CheckRepository.findStatesByUserIdAndSubEventIds",
+                () -> checks.findStatesByUserIdAndSubEventIds(user, List.of(subEvent, otherSubEvent)));
+        scenario("CheckRepository.insertCheckInIfAllowed", () -> checks.insertCheckInIfAllowed(
+                UUID.randomUUID().toString(), dataset.subscribedSubEventId(42, 4), user, now, 0.0, 0.0, true));
+        scenario("CheckRepository.checkOutIfOpen", () -> checks.checkOutIfOpen(checkId, now, 0.0, 0.0));
+
+        EventRepository events = context.getBean(EventRepository.class);
+        scenario("EventRepository.findImageHashById", () -> events.findImageHashById(event));
+        scenario("EventRepository.findUpcomingEvents", () -> events.findUpcomingEvents(now, PageRequest.of(0, 50)));
+        scenario("EventRepository.findReportVersion", () -> events.findReportVersion(event));
+        Sort byStartDate = Sort.by("startDate").and(Sort.by("id"));
+        scenario("EventRepository.findAll (listagem, primeira página)", () -> events.findAll(
+                EventSpecifications.notCancelled(), PageRequest.of(0, 20, byStartDate)));
+        scenario("EventRepository.findAll (listagem por status)", () -> events.findAll(
+                EventSpecifications.hasStatus(EventStatus.INACTIVE), PageRequest.of(0, 20, byStartDate)));
+        scenario("EventRepository.findAll (listagem por período)", () -> events.findAll(
+                EventSpecifications.notCancelled()
+                        .and(EventSpecifications.endsAfter(now.plusDays(30)))
+                        .and(EventSpecifications.startsBefore(now.plusDays(37))),
+                PageRequest.of(0, 20, byStartDate)));
+
+        QRCodeRepository qrCodes = context.getBean(QRCodeRepository.class);
+        String qrCode = dataset.activeQrCode(dataset.subEventIndex(42, 0));
+        scenario("QRCodeRepository.findByCodeData", () -> qrCodes.findByCodeData(qrCode));
+        scenario("QRCodeRepository.findWithSubEventByCodeData", () -> qrCodes.findWithSubEventByCodeData(qrCode));
+        scenario("QRCodeRepository.findBySubEventId", () -> qrCodes.findBySubEventId(subEvent));
+        scenario("QRCodeRepository.existsByCodeData", () -> qrCodes.existsByCodeData(qrCode));
+        scenario("QRCodeRepository.findBySubEventIdAndIsActive", () -> qrCodes.findBySubEventIdAndIsActive(subEvent, true));
+        scenario("QRCodeRepository.deactivateAllBySubEventId", () -> qrCodes.deactivateAllBySubEventId(subEvent, now));
+
+        SubEventRepository subEvents = context.getBean(SubEventRepository.class);
+        scenario("SubEventRepository.findByEventId", () -> subEvents.findByEventId(event));
+        scenario("SubEventRepository.findWithEventById", () -> subEvents.findWithEventById(subEvent));
+        scenario("SubEventRepository.summarizeAttendanceByEventId", () -> subEvents.summarizeAttendanceByEventId(event));
+        scenario("SubEventRepository.summarizeAttendanceBySubEventId", () -> subEvents.summarizeAttendanceBySubEventId(subEvent));
+
+        SubscriptionRepository subscriptions = context.getBean(SubscriptionRepository.class);
+        scenario("SubscriptionRepository.findBySubEventId", () -> subscriptions.findBySubEventId(subEvent));
+        scenario("SubscriptionRepository.existsBySubEventIdAndUserId",
+                () -> subscriptions.existsBySubEventIdAndUserId(subEvent, user));
+        scenario("SubscriptionRepository.deleteBySubEventIdAndUserId",
+                () -> subscriptions.deleteBySubEventIdAndUserId(subEvent, user));
+        scenario("SubscriptionRepository.findSubscribedSubEventIds",
+                () -> subscriptions.findSubscribedSubEventIds(user, Set.of(subEvent, otherSubEvent)));
+
+        UserRepository usersRepository = context.getBean(UserRepository.class);
+        scenario("UserRepository.findByEmail", () -> usersRepository.findByEmail(dataset.email(42)));
+        scenario("UserRepository.existsByEmail", () -> usersRepository.existsByEmail(dataset.email(42)));
+        scenario("UserRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase",
+                () -> usersRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase("31415", "31415"));
+        scenario("UserRepository.findAccountStatusById", () -> usersRepository.findAccountStatusById(user));
+    }
+
+    private void scenario(String name, Runnable body) {
+        scenarios.put(name, body);
+    }
+
+    /**
+     * Todo método público declarado nos repositórios do pacote precisa de ao menos um cenário
+     */
+    private void checkCoverage() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isIndependent();
+            }
+        };
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Repository.class));
+
+        Set<String> covered = new TreeSet<>();
+        scenarios.keySet().forEach(name -> covered.add(scenarioMethod(name)));
+
+        Set<String> missing = new TreeSet<>();
+        for (BeanDefinition definition : scanner.findCandidateComponents(REPOSITORY_PACKAGE)) {
+            Class<?> type = Class.forName(definition.getBeanClassName());
+            for (Method method : type.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers) || method.isSynthetic()) {
+                    continue;
+                }
+                String name = type.getSimpleName() + "." + method.getName();
+                if (!covered.contains(name)) {
+                    missing.add(name);
+                }
+            }
+        }
+
+        check(missing.isEmpty(), "Métodos de repositório sem cenário no EXPLAIN: " + missing);
+    }
+
+    /**
+     * "Classe.método (variação)" -> "Classe.método"
+     */
+    private static String scenarioMethod(String name) {
+        int variant = name.indexOf(" (");
+        return variant >= 0 ? name.substring(0, variant) : name;
+    }
+
+    /**
+     * Roda o cenário numa transação desfeita no fim e devolve os comandos enviados por esta thread
+     */
+    private List<CapturedStatement> capture(Runnable body) {
+        List<CapturedStatement> statements = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            capture.start(statements);
+            try {
+                body.run();
+                // Remoções e alterações pendentes no contexto de persistência também viram SQL
+                entityManager.flush();
+            } finally {
+                capture.stop();
+            }
+        });
+        return statements;
+    }
+
+    private JsonNode explain(CapturedStatement statement) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.sql)) {
+            for (ParameterSetOperation operation : statement.parameters) {
+                operation.getMethod().invoke(explain, operation.getArgs());
+            }
+            try (ResultSet rs = explain.executeQuery()) {
+                rs.next();
+                return objectMapper.readTree(rs.getString(1)).get(0).get("Plan");
+            }
+        }
+    }
+
+    private static void collect(JsonNode plan, Set<String> nodes, Set<String> seqScans) {
+        String type = plan.path("Node Type").asText();
+        String relation = plan.path("Relation Name").asText(null);
+        String index = plan.path("Index Name").asText(null);
+
+        if (relation != null) {
+            nodes.add(type + (index != null ? " " + index : " " + relation));
+            if ("Seq Scan".equals(type) && LARGE_TABLES.contains(relation)) {
+                seqScans.add(relation);
+            }
+        } else if (index != null) {
+            nodes.add(type + " " + index);
+        }
+
+        for (JsonNode child : plan.path("Plans")) {
+            collect(child, nodes, seqScans);
+        }
+    }
+
+    private static String abbreviate(String sql) {
+        String compact = sql.replaceAll("\\s+", " ").trim();
+        return compact.length() > 160 ? compact.substring(0, 160) + "..." : compact;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static final class SeqScanAllowance {
+
+        private final Set<String> relations;
+        private final String reason;
+
+        private SeqScanAllowance(Set<String> relations, String reason) {
+            this.relations = relations;
+            this.reason = reason;
+        }
+    }
+
+    private static final class CapturedStatement {
+
+        private final String sql;
+        private final List<ParameterSetOperation> parameters;
+
+        private CapturedStatement(String sql, List<ParameterSetOperation> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    /**
+     * Guarda os comandos executados pela thread do cenário; os das tarefas agendadas ficam de fora
+     */
+    private static final class CaptureListener implements QueryExecutionListener {
+
+        private volatile Thread owner;
+        private volatile List<CapturedStatement> target;
+
+        private void start(List<CapturedStatement> statements) {
+            this.target = statements;
+            this.owner = Thread.currentThread();
+        }
+
+        private void stop() {
+            this.owner = null;
+            this.target = null;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (owner != Thread.currentThread()) {
+                return;
+            }
+            for (QueryInfo queryInfo : queryInfoList) {
+                String sql = queryInfo.getQuery();
+                if (!isPlannable(sql)) {
+                    continue;
+                }
+                // Num lote, o primeiro conjunto de parâmetros representa os demais
+                List<ParameterSetOperation> parameters = queryInfo.getParametersList().isEmpty()
+                        ? List.of()
+                        : new ArrayList<>(queryInfo.getParametersList().get(0));
+                target.add(new CapturedStatement(sql, parameters));
+            }
+        }
+
+        private static boolean isPlannable(String sql) {
+            String start = sql.stripLeading().toLowerCase(Locale.ROOT);
+            return start.startsWith("select") || start.startsWith("with") || start.startsWith("insert")
+                    || start.startsWith("update") || start.startsWith("delete");
+        }
+    }
+
+    /**
+     * Tabelas sintéticas: N usuários, N/10 eventos com SUB_EVENTS_PER_EVENT subeventos cada,
+     * SUBSCRIPTIONS_PER_USER inscrições e CHECKS_PER_USER checks por usuário, dois QR Codes
+     * (um ativo) e uma linha de contadores por subevento. Ids prefixados por PREFIX.
+     */
+    private static final class Dataset {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final int users;
+        private final int events;
+        private final int subEvents;
+
+        private Dataset(JdbcTemplate jdbcTemplate, int users) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.users = users;
+            this.events = Math.max(1, users / 10);
+            this.subEvents = events * SUB_EVENTS_PER_EVENT;
+        }
+
+        String userId(int i) {
+            return PREFIX + "user-" + i;
+        }
+
+        String email(int i) {
+            return PREFIX + "user-" + i + "@explain.local";
+        }
+
+        String eventId(int i) {
+            return PREFIX + "event-" + i;
+        }
+
+        int subEventIndex(int user, int k) {
+            return (int) (((long) user * 7 + (long) k * 9973) % subEvents);
+        }
+
+        String subscribedSubEventId(int user, int k) {
+            return PREFIX + "sub-event-" + subEventIndex(user, k);
+        }
+
+        String activeQrCode(int subEvent) {
+            return PREFIX + "qr-" + subEvent;
+        }
+
+        String checkId(int user, int k) {
+            return PREFIX + "check-" + user + "-" + k;
+        }
+
+        String describe() {
+            return String.format("%d usuários, %d eventos, %d subeventos, %d inscrições, %d checks",
+                    users, events, subEvents, (long) users * SUBSCRIPTIONS_PER_USER, (long) users * CHECKS_PER_USER);
+        }
+
+        void seed() {
+            clean();
+            long begin = System.nanoTime();
+
+            jdbcTemplate.update("""
+                    INSERT INTO users (id, name, email, password, role, is_active, account_version, created_at)
+                    SELECT ? || 'user-' || i, 'Aluno ' || i, ? || 'user-' || i || '@explain.local', '-',
+                           CASE WHEN i = 0 THEN 'ADMIN' ELSE 'STUDENT' END, true, 0,
+                           LOCALTIMESTAMP - (i % 700) * INTERVAL '1 day'
+                    FROM generate_series(0, ? - 1) i
+                    """, PREFIX, PREFIX, users);
+
+            // Eventos espalhados de um ano atrás a um ano à frente, com status variados
+            jdbcTemplate.update("""
+                    INSERT INTO events (id, title, start_date, end_date, status, latitude, longitude, radius,
+                                        created_by, created_at, updated_at)
+                    SELECT ? || 'event-' || i, 'Evento ' || i,
+                           LOCALTIMESTAMP + ((i * 7919) % 730 - 365) * INTERVAL '1 day',
+                           LOCALTIMESTAMP + ((i * 7919) % 730 - 365) * INTERVAL '1 day' + INTERVAL '2 days',
+                           CASE i % 10 WHEN 0 THEN 'CANCELLED' WHEN 1 THEN 'INACTIVE'
+                                       WHEN 2 THEN 'COMPLETED' WHEN 3 THEN 'COMPLETED' ELSE 'ACTIVE' END,
+                           -23.55, -46.63, 100, ? || 'user-0', LOCALTIMESTAMP, LOCALTIMESTAMP
+                    FROM generate_series(0, ? - 1) i
+                    """, PREFIX, PREFIX, events);
+
+            jdbcTemplate.update("""
+                    INSERT INTO sub_events (id, title, event_id, start_date, end_date, latitude, longitude, radius,
+                                            checkin_start, checkin_end, checkout_start, checkout_end, created_at, updated_at)
+                    SELECT ? || 'sub-event-' || s, 'Sessão ' || s, e.id,
+                           e.start_date + (s % ?) * INTERVAL '2 hours',
+                           e.start_date + (s % ?) * INTERVAL '2 hours' + INTERVAL '90 minutes',
+                           -23.55, -46.63, 100,
+                           e.start_date + (s % ?) * INTERVAL '2 hours' - INTERVAL '15 minutes',
+                           e.start_date + (s % ?) * INTERVAL '2 hours' + INTERVAL '30 minutes',
+                           e.start_date + (s % ?) * INTERVAL '2 hours' + INTERVAL '60 minutes',
+                           e.start_date + (s % ?) * INTERVAL '2 hours' + INTERVAL '120 minutes',
+                           LOCALTIMESTAMP, LOCALTIMESTAMP
+                    FROM generate_series(0, ? - 1) s
+                    JOIN events e ON e.id = ? || 'event-' || (s / ?)
+                    """, PREFIX, SUB_EVENTS_PER_EVENT, SUB_EVENTS_PER_EVENT, SUB_EVENTS_PER_EVENT, SUB_EVENTS_PER_EVENT,
+                    SUB_EVENTS_PER_EVENT, SUB_EVENTS_PER_EVENT, subEvents, PREFIX, SUB_EVENTS_PER_EVENT);
+
+            jdbcTemplate.update("""
+                    INSERT INTO qr_codes (id, code_data, sub_event_id, is_active, created_at, updated_at)
+                    SELECT ? || 'qr-old-' || s, ? || 'qr-old-' || s, ? || 'sub-event-' || s, false,
+                           LOCALTIMESTAMP - INTERVAL '10 days', LOCALTIMESTAMP - INTERVAL '1 day'
+                    FROM generate_series(0, ? - 1) s
+                    UNION ALL
+                    SELECT ? || 'qr-' || s, ? || 'qr-' || s, ? || 'sub-event-' || s, true,
+                           LOCALTIMESTAMP - INTERVAL '1 day', LOCALTIMESTAMP - INTERVAL '1 day'
+                    FROM generate_series(0, ? - 1) s
+                    """, PREFIX, PREFIX, PREFIX, subEvents, PREFIX, PREFIX, PREFIX, subEvents);
+
+            // Mesma fórmula de subEventIndex: o usuário u se inscreve nos subeventos k = 0..N-1
+            jdbcTemplate.update("""
+                    INSERT INTO subscriptions (id, user_id, sub_event_id, created_at)
+                    SELECT ? || 'sub-' || u || '-' || k, ? || 'user-' || u,
+                           ? || 'sub-event-' || ((u::bigint * 7 + k * 9973) % ?), LOCALTIMESTAMP
+                    FROM generate_series(0, ? - 1) u, generate_series(0, ? - 1) k
+                    """, PREFIX, PREFIX, PREFIX, subEvents, users, SUBSCRIPTIONS_PER_USER);
+
+            // Checks nos primeiros CHECKS_PER_USER subeventos inscritos, criados ao longo de dois anos
+            jdbcTemplate.update("""
+                    INSERT INTO checks (id, sub_event_id, user_id, checkin_time, checkin_latitude, checkin_longitude,
+                                        checkout_time, checkout_latitude, checkout_longitude, is_present,
+                                        created_at, updated_at)
+                    SELECT ? || 'check-' || u || '-' || k, ? || 'sub-event-' || ((u::bigint * 7 + k * 9973) % ?),
+                           ? || 'user-' || u, t, -23.55, -46.63,
+                           CASE WHEN (u + k) % 3 = 0 THEN NULL ELSE t + INTERVAL '80 minutes' END,
+                           CASE WHEN (u + k) % 3 = 0 THEN NULL ELSE -23.55 END,
+                           CASE WHEN (u + k) % 3 = 0 THEN NULL ELSE -46.63 END,
+                           true, t, t
+                    FROM generate_series(0, ? - 1) u, generate_series(0, ? - 1) k,
+                         LATERAL (SELECT LOCALTIMESTAMP - ((u * 31 + k * 977) % 1051200) * INTERVAL '1 minute' AS t) c
+                    """, PREFIX, PREFIX, subEvents, PREFIX, users, CHECKS_PER_USER);
+
+            jdbcTemplate.update("""
+                    INSERT INTO attendance_summaries (sub_event_id, stripe, subscriptions, total, with_both,
+                                                      only_checkin, only_checkout, with_neither)
+                    SELECT ? || 'sub-event-' || s, 0, 0, 0, 0, 0, 0, 0
+                    FROM generate_series(0, ? - 1) s
+                    """, PREFIX, subEvents);
+
+            jdbcTemplate.execute("ANALYZE");
+            System.out.printf("Dados sintéticos (%s) em %.1f s%n", describe(), (System.nanoTime() - begin) / 1e9);
+        }
+
+        void clean() {
+            String like = PREFIX + "%";
+            jdbcTemplate.update("DELETE FROM attendance_summaries WHERE sub_event_id LIKE ?", like);
+            jdbcTemplate.update("DELETE FROM checks WHERE id LIKE ?", like);
+            jdbcTemplate.update("DELETE FROM subscriptions WHERE id LIKE ?", like);
+            jdbcTemplate.update("DELETE FROM qr_codes WHERE id LIKE ?", like);
+            jdbcTemplate.update("DELETE FROM sub_events WHERE id LIKE ?", like);
+            jdbcTemplate.update("DELETE FROM events WHERE id LIKE ?", like);
+            jdbcTemplate.update("DELETE FROM users WHERE id LIKE ?", like);
+        }
+    }
+}
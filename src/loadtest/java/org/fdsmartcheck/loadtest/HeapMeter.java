@@ -0,0 +1,141 @@
+package org.fdsmartcheck.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Memória de um trecho executado na JVM do teste (a requisição roda numa thread do Tomcat da mesma JVM)
+ *
+ * - pico vivo: maior heap ocupado logo depois de uma coleta durante o trecho, menos o heap vivo
+ *   antes dele — o que o trecho de fato retém
+ * - pico usado: maior heap ocupado amostrado a cada SAMPLE_MS, com lixo ainda não coletado
+ * - alocado: bytes alocados por todas as threads durante o trecho
+ */
+final class HeapMeter {
+
+    private static final long SAMPLE_MS = 5;
+
+    private HeapMeter() {
+    }
+
+    static <T> Measurement<T> measure(Callable<T> body) throws Exception {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        System.gc();
+        long baseline = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        Set<String> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .map(MemoryPoolMXBean::getName)
+                .collect(Collectors.toSet());
+        AtomicLong peakAfterGc = new AtomicLong(baseline);
+        NotificationListener listener = (notification, handback) -> afterGc(notification, heapPools, peakAfterGc);
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean collector : collectors) {
+            ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+        }
+
+        AtomicLong peakUsed = new AtomicLong(baseline);
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakUsed.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(SAMPLE_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+
+        Map<Long, Long> allocatedBefore = allocatedByThread(threads);
+        long begin = System.nanoTime();
+        sampler.start();
+        T result;
+        try {
+            result = body.call();
+        } finally {
+            sampler.interrupt();
+            sampler.join();
+            for (GarbageCollectorMXBean collector : collectors) {
+                ((NotificationEmitter) collector).removeNotificationListener(listener);
+            }
+        }
+        long millis = (System.nanoTime() - begin) / 1_000_000;
+
+        long allocated = 0;
+        for (Map.Entry<Long, Long> entry : allocatedByThread(threads).entrySet()) {
+            allocated += entry.getValue() - allocatedBefore.getOrDefault(entry.getKey(), 0L);
+        }
+
+        return new Measurement<>(result, Math.max(0, peakAfterGc.get() - baseline),
+                Math.max(0, peakUsed.get() - baseline), allocated, millis);
+    }
+
+    private static void afterGc(Notification notification, Set<String> heapPools, AtomicLong peakAfterGc) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        // Só os pools do heap: o mapa traz também metaspace e code cache
+        long used = info.getGcInfo().getMemoryUsageAfterGc().entrySet().stream()
+                .filter(pool -> heapPools.contains(pool.getKey()))
+                .mapToLong(pool -> pool.getValue().getUsed())
+                .sum();
+        peakAfterGc.accumulateAndGet(used, Math::max);
+    }
+
+    private static Map<Long, Long> allocatedByThread(ThreadMXBean threads) {
+        long[] ids = threads.getAllThreadIds();
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> result = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (allocated[i] >= 0) {
+                result.put(ids[i], allocated[i]);
+            }
+        }
+        return result;
+    }
+
+    static final class Measurement<T> {
+
+        final T result;
+        final long peakLiveBytes;
+        final long peakUsedBytes;
+        final long allocatedBytes;
+        final long millis;
+
+        private Measurement(T result, long peakLiveBytes, long peakUsedBytes, long allocatedBytes, long millis) {
+            this.result = result;
+            this.peakLiveBytes = peakLiveBytes;
+            this.peakUsedBytes = peakUsedBytes;
+            this.allocatedBytes = allocatedBytes;
+            this.millis = millis;
+        }
+
+        String format() {
+            return String.format("pico vivo %6.1f MB | pico usado %6.1f MB | alocado %8.1f MB | %6d ms",
+                    mb(peakLiveBytes), mb(peakUsedBytes), mb(allocatedBytes), millis);
+        }
+
+        private static double mb(long bytes) {
+            return bytes / (1024.0 * 1024.0);
+        }
+    }
+}
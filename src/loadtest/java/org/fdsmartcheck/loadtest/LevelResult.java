@@ -0,0 +1,76 @@
+package org.fdsmartcheck.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resultado de uma rodada com concorrência fixa: vazão, percentis de latência e erros por tipo
+ * A latência considera todas as respostas (sucesso, erro ou timeout); falhas de conexão
+ * entram apenas na contagem de erros.
+ */
+class LevelResult {
+
+    private final int concurrency;
+    private final int requests;
+    private final long elapsedNanos;
+    private final long[] latenciesNanos;
+    private final int succeeded;
+    private final Map<String, Integer> errors;
+
+    LevelResult(int concurrency, int requests, long elapsedNanos, long[] latenciesNanos, int succeeded,
+                Map<String, Integer> errors) {
+        this.concurrency = concurrency;
+        this.requests = requests;
+        this.elapsedNanos = elapsedNanos;
+        this.latenciesNanos = latenciesNanos.clone();
+        Arrays.sort(this.latenciesNanos);
+        this.succeeded = succeeded;
+        this.errors = new TreeMap<>(errors);
+    }
+
+    int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Check-ins concluídos com sucesso por segundo
+     */
+    double throughput() {
+        return succeeded / (elapsedNanos / 1e9);
+    }
+
+    double percentileMillis(double percentile) {
+        if (latenciesNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * latenciesNanos.length) - 1;
+        return latenciesNanos[Math.max(0, Math.min(index, latenciesNanos.length - 1))] / 1e6;
+    }
+
+    int errorCount() {
+        return requests - succeeded;
+    }
+
+    String summary() {
+        return String.format("concorrência %4d | %8.1f req/s | p50 %8.2f ms | p95 %8.2f ms | p99 %8.2f ms | erros %d%s",
+                concurrency, throughput(), percentileMillis(50), percentileMillis(95), percentileMillis(99),
+                errorCount(), errors.isEmpty() ? "" : " " + errors);
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("concurrency", concurrency);
+        map.put("requests", requests);
+        map.put("succeeded", succeeded);
+        map.put("elapsedMs", elapsedNanos / 1e6);
+        map.put("throughput", throughput());
+        map.put("p50Ms", percentileMillis(50));
+        map.put("p95Ms", percentileMillis(95));
+        map.put("p99Ms", percentileMillis(99));
+        map.put("maxMs", latenciesNanos.length == 0 ? 0 : latenciesNanos[latenciesNanos.length - 1] / 1e6);
+        map.put("errors", errors);
+        return map;
+    }
+}
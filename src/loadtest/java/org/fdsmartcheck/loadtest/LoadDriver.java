@@ -0,0 +1,177 @@
+package org.fdsmartcheck.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.fdsmartcheck.dto.request.CheckRequest;
+import org.fdsmartcheck.model.enums.CheckType;
+import org.fdsmartcheck.security.GeoPayloadSigner;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rajada de check-ins: cada aluno semeado faz um POST /api/checkin, com no máximo
+ * `concurrency` requisições em andamento ao mesmo tempo (um worker por requisição simultânea)
+ *
+ * O corpo é montado e assinado como no app: GeoPayloadSigner, o mesmo usado por
+ * GeoSecurityService.signPayload, com timestamp atual e requestId novo. A assinatura é feita
+ * fora da medição da latência. No Java 21+ os workers são threads virtuais, para que milhares
+ * de clientes simultâneos não esbarrem no custo das threads do próprio gerador de carga.
+ */
+class LoadDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final ThreadFactory WORKERS = Runtime.version().feature() >= 21
+            ? new VirtualThreadTaskExecutor("loadtest-").getVirtualThreadFactory()
+            : runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            };
+
+    private final HttpClient httpClient;
+    private final URI checkInUri;
+    private final ObjectMapper objectMapper;
+    private final GeoPayloadSigner signer;
+    private final String qrCode;
+    private final List<String> tokens;
+
+    LoadDriver(String baseUrl, ObjectMapper objectMapper, GeoPayloadSigner signer, String qrCode, List<String> tokens) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.checkInUri = URI.create(baseUrl + "/api/checkin");
+        this.objectMapper = objectMapper;
+        this.signer = signer;
+        this.qrCode = qrCode;
+        this.tokens = tokens;
+    }
+
+    LevelResult run(int concurrency) throws InterruptedException {
+        int requests = tokens.size();
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        Map<String, AtomicInteger> errors = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        for (int w = 0; w < concurrency; w++) {
+            Thread worker = WORKERS.newThread(() -> {
+                try {
+                    start.await();
+                    int index;
+                    while ((index = next.getAndIncrement()) < requests) {
+                        HttpRequest request = buildRequest(index);
+                        long begin = System.nanoTime();
+                        String error = send(request);
+                        long latency = System.nanoTime() - begin;
+
+                        if (error == null) {
+                            succeeded.incrementAndGet();
+                        } else {
+                            errors.computeIfAbsent(error, key -> new AtomicInteger()).incrementAndGet();
+                        }
+                        if (error == null || !error.startsWith("IO ")) {
+                            latencies[completed.getAndIncrement()] = latency;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        Map<String, Integer> errorCounts = new HashMap<>();
+        errors.forEach((key, count) -> errorCounts.put(key, count.get()));
+        return new LevelResult(concurrency, requests, elapsed,
+                Arrays.copyOf(latencies, completed.get()), succeeded.get(), errorCounts);
+    }
+
+    private HttpRequest buildRequest(int index) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Alunos espalhados a poucos metros do local do subevento
+        double latitude = LoadTestSeeder.LATITUDE + random.nextDouble(-0.0003, 0.0003);
+        double longitude = LoadTestSeeder.LONGITUDE + random.nextDouble(-0.0003, 0.0003);
+        long timestamp = System.currentTimeMillis();
+        String deviceId = "loadtest-device-" + index;
+
+        CheckRequest body = CheckRequest.builder()
+                .qrCode(qrCode)
+                .requestId(UUID.randomUUID().toString())
+                .type(CheckType.CHECKIN)
+                .geoPayload(CheckRequest.GeoPayload.builder()
+                        .latitude(latitude)
+                        .longitude(longitude)
+                        .timestamp(timestamp)
+                        .deviceId(deviceId)
+                        .build())
+                .signature(signer.sign(deviceId, latitude, longitude, timestamp))
+                .build();
+
+        try {
+            return HttpRequest.newBuilder(checkInUri)
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + tokens.get(index))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return null em caso de sucesso, ou a chave do erro ("status mensagem", "timeout", "IO ...")
+     */
+    private String send(HttpRequest request) throws InterruptedException {
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == 200) {
+                return null;
+            }
+            return response.statusCode() + " " + errorMessage(response.body());
+        } catch (HttpTimeoutException e) {
+            return "timeout";
+        } catch (IOException e) {
+            return "IO " + e.getClass().getSimpleName();
+        }
+    }
+
+    private String errorMessage(byte[] body) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            JsonNode message = json != null ? json.get("message") : null;
+            return message != null ? message.asText() : "";
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.fdsmartcheck.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.fdsmartcheck.FdSmartCheckApplication;
+import org.fdsmartcheck.model.User;
+import org.fdsmartcheck.model.enums.Role;
+import org.fdsmartcheck.security.JwtTokenProvider;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Properties;
+import java.util.TimeZone;
+
+/**
+ * Ambiente comum às ferramentas do perfil loadtest: Postgres (embutido ou loadtest.jdbc-url),
+ * configuração do app e instâncias do app na mesma JVM
+ */
+final class LoadTestEnvironment {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(
+            "loadtest-jwt-secret-0123456789abcdef0123456789".getBytes());
+
+    private LoadTestEnvironment() {
+    }
+
+    /**
+     * Fuso dos dados semeados e sem o reinício do devtools (runtime), que subiria o app em outro classloader
+     */
+    static void prepareJvm() {
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+        System.setProperty("spring.devtools.restart.enabled", "false");
+    }
+
+    /**
+     * Sobe o Postgres embutido, ou usa o de loadtest.jdbc-url, e aponta o datasource para ele
+     *
+     * @return o Postgres embutido (a fechar no fim), ou null quando o banco é externo
+     */
+    static EmbeddedPostgres startPostgres(Properties properties) throws IOException {
+        String jdbcUrl = System.getProperty("loadtest.jdbc-url");
+        if (jdbcUrl != null) {
+            properties.setProperty("spring.datasource.url", jdbcUrl);
+            properties.setProperty("spring.datasource.username", System.getProperty("loadtest.jdbc-username", "postgres"));
+            properties.setProperty("spring.datasource.password", System.getProperty("loadtest.jdbc-password", ""));
+            return null;
+        }
+
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "300")
+                .start();
+        properties.setProperty("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+        properties.setProperty("spring.datasource.username", "postgres");
+        properties.setProperty("spring.datasource.password", "");
+        return postgres;
+    }
+
+    static boolean isExternalDatabase() {
+        return System.getProperty("loadtest.jdbc-url") != null;
+    }
+
+    /**
+     * Configuração recomendada do app, com banco, segredos e logs ajustados para o teste
+     */
+    static Properties appProperties() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestEnvironment.class.getResourceAsStream("/application.properties.example")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        }
+        properties.setProperty("server.port", "0");
+        properties.setProperty("jwt.secret", SECRET);
+        properties.setProperty("jwt.expiration", "3600000");
+        properties.setProperty("app.geo.secret-key", "loadtest-geo-secret");
+        properties.setProperty("spring.jpa.show-sql", "false");
+        properties.setProperty("logging.level.root", "WARN");
+        properties.setProperty("logging.level.org.fdsmartcheck", "WARN");
+        properties.setProperty("logging.level.org.springframework.security", "WARN");
+        // Sob sobrecarga quase todo comando passa do limite; o log só atrapalharia a medição
+        properties.setProperty("app.sql.tracing.slow-query-ms", "0");
+        // Milhares de clientes simultâneos: conexões acima do padrão do Tomcat (8192) esperariam no backlog
+        properties.setProperty("server.tomcat.max-connections", "20000");
+        properties.setProperty("server.tomcat.accept-count", "1000");
+        // Todos os alunos no mesmo subevento: a taxa por subevento (429) mediria só o token bucket;
+        // o limite de concorrência continua ativo (-Dapp.checkin.admission.sub-event.rate-per-second=50 religa)
+        properties.setProperty("app.checkin.admission.sub-event.rate-per-second", "0");
+        return properties;
+    }
+
+    /**
+     * Sobe uma instância do app; propriedades -D da JVM têm precedência sobre as recebidas.
+     * LoadTestErrorAdvice expõe o status das recusas de regra, que o app responde como 500
+     */
+    static ConfigurableApplicationContext startApp(Properties properties) {
+        SpringApplication application = new SpringApplication(FdSmartCheckApplication.class, LoadTestErrorAdvice.class);
+        application.setDefaultProperties(properties);
+        return application.run();
+    }
+
+    static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    /**
+     * Token do aluno semeado por LoadTestSeeder
+     */
+    static String studentToken(JwtTokenProvider tokenProvider, int index) {
+        return token(tokenProvider, LoadTestSeeder.userId(index), "Aluno " + index, Role.STUDENT);
+    }
+
+    /**
+     * Token de um usuário já gravado no banco (ativo, account_version 0)
+     */
+    static String token(JwtTokenProvider tokenProvider, String userId, String name, Role role) {
+        return tokenProvider.generateToken(User.builder()
+                .id(userId)
+                .name(name)
+                .email(userId + "@loadtest.local")
+                .role(role)
+                .accountVersion(0L)
+                .build());
+    }
+}
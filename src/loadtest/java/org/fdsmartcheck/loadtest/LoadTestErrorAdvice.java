@@ -0,0 +1,29 @@
+package org.fdsmartcheck.loadtest;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+/**
+ * Só nas instâncias do perfil loadtest: devolve o status e a mensagem das ResponseStatusException
+ * (que o GlobalExceptionHandler do app responde como 500), para que os testes separem os erros por causa
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+class LoadTestErrorAdvice {
+
+    @ExceptionHandler(ResponseStatusException.class)
+    ResponseEntity<Map<String, Object>> handleResponseStatusException(ResponseStatusException ex) {
+        return ResponseEntity.status(ex.getStatusCode())
+                .headers(ex.getHeaders())
+                .body(Map.of(
+                        "status", ex.getStatusCode().value(),
+                        "message", ex.getReason() != null ? ex.getReason() : ""
+                ));
+    }
+}
@@ -0,0 +1,129 @@
+package org.fdsmartcheck.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Dados do teste de carga: N alunos inscritos em um subevento com check-in aberto e QR Code ativo
+ *
+ * Tudo é gravado direto no banco, com ids prefixados por "loadtest-", para que rodar contra um
+ * Postgres existente não misture nem apague dados reais.
+ */
+class LoadTestSeeder {
+
+    static final String EVENT_ID = "loadtest-event";
+    static final String SUB_EVENT_ID = "loadtest-sub-event";
+    static final String USER_PREFIX = "loadtest-user-";
+
+    static final double LATITUDE = -23.550520;
+    static final double LONGITUDE = -46.633308;
+    static final double RADIUS_METERS = 200;
+
+    private static final int BATCH_SIZE = 1000;
+    private static final long IDLE_POLL_MS = 2000;
+    private static final long IDLE_TIMEOUT_MS = 300_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String qrCode = "SUB-loadtest-" + UUID.randomUUID();
+
+    LoadTestSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    String getQrCode() {
+        return qrCode;
+    }
+
+    static String userId(int index) {
+        return USER_PREFIX + index;
+    }
+
+    void seed(int users) {
+        clean();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp opens = Timestamp.valueOf(LocalDateTime.now().minusHours(1));
+        Timestamp closes = Timestamp.valueOf(LocalDateTime.now().plusHours(6));
+
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, password, role, is_active, account_version, created_at)
+                VALUES ('loadtest-admin', 'Load Test Admin', 'loadtest-admin@loadtest.local', '-', 'ADMIN', true, 0, ?)
+                """, now);
+
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < users; i++) {
+            rows.add(new Object[]{userId(i), "Aluno " + i, userId(i) + "@loadtest.local", now});
+            if (rows.size() == BATCH_SIZE || i == users - 1) {
+                jdbcTemplate.batchUpdate("""
+                        INSERT INTO users (id, name, email, password, role, is_active, account_version, created_at)
+                        VALUES (?, ?, ?, '-', 'STUDENT', true, 0, ?)
+                        """, rows);
+                rows.clear();
+            }
+        }
+
+        jdbcTemplate.update("""
+                INSERT INTO events (id, title, start_date, end_date, status, latitude, longitude, radius, created_by, created_at)
+                VALUES (?, 'Teste de carga', ?, ?, 'ACTIVE', ?, ?, ?, 'loadtest-admin', ?)
+                """, EVENT_ID, opens, closes, LATITUDE, LONGITUDE, RADIUS_METERS, now);
+        jdbcTemplate.update("""
+                INSERT INTO sub_events (id, title, event_id, start_date, end_date, latitude, longitude, radius,
+                                        checkin_start, checkin_end, checkout_start, checkout_end, created_at)
+                VALUES (?, 'Sessão de abertura', ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, SUB_EVENT_ID, EVENT_ID, opens, closes, LATITUDE, LONGITUDE, RADIUS_METERS,
+                opens, closes, opens, closes, now);
+        jdbcTemplate.update("""
+                INSERT INTO qr_codes (id, code_data, sub_event_id, is_active, created_at)
+                VALUES (?, ?, ?, true, ?)
+                """, "loadtest-qr", qrCode, SUB_EVENT_ID, now);
+
+        for (int from = 0; from < users; from += BATCH_SIZE) {
+            jdbcTemplate.update("""
+                    INSERT INTO subscriptions (id, user_id, sub_event_id, created_at)
+                    SELECT 'loadtest-sub-' || i, 'loadtest-user-' || i, ?, ?
+                    FROM generate_series(?, ?) i
+                    """, SUB_EVENT_ID, now, from, Math.min(users, from + BATCH_SIZE) - 1);
+        }
+    }
+
+    /**
+     * Remove os check-ins entre uma rodada e outra, para cada rodada repetir a mesma rajada
+     *
+     * Antes espera o servidor terminar as requisições cujos clientes desistiram por timeout;
+     * senão elas gravariam depois da limpeza e virariam duplicados na rodada seguinte.
+     */
+    void resetChecks() throws InterruptedException {
+        awaitIdle();
+        jdbcTemplate.update("DELETE FROM checks WHERE sub_event_id = ?", SUB_EVENT_ID);
+        jdbcTemplate.update("DELETE FROM attendance_summaries WHERE sub_event_id = ?", SUB_EVENT_ID);
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + IDLE_TIMEOUT_MS;
+        Integer previous = null;
+        while (System.currentTimeMillis() < deadline) {
+            Integer current = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM checks WHERE sub_event_id = ?", Integer.class, SUB_EVENT_ID);
+            if (current != null && current.equals(previous)) {
+                return;
+            }
+            previous = current;
+            Thread.sleep(IDLE_POLL_MS);
+        }
+    }
+
+    void clean() {
+        jdbcTemplate.update("DELETE FROM checks WHERE sub_event_id = ?", SUB_EVENT_ID);
+        jdbcTemplate.update("DELETE FROM attendance_summaries WHERE sub_event_id = ?", SUB_EVENT_ID);
+        jdbcTemplate.update("DELETE FROM subscriptions WHERE sub_event_id = ?", SUB_EVENT_ID);
+        jdbcTemplate.update("DELETE FROM qr_codes WHERE sub_event_id = ?", SUB_EVENT_ID);
+        jdbcTemplate.update("DELETE FROM sub_events WHERE id = ?", SUB_EVENT_ID);
+        jdbcTemplate.update("DELETE FROM events WHERE id = ?", EVENT_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id LIKE 'loadtest-%'");
+    }
+}
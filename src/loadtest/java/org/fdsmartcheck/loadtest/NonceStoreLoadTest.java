@@ -0,0 +1,281 @@
+package org.fdsmartcheck.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.fdsmartcheck.dto.request.CheckRequest;
+import org.fdsmartcheck.model.enums.CheckType;
+import org.fdsmartcheck.security.GeoPayloadSigner;
+import org.fdsmartcheck.security.JwtTokenProvider;
+import org.fdsmartcheck.security.NonceCheckResult;
+import org.fdsmartcheck.security.NonceStore;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Store de nonces compartilhado (app.geo.nonce-store=postgres) com duas instâncias do app no
+ * mesmo banco, e a comparação de vazão com o store em memória
+ *
+ * 1. requestIds aceitos na instância A são recusados como duplicados na B
+ * 2. corrida: cada requestId registrado ao mesmo tempo em A e B é aceito exatamente uma vez
+ * 3. um check-in recusado (fora do raio) consome o requestId: a nova tentativa com o mesmo
+ *    requestId é recusada como duplicada — na outra instância com o Postgres e na mesma
+ *    instância com o store em memória
+ * 4. vazão de register() com loadtest.nonce.threads threads, Postgres x memória
+ *
+ * Qualquer verificação que não confira encerra com erro (código de saída diferente de zero).
+ *
+ * mvn -P loadtest verify -Dloadtest.main=org.fdsmartcheck.loadtest.NonceStoreLoadTest
+ * Propriedades (-D, via loadtest.options): loadtest.nonce.count (padrão 20000),
+ * loadtest.nonce.threads (padrão 16), loadtest.jdbc-url e credenciais de um Postgres existente.
+ */
+public class NonceStoreLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestEnvironment.prepareJvm();
+
+        int count = Integer.getInteger("loadtest.nonce.count", 20_000);
+        int threads = Integer.getInteger("loadtest.nonce.threads", 16);
+
+        EmbeddedPostgres postgres = null;
+        try {
+            Properties properties = LoadTestEnvironment.appProperties();
+            postgres = LoadTestEnvironment.startPostgres(properties);
+
+            properties.setProperty("app.geo.nonce-store", "postgres");
+            double postgresThroughput;
+            ConfigurableApplicationContext nodeA = null;
+            ConfigurableApplicationContext nodeB = null;
+            LoadTestSeeder seeder = null;
+            try {
+                nodeA = LoadTestEnvironment.startApp(properties);
+                nodeB = LoadTestEnvironment.startApp(properties);
+                NonceStore storeA = nodeA.getBean(NonceStore.class);
+                NonceStore storeB = nodeB.getBean(NonceStore.class);
+
+                crossInstance(storeA, storeB, count);
+                race(storeA, storeB, count, threads);
+
+                seeder = new LoadTestSeeder(nodeA.getBean(JdbcTemplate.class));
+                seeder.seed(1);
+                rejectedCheckConsumesNonce("postgres", nodeA, nodeB, seeder.getQrCode());
+
+                postgresThroughput = throughput(storeA, count, threads);
+            } finally {
+                if (seeder != null) {
+                    seeder.clean();
+                }
+                close(nodeB);
+                close(nodeA);
+            }
+
+            properties.setProperty("app.geo.nonce-store", "memory");
+            double memoryThroughput;
+            ConfigurableApplicationContext node = null;
+            seeder = null;
+            try {
+                node = LoadTestEnvironment.startApp(properties);
+                seeder = new LoadTestSeeder(node.getBean(JdbcTemplate.class));
+                seeder.seed(1);
+                rejectedCheckConsumesNonce("memory", node, node, seeder.getQrCode());
+
+                memoryThroughput = throughput(node.getBean(NonceStore.class), count, threads);
+            } finally {
+                if (seeder != null) {
+                    seeder.clean();
+                }
+                close(node);
+            }
+
+            System.out.printf("%nregister() com %d threads, %d nonces%n", threads, count);
+            System.out.printf("memory   %12.0f ops/s%n", memoryThroughput);
+            System.out.printf("postgres %12.0f ops/s (%.1fx mais lento)%n",
+                    postgresThroughput, memoryThroughput / postgresThroughput);
+        } finally {
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private static void crossInstance(NonceStore storeA, NonceStore storeB, int count) {
+        String prefix = "cross-" + UUID.randomUUID() + "-";
+        for (int i = 0; i < count; i++) {
+            check(storeA.register(prefix + i) == NonceCheckResult.ACCEPTED, "nonce novo recusado na instância A");
+        }
+        for (int i = 0; i < count; i++) {
+            check(storeB.register(prefix + i) == NonceCheckResult.DUPLICATE, "nonce de A aceito de novo na instância B");
+        }
+        System.out.printf("ok: %d nonces aceitos em A e recusados em B%n", count);
+    }
+
+    private static void race(NonceStore storeA, NonceStore storeB, int count, int threads) throws InterruptedException {
+        String prefix = "race-" + UUID.randomUUID() + "-";
+        AtomicInteger[] accepted = new AtomicInteger[count];
+        for (int i = 0; i < count; i++) {
+            accepted[i] = new AtomicInteger();
+        }
+
+        // Metade das threads em cada instância, todas percorrendo os mesmos nonces
+        run(threads, thread -> {
+            NonceStore store = thread % 2 == 0 ? storeA : storeB;
+            for (int i = 0; i < count; i++) {
+                if (store.register(prefix + i) == NonceCheckResult.ACCEPTED) {
+                    accepted[i].incrementAndGet();
+                }
+            }
+        });
+
+        for (int i = 0; i < count; i++) {
+            check(accepted[i].get() == 1, "nonce " + i + " aceito " + accepted[i].get() + " vezes na corrida");
+        }
+        System.out.printf("ok: corrida entre A e B com %d threads, cada um dos %d nonces aceito uma vez%n", threads, count);
+    }
+
+    private static void rejectedCheckConsumesNonce(String store, ConfigurableApplicationContext first,
+                                                   ConfigurableApplicationContext second, String qrCode)
+            throws IOException, InterruptedException {
+        CheckInClient firstClient = new CheckInClient(first, qrCode);
+        CheckInClient secondClient = new CheckInClient(second, qrCode);
+        String requestId = UUID.randomUUID().toString();
+
+        // ~1 km ao norte do subevento: recusado depois do registro do nonce
+        HttpResponse<String> far = firstClient.checkIn(requestId, LoadTestSeeder.LATITUDE + 0.01);
+        check(far.statusCode() == 400 && firstClient.message(far).contains("longe"),
+                store + ": check-in fora do raio deveria ser recusado: " + far.body());
+
+        HttpResponse<String> retry = secondClient.checkIn(requestId, LoadTestSeeder.LATITUDE);
+        check(retry.statusCode() == 400 && secondClient.message(retry).contains("duplicada"),
+                store + ": nova tentativa com o mesmo requestId deveria ser duplicada: " + retry.body());
+
+        HttpResponse<String> fresh = secondClient.checkIn(UUID.randomUUID().toString(), LoadTestSeeder.LATITUDE);
+        check(fresh.statusCode() == 200, store + ": check-in com requestId novo deveria passar: " + fresh.body());
+
+        System.out.printf("ok (%s): requestId de check-in recusado não é aceito de novo%n", store);
+    }
+
+    private static double throughput(NonceStore store, int count, int threads) throws InterruptedException {
+        String prefix = "bench-" + UUID.randomUUID() + "-";
+        AtomicInteger next = new AtomicInteger();
+
+        long begin = System.nanoTime();
+        run(threads, thread -> {
+            int i;
+            while ((i = next.getAndIncrement()) < count) {
+                store.register(prefix + i);
+            }
+        });
+        return count / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    private static void run(int threads, ThreadBody body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        List<Throwable> failures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    body.run(thread);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        start.countDown();
+        done.await();
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Falha numa thread do teste", failures.get(0));
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static void close(ConfigurableApplicationContext context) {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * POST /api/checkin do aluno 0 semeado, assinado como no app
+     */
+    private static final class CheckInClient {
+
+        private final HttpClient httpClient = HttpClient.newHttpClient();
+        private final URI checkInUri;
+        private final ObjectMapper objectMapper;
+        private final GeoPayloadSigner signer;
+        private final String token;
+        private final String qrCode;
+
+        private CheckInClient(ConfigurableApplicationContext context, String qrCode) {
+            this.checkInUri = URI.create(LoadTestEnvironment.baseUrl(context) + "/api/checkin");
+            this.objectMapper = context.getBean(ObjectMapper.class);
+            this.signer = context.getBean(GeoPayloadSigner.class);
+            this.token = LoadTestEnvironment.studentToken(context.getBean(JwtTokenProvider.class), 0);
+            this.qrCode = qrCode;
+        }
+
+        private HttpResponse<String> checkIn(String requestId, double latitude) throws IOException, InterruptedException {
+            double longitude = LoadTestSeeder.LONGITUDE;
+            long timestamp = System.currentTimeMillis();
+            String deviceId = "nonce-test-device";
+
+            CheckRequest body = CheckRequest.builder()
+                    .qrCode(qrCode)
+                    .requestId(requestId)
+                    .type(CheckType.CHECKIN)
+                    .geoPayload(CheckRequest.GeoPayload.builder()
+                            .latitude(latitude)
+                            .longitude(longitude)
+                            .timestamp(timestamp)
+                            .deviceId(deviceId)
+                            .build())
+                    .signature(signer.sign(deviceId, latitude, longitude, timestamp))
+                    .build();
+
+            HttpRequest request = HttpRequest.newBuilder(checkInUri)
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+
+        private String message(HttpResponse<String> response) throws IOException {
+            JsonNode json = objectMapper.readTree(response.body());
+            JsonNode message = json != null ? json.get("message") : null;
+            return message != null ? message.asText() : "";
+        }
+    }
+}
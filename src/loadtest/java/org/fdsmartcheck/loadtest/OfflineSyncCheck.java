@@ -0,0 +1,181 @@
+package org.fdsmartcheck.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.fdsmartcheck.dto.request.CheckBatchRequest;
+import org.fdsmartcheck.dto.request.CheckRequest;
+import org.fdsmartcheck.model.enums.CheckType;
+import org.fdsmartcheck.repository.CheckBatchWriter;
+import org.fdsmartcheck.security.GeoPayloadSigner;
+import org.fdsmartcheck.security.JwtTokenProvider;
+import org.fdsmartcheck.service.QRCodeService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Sincronização offline (POST /api/checkin/batch) depois do fim da sessão e de uma rotação do QR Code
+ *
+ * 1. check-in capturado com o QR Code A enquanto ele estava ativo: aceito, mesmo com A já
+ *    desativado e as janelas de check-in/checkout encerradas na hora do envio
+ * 2. checkout capturado com A depois da rotação: recusado (A não estava ativo na captura)
+ * 3. checkout capturado com o QR Code B, ativo na captura: aceito
+ * 4. CheckBatchWriter marca como não gravadas só as linhas descartadas pelo ON CONFLICT /
+ *    pelo checkout já feito, num mesmo comando com linhas gravadas
+ *
+ * Qualquer verificação que não confira encerra com erro (código de saída diferente de zero).
+ *
+ * mvn -P loadtest verify -Dloadtest.main=org.fdsmartcheck.loadtest.OfflineSyncCheck
+ */
+public class OfflineSyncCheck {
+
+    private static final long STEP_MS = 1500;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestEnvironment.prepareJvm();
+
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext context = null;
+        LoadTestSeeder seeder = null;
+        try {
+            Properties properties = LoadTestEnvironment.appProperties();
+            postgres = LoadTestEnvironment.startPostgres(properties);
+            context = LoadTestEnvironment.startApp(properties);
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            seeder = new LoadTestSeeder(jdbcTemplate);
+            seeder.seed(2);
+            String qrCodeA = seeder.getQrCode();
+
+            Thread.sleep(STEP_MS);
+            long capturedWithA = System.currentTimeMillis();
+            Thread.sleep(STEP_MS);
+
+            // Rotação: A desativado, B ativo
+            String qrCodeB = context.getBean(QRCodeService.class)
+                    .generateQRCodeForSubEvent(LoadTestSeeder.SUB_EVENT_ID)
+                    .getCodeData();
+
+            Thread.sleep(STEP_MS);
+            long capturedAfterRotation = System.currentTimeMillis();
+
+            // Sessão encerrada logo depois da última captura
+            Timestamp closed = Timestamp.valueOf(LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(capturedAfterRotation + 200), ZoneId.systemDefault()));
+            jdbcTemplate.update("UPDATE sub_events SET checkin_end = ?, checkout_end = ? WHERE id = ?",
+                    closed, closed, LoadTestSeeder.SUB_EVENT_ID);
+            Thread.sleep(STEP_MS);
+
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            GeoPayloadSigner signer = context.getBean(GeoPayloadSigner.class);
+            CheckBatchRequest batch = CheckBatchRequest.builder()
+                    .items(List.of(
+                            item(signer, qrCodeA, CheckType.CHECKIN, capturedWithA),
+                            item(signer, qrCodeA, CheckType.CHECKOUT, capturedAfterRotation),
+                            item(signer, qrCodeB, CheckType.CHECKOUT, capturedAfterRotation)))
+                    .build();
+
+            HttpRequest request = HttpRequest.newBuilder(URI.create(LoadTestEnvironment.baseUrl(context) + "/api/checkin/batch"))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer "
+                            + LoadTestEnvironment.studentToken(context.getBean(JwtTokenProvider.class), 0))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch)))
+                    .build();
+            HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            check(response.statusCode() == 200, "lote recusado: " + response.body());
+
+            JsonNode results = objectMapper.readTree(response.body()).get("results");
+            check(results.get(0).get("success").asBoolean(),
+                    "check-in capturado com o QR Code ativo deveria ser aceito: " + results.get(0));
+            check(!results.get(1).get("success").asBoolean()
+                            && results.get(1).get("message").asText().contains("não estava ativo"),
+                    "checkout capturado com o QR Code já desativado deveria ser recusado: " + results.get(1));
+            check(results.get(2).get("success").asBoolean(),
+                    "checkout capturado com o QR Code novo deveria ser aceito: " + results.get(2));
+
+            System.out.println("ok: lote sincronizado depois da sessão julgado pelo horário da captura");
+
+            writerReportsSkippedRows(context.getBean(CheckBatchWriter.class), jdbcTemplate);
+        } finally {
+            if (seeder != null) {
+                seeder.clean();
+            }
+            if (context != null) {
+                context.close();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private static void writerReportsSkippedRows(CheckBatchWriter writer, JdbcTemplate jdbcTemplate) {
+        LocalDateTime now = LocalDateTime.now();
+        String existingId = jdbcTemplate.queryForObject("SELECT id FROM checks WHERE sub_event_id = ? AND user_id = ?",
+                String.class, LoadTestSeeder.SUB_EVENT_ID, LoadTestSeeder.userId(0));
+
+        // Aluno 0 já tem check: a linha conflita; aluno 1 não tem
+        boolean[] inserted = writer.insertAll(List.of(
+                row(UUID.randomUUID().toString(), 0, now, null),
+                row(UUID.randomUUID().toString(), 1, now, null)), now);
+        check(!inserted[0] && inserted[1], "insertAll deveria gravar só a linha sem conflito: "
+                + Arrays.toString(inserted));
+
+        String newId = jdbcTemplate.queryForObject("SELECT id FROM checks WHERE sub_event_id = ? AND user_id = ?",
+                String.class, LoadTestSeeder.SUB_EVENT_ID, LoadTestSeeder.userId(1));
+
+        // O check do aluno 0 já tem checkout; o do aluno 1 não
+        boolean[] checkedOut = writer.checkoutAll(List.of(
+                row(existingId, 0, now, now),
+                row(newId, 1, now, now)), now);
+        check(!checkedOut[0] && checkedOut[1], "checkoutAll deveria gravar só o checkout pendente: "
+                + Arrays.toString(checkedOut));
+
+        System.out.println("ok: CheckBatchWriter informa as linhas descartadas no mesmo comando");
+    }
+
+    private static CheckBatchWriter.CheckRow row(String id, int user, LocalDateTime checkinTime, LocalDateTime checkoutTime) {
+        return new CheckBatchWriter.CheckRow(id, LoadTestSeeder.SUB_EVENT_ID, LoadTestSeeder.userId(user),
+                checkinTime, LoadTestSeeder.LATITUDE, LoadTestSeeder.LONGITUDE,
+                checkoutTime, checkoutTime != null ? LoadTestSeeder.LATITUDE : null,
+                checkoutTime != null ? LoadTestSeeder.LONGITUDE : null);
+    }
+
+    private static CheckRequest item(GeoPayloadSigner signer, String qrCode, CheckType type, long timestamp) {
+        String deviceId = "offline-test-device";
+        double latitude = LoadTestSeeder.LATITUDE;
+        double longitude = LoadTestSeeder.LONGITUDE;
+
+        return CheckRequest.builder()
+                .qrCode(qrCode)
+                .requestId(UUID.randomUUID().toString())
+                .type(type)
+                .geoPayload(CheckRequest.GeoPayload.builder()
+                        .latitude(latitude)
+                        .longitude(longitude)
+                        .timestamp(timestamp)
+                        .deviceId(deviceId)
+                        .build())
+                .signature(signer.sign(deviceId, latitude, longitude, timestamp))
+                .build();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
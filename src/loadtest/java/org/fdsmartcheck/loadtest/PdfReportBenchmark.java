@@ -0,0 +1,153 @@
+package org.fdsmartcheck.loadtest;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.fdsmartcheck.model.enums.Role;
+import org.fdsmartcheck.security.JwtTokenProvider;
+import org.fdsmartcheck.service.AttendanceCounterService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Relatório PDF de um evento com 100 mil linhas de presença em GET /api/reports/event/{id}/pdf,
+ * gerado em memória (app.reports.pdf.streaming=false) e em streaming (padrão)
+ *
+ * Cada caminho sobe uma instância do app, aquece com uma requisição e mede outras
+ * loadtest.report.iterations com HeapMeter (tempo, pico de heap e bytes alocados). Antes da
+ * tabela, confere que os dois PDFs têm o mesmo número de páginas e que o de streaming traz
+ * todas as linhas (um email por linha).
+ *
+ * Qualquer diferença encerra com erro (código de saída diferente de zero).
+ *
+ * mvn -P loadtest verify -Dloadtest.main=org.fdsmartcheck.loadtest.PdfReportBenchmark
+ * Propriedades (-D, via loadtest.options): loadtest.report.sub-events (padrão 50),
+ * loadtest.report.attendees (padrão 2000), loadtest.report.iterations (padrão 3),
+ * app.reports.pdf.flush-rows, loadtest.jdbc-url e credenciais de um Postgres existente.
+ */
+public class PdfReportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestEnvironment.prepareJvm();
+
+        int subEvents = Integer.getInteger("loadtest.report.sub-events", 50);
+        int attendees = Integer.getInteger("loadtest.report.attendees", 2000);
+        int iterations = Integer.getInteger("loadtest.report.iterations", 3);
+
+        EmbeddedPostgres postgres = null;
+        ReportSeeder seeder = null;
+        try {
+            Properties properties = LoadTestEnvironment.appProperties();
+            postgres = LoadTestEnvironment.startPostgres(properties);
+
+            // Conexão própria: a limpeza no fim roda com os contextos já fechados
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                    properties.getProperty("spring.datasource.url"),
+                    properties.getProperty("spring.datasource.username"),
+                    properties.getProperty("spring.datasource.password")));
+
+            Map<String, List<HeapMeter.Measurement<byte[]>>> results = new LinkedHashMap<>();
+            for (String streaming : List.of("false", "true")) {
+                properties.setProperty("app.reports.pdf.streaming", streaming);
+                ConfigurableApplicationContext context = LoadTestEnvironment.startApp(properties);
+                try {
+                    if (seeder == null) {
+                        seeder = new ReportSeeder(jdbcTemplate);
+                        seeder.seed(subEvents, attendees);
+                        context.getBean(AttendanceCounterService.class).reconcile();
+                    }
+                    results.put("true".equals(streaming) ? "streaming" : "memória", download(context, iterations));
+                } finally {
+                    context.close();
+                }
+            }
+
+            byte[] inMemory = results.get("memória").get(0).result;
+            byte[] streamed = results.get("streaming").get(0).result;
+            int pages = pages(inMemory);
+            check(pages == pages(streamed), "número de páginas diferente: " + pages + " x " + pages(streamed));
+            long emails = countEmails(streamed);
+            check(emails == (long) subEvents * attendees, "linhas no PDF: " + emails + ", esperadas " + subEvents * attendees);
+            System.out.printf("ok: %d páginas nos dois caminhos, %d linhas de presença%n", pages, emails);
+
+            System.out.printf("%nGET /api/reports/event/{id}/pdf, %d subeventos x %d presenças%n", subEvents, attendees);
+            for (Map.Entry<String, List<HeapMeter.Measurement<byte[]>>> entry : results.entrySet()) {
+                for (HeapMeter.Measurement<byte[]> measurement : entry.getValue()) {
+                    System.out.printf("%-9s %s | %6.1f MB%n", entry.getKey(), measurement.format(),
+                            measurement.result.length / (1024.0 * 1024.0));
+                }
+            }
+        } finally {
+            if (seeder != null) {
+                seeder.clean();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private static List<HeapMeter.Measurement<byte[]>> download(ConfigurableApplicationContext context, int iterations)
+            throws Exception {
+        String token = LoadTestEnvironment.token(context.getBean(JwtTokenProvider.class),
+                ReportSeeder.ADMIN_ID, "Relatórios", Role.ADMIN);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(LoadTestEnvironment.baseUrl(context)
+                        + "/api/reports/event/" + ReportSeeder.EVENT_ID + "/pdf"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        HttpClient httpClient = HttpClient.newHttpClient();
+
+        get(httpClient, request);
+        List<HeapMeter.Measurement<byte[]>> measurements = new ArrayList<>();
+        for (int i = 0; i < iterations; i++) {
+            measurements.add(HeapMeter.measure(() -> get(httpClient, request)));
+        }
+        return measurements;
+    }
+
+    private static byte[] get(HttpClient httpClient, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        check(response.statusCode() == 200, "relatório recusado: " + response.statusCode());
+        return response.body();
+    }
+
+    private static int pages(byte[] pdf) throws IOException {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            return document.getNumberOfPages();
+        }
+    }
+
+    private static long countEmails(byte[] pdf) throws IOException {
+        long count = 0;
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                String text = PdfTextExtractor.getTextFromPage(document.getPage(page));
+                for (int i = text.indexOf("@loadtest.local"); i >= 0; i = text.indexOf("@loadtest.local", i + 1)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.fdsmartcheck.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Evento sintético dos relatórios: subEvents subeventos com attendees alunos inscritos em todos,
+ * cada um com check-in (e, em dois terços dos casos, checkout) — subEvents x attendees linhas
+ *
+ * Ids prefixados por "loadtest-report-"; tudo é gravado direto no banco, em poucos comandos.
+ */
+class ReportSeeder {
+
+    static final String PREFIX = "loadtest-report-";
+    static final String EVENT_ID = PREFIX + "event";
+    static final String ADMIN_ID = PREFIX + "admin";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ReportSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    void seed(int subEvents, int attendees) {
+        clean();
+
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, password, role, is_active, account_version, created_at)
+                VALUES (?, 'Relatórios', ? || '@loadtest.local', '-', 'ADMIN', true, 0, LOCALTIMESTAMP)
+                """, ADMIN_ID, ADMIN_ID);
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, password, role, is_active, account_version, created_at)
+                SELECT ? || 'user-' || i, 'Participante ' || i || ' da Silva', ? || 'user-' || i || '@loadtest.local',
+                       '-', 'STUDENT', true, 0, LOCALTIMESTAMP
+                FROM generate_series(0, ? - 1) i
+                """, PREFIX, PREFIX, attendees);
+
+        jdbcTemplate.update("""
+                INSERT INTO events (id, title, start_date, end_date, status, latitude, longitude, radius, created_by,
+                                    created_at, updated_at)
+                VALUES (?, 'Congresso (relatório sintético)', date_trunc('day', LOCALTIMESTAMP),
+                        date_trunc('day', LOCALTIMESTAMP) + INTERVAL '3 days', 'ACTIVE', -23.55, -46.63, 100, ?,
+                        LOCALTIMESTAMP, LOCALTIMESTAMP)
+                """, EVENT_ID, ADMIN_ID);
+        jdbcTemplate.update("""
+                INSERT INTO sub_events (id, title, event_id, start_date, end_date, latitude, longitude, radius,
+                                        checkin_start, checkin_end, checkout_start, checkout_end, created_at, updated_at)
+                SELECT ? || 'sub-event-' || s, 'Sessão ' || s, ?, t, t + INTERVAL '90 minutes', -23.55, -46.63, 100,
+                       t - INTERVAL '15 minutes', t + INTERVAL '30 minutes', t + INTERVAL '60 minutes',
+                       t + INTERVAL '120 minutes', LOCALTIMESTAMP, LOCALTIMESTAMP
+                FROM generate_series(0, ? - 1) s,
+                     LATERAL (SELECT date_trunc('day', LOCALTIMESTAMP) + s * INTERVAL '2 hours' AS t) st
+                """, PREFIX, EVENT_ID, subEvents);
+
+        jdbcTemplate.update("""
+                INSERT INTO subscriptions (id, user_id, sub_event_id, created_at)
+                SELECT ? || 'subscription-' || s || '-' || i, ? || 'user-' || i, ? || 'sub-event-' || s, LOCALTIMESTAMP
+                FROM generate_series(0, ? - 1) s, generate_series(0, ? - 1) i
+                """, PREFIX, PREFIX, PREFIX, subEvents, attendees);
+        jdbcTemplate.update("""
+                INSERT INTO checks (id, sub_event_id, user_id, checkin_time, checkin_latitude, checkin_longitude,
+                                    checkout_time, checkout_latitude, checkout_longitude, is_present, created_at, updated_at)
+                SELECT ? || 'check-' || s || '-' || i, ? || 'sub-event-' || s, ? || 'user-' || i,
+                       t, -23.55, -46.63,
+                       CASE WHEN i % 3 = 0 THEN NULL ELSE t + INTERVAL '75 minutes' END,
+                       CASE WHEN i % 3 = 0 THEN NULL ELSE -23.55 END,
+                       CASE WHEN i % 3 = 0 THEN NULL ELSE -46.63 END,
+                       true, t, t
+                FROM generate_series(0, ? - 1) s, generate_series(0, ? - 1) i,
+                     LATERAL (SELECT date_trunc('day', LOCALTIMESTAMP) + s * INTERVAL '2 hours'
+                                     - INTERVAL '10 minutes' + (i % 40) * INTERVAL '1 minute' AS t) ct
+                """, PREFIX, PREFIX, PREFIX, subEvents, attendees);
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    void clean() {
+        String like = PREFIX + "%";
+        jdbcTemplate.update("DELETE FROM attendance_summaries WHERE sub_event_id LIKE ?", like);
+        jdbcTemplate.update("DELETE FROM checks WHERE id LIKE ?", like);
+        jdbcTemplate.update("DELETE FROM subscriptions WHERE id LIKE ?", like);
+        jdbcTemplate.update("DELETE FROM sub_events WHERE id LIKE ?", like);
+        jdbcTemplate.update("DELETE FROM events WHERE id LIKE ?", like);
+        jdbcTemplate.update("DELETE FROM users WHERE id LIKE ?", like);
+    }
+}
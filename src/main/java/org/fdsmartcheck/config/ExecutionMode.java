@@ -0,0 +1,61 @@
+package org.fdsmartcheck.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Modo de execução: threads de plataforma (padrão) ou threads virtuais
+ *
+ * Com spring.threads.virtual.enabled=true e Java 21+, o Spring Boot atende as requisições do
+ * Tomcat em threads virtuais (server.tomcat.threads.max deixa de limitar a concorrência); os
+ * executores do app (relatórios) usam a fábrica daqui para seguir o mesmo modo. Quem limita o
+ * acesso ao Postgres passa a ser o pool do Hikari (spring.datasource.hikari.maximum-pool-size):
+ * as threads virtuais esperam na fila do pool sem prender threads do sistema.
+ */
+@Component
+public class ExecutionMode {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionMode.class);
+
+    private final boolean virtualThreads;
+
+    public ExecutionMode(Environment environment) {
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (requested && !virtualThreads) {
+            logger.warn("spring.threads.virtual.enabled requer Java 21+ (atual: {}); usando threads de plataforma",
+                    System.getProperty("java.version"));
+        }
+        logger.info("Modo de execução: threads {}, pool do banco com até {} conexões",
+                virtualThreads ? "virtuais" : "de plataforma",
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", "10"));
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Fábrica de threads do modo atual; as de plataforma são daemon e numeradas a partir de 1
+     */
+    public ThreadFactory threadFactory(String namePrefix) {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor(namePrefix).getVirtualThreadFactory();
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package org.fdsmartcheck.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.fdsmartcheck.security.NonceStore;
+import org.fdsmartcheck.security.TokenBlacklistService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gauges das estruturas em memória do check-in, lidas a cada coleta do /actuator/prometheus
+ *
+ * Pool do Hikari, JVM e http.server.requests vêm da autoconfiguração do actuator;
+ * as etapas e rejeições do check-in ficam em CheckMetrics.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Nonces retidos pelo anti-replay (no store postgres, a estimativa relida pela limpeza periódica)
+     */
+    @Bean
+    public MeterBinder nonceStoreMetrics(NonceStore nonceStore) {
+        return registry -> Gauge.builder("fdsmartcheck.nonce.store.size", nonceStore, store -> store.stats().getSize())
+                .description("Nonces retidos pelo anti-replay do check-in")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder tokenBlacklistMetrics(TokenBlacklistService tokenBlacklistService) {
+        return registry -> Gauge.builder("fdsmartcheck.token.blacklist.size", tokenBlacklistService, TokenBlacklistService::size)
+                .description("Tokens revogados (logout) retidos em memória")
+                .register(registry);
+    }
+}
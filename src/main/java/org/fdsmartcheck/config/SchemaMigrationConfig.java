@@ -0,0 +1,55 @@
+package org.fdsmartcheck.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Migrações versionadas do esquema (Flyway, em src/main/resources/db/migration)
+ *
+ * As tabelas continuam sendo criadas e atualizadas pelo Hibernate (ddl-auto), então as migrações
+ * só podem rodar depois dele: a estratégia que o Boot executa antes do EntityManagerFactory não faz
+ * nada, e o migrate é chamado por um bean que depende do EntityManagerFactory já pronto.
+ * Bancos sem o histórico do Flyway (inclusive os recém-criados pelo Hibernate) recebem uma
+ * baseline na versão 0 e aplicam todas as migrações.
+ */
+@Configuration
+public class SchemaMigrationConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrationConfig.class);
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy() {
+        return flyway -> {
+        };
+    }
+
+    @Bean
+    public FlywayConfigurationCustomizer flywayBaselineCustomizer() {
+        return configuration -> configuration.baselineOnMigrate(true).baselineVersion("0");
+    }
+
+    @Bean
+    public SchemaMigrations schemaMigrations(ObjectProvider<Flyway> flyway, EntityManagerFactory entityManagerFactory) {
+        flyway.ifAvailable(f -> {
+            MigrateResult result = f.migrate();
+            if (result.migrationsExecuted > 0) {
+                logger.info("{} migrações aplicadas; esquema na versão {}", result.migrationsExecuted, result.targetSchemaVersion);
+            }
+        });
+        return new SchemaMigrations();
+    }
+
+    /**
+     * Marca o fim das migrações; beans que dependam delas podem usar @DependsOn("schemaMigrations")
+     */
+    public static final class SchemaMigrations {
+    }
+}
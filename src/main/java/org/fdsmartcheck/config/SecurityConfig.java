@@ -1,7 +1,10 @@
 package org.fdsmartcheck.config;
 
 import org.fdsmartcheck.security.JwtAuthenticationFilter;
+import org.fdsmartcheck.security.MetricsScrapeTokenFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -32,20 +35,32 @@ public class SecurityConfig {
     private final CorsConfigurationSource corsConfigurationSource;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            @Value("${app.metrics.scrape-token:}") String scrapeToken
+    ) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .authorizeHttpRequests(auth -> auth
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                // Redespacho de respostas assíncronas (streaming): a requisição original já foi autorizada
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
+                // Health check sem token; métricas só para ADMIN ou com o token de coleta (app.metrics.scrape-token)
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers(HttpMethod.GET, MetricsScrapeTokenFilter.PROMETHEUS_PATH)
+                        .hasAnyRole("ADMIN", MetricsScrapeTokenFilter.ROLE)
+                // Imagens dos eventos carregadas direto por <img>, sem o cabeçalho Authorization
+                .requestMatchers(HttpMethod.GET, "/api/events/*/image").permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new MetricsScrapeTokenFilter(scrapeToken), JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,56 @@
+package org.fdsmartcheck.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.fdsmartcheck.metrics.SqlTracingFilter;
+import org.fdsmartcheck.metrics.SqlTracingListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Contagem de comandos SQL por requisição (app.sql.tracing.enabled, desligada por padrão;
+ * a configuração de desenvolvimento em application.properties.example a liga)
+ *
+ * O DataSource do pool é embrulhado pelo datasource-proxy: toda execução JDBC — Hibernate,
+ * JdbcTemplate ou Flyway — passa pelo SqlTracingListener. O filtro roda antes do Spring Security
+ * para que as consultas da autenticação também entrem na conta da requisição.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql.tracing.enabled", havingValue = "true")
+public class SqlTracingConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlTracingDataSourcePostProcessor(
+            @Value("${app.sql.tracing.slow-query-ms:200}") long slowQueryMs
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new SqlTracingListener(slowQueryMs))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlTracingFilter> sqlTracingFilter(
+            @Value("${app.sql.tracing.max-statements:25}") int maxStatements
+    ) {
+        FilterRegistrationBean<SqlTracingFilter> registration =
+                new FilterRegistrationBean<>(new SqlTracingFilter(maxStatements));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -5,6 +5,7 @@ import org.fdsmartcheck.dto.request.LoginRequest;
 import org.fdsmartcheck.dto.response.LoginResponse;
 import org.fdsmartcheck.security.TokenBlacklistService;
 import org.fdsmartcheck.security.JwtTokenProvider;
+import org.fdsmartcheck.security.VerifiedToken;
 import org.fdsmartcheck.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -40,13 +41,15 @@ public class AuthController {
             @org.springframework.web.bind.annotation.RequestHeader("Authorization") String authHeader) {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
+            VerifiedToken verified = null;
             try {
-                java.util.Date expiration = jwtTokenProvider.extractClaim(token,
-                        io.jsonwebtoken.Claims::getExpiration);
-                tokenBlacklistService.blacklist(token, expiration.getTime());
+                verified = jwtTokenProvider.verify(token);
             } catch (Exception e) {
                 // Token already invalid — ignore
             }
+            if (verified != null) {
+                tokenBlacklistService.blacklist(verified.revocationKey(token), verified.getExpiration().getTime());
+            }
         }
         return ResponseEntity.ok(Map.of("message", "Logout realizado com sucesso"));
     }
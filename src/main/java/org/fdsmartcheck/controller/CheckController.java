@@ -1,14 +1,23 @@
 package org.fdsmartcheck.controller;
 
+import org.fdsmartcheck.dto.request.CheckBatchRequest;
+import org.fdsmartcheck.dto.request.CheckHistoryFilter;
 import org.fdsmartcheck.dto.request.CheckRequest;
+import org.fdsmartcheck.dto.response.CheckBatchResponse;
 import org.fdsmartcheck.dto.response.CheckInfoResponse;
 import org.fdsmartcheck.dto.response.CheckResponse;
+import org.fdsmartcheck.dto.response.CursorPage;
+import org.fdsmartcheck.service.CheckAdmissionService;
+import org.fdsmartcheck.service.CheckBatchService;
+import org.fdsmartcheck.service.AttendanceStreamService;
 import org.fdsmartcheck.service.CheckService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -19,24 +28,66 @@ import java.util.List;
 public class CheckController {
 
     private final CheckService checkService;
+    private final CheckAdmissionService checkAdmissionService;
+    private final CheckBatchService checkBatchService;
+    private final AttendanceStreamService attendanceStreamService;
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Check-in/checkout pelo QR Code do subevento
+     * 429 (taxa do subevento) ou 503 (servidor saturado) com Retry-After antes de tocar o banco
+     *
+     * POST /api/checkin
+     */
     @PostMapping
     public ResponseEntity<CheckResponse> performCheck(@Valid @RequestBody CheckRequest request) {
-        CheckResponse response = checkService.performCheck(request);
+        CheckResponse response = checkAdmissionService.admit(request.getQrCode(),
+                () -> checkService.performCheck(request));
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Sincroniza check-ins/checkouts capturados offline
+     * 200 com o resultado de cada item (sucesso ou erro); 503 com Retry-After se o servidor
+     * estiver saturado, antes de tocar o banco
+     *
+     * POST /api/checkin/batch
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<CheckBatchResponse> performBatch(@Valid @RequestBody CheckBatchRequest request) {
+        CheckBatchResponse response = checkAdmissionService.admitBatch(request.getItems().size(),
+                () -> checkBatchService.performBatch(request));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Histórico paginado por cursor, do mais recente para o mais antigo
+     * Filtros opcionais: subEventId, from, to (ISO-8601), type (CHECKIN/CHECKOUT), limit
+     * A próxima página vem no cabeçalho X-Next-Cursor (ausente na última), repassado em ?cursor=
+     *
+     * GET /api/checkin/history
+     */
     @GetMapping("/history")
-    public ResponseEntity<List<CheckResponse>> getCheckHistory() {
-        List<CheckResponse> history = checkService.getCheckHistory();
-        return ResponseEntity.ok(history);
+    public ResponseEntity<List<CheckResponse>> getCheckHistory(CheckHistoryFilter filter) {
+        return pageResponse(checkService.getCheckHistory(filter));
     }
 
     @GetMapping("/event/{eventId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<CheckResponse>> getChecksByEvent(@PathVariable String eventId) {
-        List<CheckResponse> checks = checkService.getChecksByEventId(eventId);
-        return ResponseEntity.ok(checks);
+    public ResponseEntity<List<CheckResponse>> getChecksByEvent(@PathVariable String eventId, CheckHistoryFilter filter) {
+        return pageResponse(checkService.getChecksByEventId(eventId, filter));
+    }
+
+    /**
+     * Painel ao vivo: check-ins/checkouts e totais por subevento via Server-Sent Events
+     *
+     * GET /api/checkin/event/{eventId}/stream
+     */
+    @GetMapping(value = "/event/{eventId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter streamEventAttendance(@PathVariable String eventId) {
+        return attendanceStreamService.subscribe(eventId);
     }
 
     @GetMapping("/info")
@@ -44,4 +95,12 @@ public class CheckController {
         CheckInfoResponse info = checkService.getCheckInfo(qrCode);
         return ResponseEntity.ok(info);
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<List<CheckResponse>> pageResponse(CursorPage<CheckResponse> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
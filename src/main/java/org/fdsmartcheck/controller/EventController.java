@@ -2,15 +2,29 @@ package org.fdsmartcheck.controller;
 
 import org.fdsmartcheck.dto.request.EventRequest;
 import org.fdsmartcheck.dto.response.EventResponse;
+import org.fdsmartcheck.model.EventImage;
+import org.fdsmartcheck.model.enums.EventStatus;
+import org.fdsmartcheck.service.EventImageService;
 import org.fdsmartcheck.service.EventService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,10 +33,27 @@ import java.util.List;
 public class EventController {
 
     private final EventService eventService;
+    private final EventImageService eventImageService;
 
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    /**
+     * Listagem paginada: ?status=&from=&to= (ISO-8601) &page=&size=&sort=startDate,desc
+     * O total de eventos do filtro vem no cabeçalho X-Total-Count
+     *
+     * GET /api/events
+     */
     @GetMapping
-    public ResponseEntity<List<EventResponse>> getAllEvents() {
-        return ResponseEntity.ok(eventService.getAllEvents());
+    public ResponseEntity<List<EventResponse>> getAllEvents(
+            @RequestParam(required = false) EventStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @PageableDefault(size = 20, sort = "startDate", direction = Sort.Direction.ASC) Pageable pageable
+    ) {
+        Page<EventResponse> page = eventService.getEvents(status, from, to, pageable);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()))
+                .body(page.getContent());
     }
 
     @GetMapping("/{id}")
@@ -30,6 +61,39 @@ public class EventController {
         return ResponseEntity.ok(eventService.getEventById(id));
     }
 
+    /**
+     * Imagem do evento em binário, com ETag (hash do conteúdo) e GET condicional
+     * Pedida pela URL versionada das respostas (?v=hash), pode ficar em cache sem revalidação;
+     * sem a versão atual, o cliente revalida a cada uso e recebe 304 enquanto nada mudar
+     *
+     * GET /api/events/{id}/image
+     */
+    @GetMapping("/{id}/image")
+    public ResponseEntity<byte[]> getEventImage(
+            @PathVariable String id,
+            @RequestParam(name = "v", required = false) String version,
+            WebRequest webRequest
+    ) {
+        String hash = eventImageService.getImageHash(id);
+        String etag = "\"" + hash + "\"";
+
+        CacheControl cacheControl = EventImageService.urlVersion(hash).equals(version)
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache().cachePublic();
+
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        EventImage image = eventImageService.getImage(id);
+        return ResponseEntity.ok()
+                .eTag("\"" + image.getSha256() + "\"")
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(image.getContentType()))
+                .contentLength(image.getSizeBytes())
+                .body(image.getContent());
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<EventResponse> createEvent(@Valid @RequestBody EventRequest request) {
@@ -57,7 +121,7 @@ public class EventController {
     }
 
     @GetMapping("/upcoming")
-    public ResponseEntity<List<EventResponse>> getUpcomingEvents() {
-        return ResponseEntity.ok(eventService.getUpcomingEvents());
+    public ResponseEntity<List<EventResponse>> getUpcomingEvents(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(eventService.getUpcomingEvents(limit));
     }
 }
\ No newline at end of file
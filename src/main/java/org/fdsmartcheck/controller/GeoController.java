@@ -4,8 +4,10 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.fdsmartcheck.dto.request.GeoSignRequest;
 import org.fdsmartcheck.dto.response.GeoSignResponse;
+import org.fdsmartcheck.security.NonceStore;
 import org.fdsmartcheck.service.GeoSecurityService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -29,4 +31,16 @@ public class GeoController {
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Estatísticas do store anti-replay de nonces
+     *
+     * GET /api/geo/nonces/stats
+     * Acesso: ADMIN
+     */
+    @GetMapping("/nonces/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<NonceStore.Stats> getNonceStoreStats() {
+        return ResponseEntity.ok(geoSecurityService.getNonceStoreStats());
+    }
 }
@@ -2,6 +2,7 @@ package org.fdsmartcheck.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.fdsmartcheck.dto.response.QRCodeResponse;
+import org.fdsmartcheck.service.QRCodeResolutionCache;
 import org.fdsmartcheck.service.QRCodeService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -94,4 +95,16 @@ public class QRCodeController {
         QRCodeResponse qrCode = qrCodeService.activateQRCode(qrCodeId);
         return ResponseEntity.ok(qrCode);
     }
+
+    /**
+     * Estatísticas do cache de resolução de QR Codes (hits, misses, evictions)
+     *
+     * GET /api/qrcodes/cache/stats
+     * Acesso: ADMIN
+     */
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<QRCodeResolutionCache.Stats> getResolutionCacheStats() {
+        return ResponseEntity.ok(qrCodeService.getResolutionCacheStats());
+    }
 }
\ No newline at end of file
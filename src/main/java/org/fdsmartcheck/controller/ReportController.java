@@ -1,14 +1,24 @@
 package org.fdsmartcheck.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.fdsmartcheck.dto.response.ReportJobResponse;
 import org.fdsmartcheck.service.ExcelReportService;
 import org.fdsmartcheck.service.PdfReportService;
+import org.fdsmartcheck.service.ReportJobService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -20,64 +30,120 @@ public class ReportController {
 
     private final PdfReportService pdfReportService;
     private final ExcelReportService excelReportService;
+    private final ReportJobService reportJobService;
+
+    private static final MediaType EXCEL = MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    // Atributos do Tomcat para envio de arquivo por sendfile (sem copiar o conteúdo para a JVM)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Value("${app.reports.pdf.streaming:true}")
+    private boolean pdfStreaming;
+
+    @Value("${app.reports.excel.streaming:true}")
+    private boolean excelStreaming;
 
     @GetMapping("/event/{eventId}/pdf")
-    public ResponseEntity<byte[]> exportEventReportPdf(@PathVariable String eventId) {
-        byte[] pdfBytes = pdfReportService.generatePdfReport(eventId);
-        
+    public ResponseEntity<StreamingResponseBody> exportEventReportPdf(@PathVariable String eventId) {
         String filename = "relatorio_evento_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf";
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment", filename);
-        headers.setContentLength(pdfBytes.length);
-        
-        return ResponseEntity.ok()
-            .headers(headers)
-            .body(pdfBytes); }
+
+        if (pdfStreaming) {
+            return fileResponse(filename, MediaType.APPLICATION_PDF, pdfReportService.streamPdfReport(eventId), null);
+        }
+
+        byte[] pdfBytes = pdfReportService.generatePdfReport(eventId);
+        return fileResponse(filename, MediaType.APPLICATION_PDF, out -> out.write(pdfBytes), (long) pdfBytes.length);
+    }
 
     @GetMapping("/subevent/{subEventId}/pdf")
-    public ResponseEntity<byte[]> exportSubEventReportPdf(@PathVariable String subEventId) {
-        byte[] pdfBytes = pdfReportService.generateSubEventPdfReport(subEventId);
-        
+    public ResponseEntity<StreamingResponseBody> exportSubEventReportPdf(@PathVariable String subEventId) {
         String filename = "relatorio_subevento_" + 
         LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf";
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment", filename);
-        headers.setContentLength(pdfBytes.length);
-        
-        return ResponseEntity.ok().headers(headers).body(pdfBytes);
+
+        if (pdfStreaming) {
+            return fileResponse(filename, MediaType.APPLICATION_PDF, pdfReportService.streamSubEventPdfReport(subEventId), null);
+        }
+
+        byte[] pdfBytes = pdfReportService.generateSubEventPdfReport(subEventId);
+        return fileResponse(filename, MediaType.APPLICATION_PDF, out -> out.write(pdfBytes), (long) pdfBytes.length);
     }
 
     @GetMapping("/event/{eventId}/excel")
-    public ResponseEntity<byte[]> exportEventReportExcel(@PathVariable String eventId) {
-        byte[] excelBytes = excelReportService.generateExcelReport(eventId);
-
+    public ResponseEntity<StreamingResponseBody> exportEventReportExcel(@PathVariable String eventId) {
         String filename = "relatorio_evento_" +
         LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx";
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-        headers.setContentDispositionFormData("attachment", filename);
-        headers.setContentLength(excelBytes.length);
+        if (excelStreaming) {
+            return fileResponse(filename, EXCEL, excelReportService.streamExcelReport(eventId), null);
+        }
 
-        return ResponseEntity.ok().headers(headers).body(excelBytes);
+        byte[] excelBytes = excelReportService.generateExcelReport(eventId);
+        return fileResponse(filename, EXCEL, out -> out.write(excelBytes), (long) excelBytes.length);
     }
 
     @GetMapping("/subevent/{subEventId}/excel")
-    public ResponseEntity<byte[]> exportSubEventReportExcel(@PathVariable String subEventId) {
-        byte[] excelBytes = excelReportService.generateSubEventExcelReport(subEventId);
-
+    public ResponseEntity<StreamingResponseBody> exportSubEventReportExcel(@PathVariable String subEventId) {
         String filename = "relatorio_subevento_" +
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx";
 
+        if (excelStreaming) {
+            return fileResponse(filename, EXCEL, excelReportService.streamSubEventExcelReport(subEventId), null);
+        }
+
+        byte[] excelBytes = excelReportService.generateSubEventExcelReport(subEventId);
+        return fileResponse(filename, EXCEL, out -> out.write(excelBytes), (long) excelBytes.length);
+    }
+
+    /**
+     * Enfileira a geração do relatório do evento (format = PDF ou EXCEL)
+     * Se os dados não mudaram desde a última geração, o job já volta concluído
+     */
+    @PostMapping("/event/{eventId}/jobs")
+    public ResponseEntity<ReportJobResponse> createReportJob(@PathVariable String eventId, @RequestParam String format) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportJobService.submit(eventId, format));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ReportJobResponse> getReportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.getJob(jobId));
+    }
+
+    /**
+     * Envia o arquivo gerado; com suporte do conector, o Tomcat usa sendfile depois que o método retorna
+     */
+    @GetMapping("/jobs/{jobId}/download")
+    public void downloadReportJob(@PathVariable String jobId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ReportJobService.ReportDownload download = reportJobService.download(jobId);
+
+        response.setContentType(download.getFormat().getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(download.getFilename()).build().toString());
+        response.setContentLengthLong(download.getSize());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, download.getPath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, download.getSize());
+            return;
+        }
+
+        Files.copy(download.getPath(), response.getOutputStream());
+    }
+
+    /**
+     * No modo streaming o tamanho não é conhecido de antemão (resposta chunked)
+     */
+    private ResponseEntity<StreamingResponseBody> fileResponse(String filename, MediaType mediaType, StreamingResponseBody body, Long contentLength) {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+        headers.setContentType(mediaType);
         headers.setContentDispositionFormData("attachment", filename);
-        headers.setContentLength(excelBytes.length);
+        if (contentLength != null) {
+            headers.setContentLength(contentLength);
+        }
 
-        return ResponseEntity.ok().headers(headers).body(excelBytes);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package org.fdsmartcheck.dto.report;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha de presença dos relatórios, projetada direto da consulta (sem carregar Check nem User)
+ */
+@Value
+public class AttendanceRow {
+    String subEventId;
+    String userName;
+    String userEmail;
+    LocalDateTime checkinTime;
+    LocalDateTime checkoutTime;
+}
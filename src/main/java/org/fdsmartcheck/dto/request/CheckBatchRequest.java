@@ -0,0 +1,23 @@
+package org.fdsmartcheck.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Lote de check-ins/checkouts capturados offline e sincronizados de uma vez
+ * Cada item é validado individualmente (ver CheckBatchResponse)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckBatchRequest {
+
+    @NotEmpty(message = "O lote deve conter ao menos um item")
+    private List<CheckRequest> items;
+}
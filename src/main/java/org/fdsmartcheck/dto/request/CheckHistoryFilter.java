@@ -0,0 +1,32 @@
+package org.fdsmartcheck.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.fdsmartcheck.model.enums.CheckType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros e paginação do histórico de checks (parâmetros de query)
+ * from/to se referem ao momento do registro; cursor vem do cabeçalho X-Next-Cursor da página anterior
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckHistoryFilter {
+    private String subEventId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private CheckType type;
+    private String cursor;
+    private Integer limit;
+}
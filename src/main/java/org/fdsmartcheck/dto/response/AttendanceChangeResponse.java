@@ -0,0 +1,20 @@
+package org.fdsmartcheck.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceChangeResponse {
+    private String subEventId;
+    private String userId;
+    private String userName;
+    private String type;
+    private LocalDateTime time;
+}
@@ -0,0 +1,35 @@
+package org.fdsmartcheck.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.fdsmartcheck.repository.SubEventRepository.AttendanceSummaryView;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceCountsResponse {
+    private String subEventId;
+    private String subEventTitle;
+    private long subscriptions;
+    private long total;
+    private long withBoth;
+    private long onlyCheckin;
+    private long onlyCheckout;
+    private long withNeither;
+
+    public static AttendanceCountsResponse from(AttendanceSummaryView summary) {
+        return AttendanceCountsResponse.builder()
+                .subEventId(summary.getSubEventId())
+                .subEventTitle(summary.getTitle())
+                .subscriptions(summary.getSubscriptions())
+                .total(summary.getTotal())
+                .withBoth(summary.getWithBoth())
+                .onlyCheckin(summary.getOnlyCheckin())
+                .onlyCheckout(summary.getOnlyCheckout())
+                .withNeither(summary.getWithNeither())
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package org.fdsmartcheck.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckBatchResponse {
+    private int accepted;
+    private int rejected;
+    private List<ItemResult> results;
+
+    /**
+     * Resultado de um item, na mesma posição do lote enviado
+     * Em caso de falha, status e message são os mesmos que POST /api/checkin devolveria
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private String requestId;
+        private boolean success;
+        private int status;
+        private String message;
+        private CheckResponse check;
+    }
+}
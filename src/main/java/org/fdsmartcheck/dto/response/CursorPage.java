@@ -0,0 +1,14 @@
+package org.fdsmartcheck.dto.response;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem por cursor; nextCursor é nulo na última página
+ */
+@Value
+public class CursorPage<T> {
+    List<T> items;
+    String nextCursor;
+}
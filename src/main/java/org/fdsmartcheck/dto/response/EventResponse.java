@@ -16,7 +16,7 @@ public class EventResponse {
     private String id;
     private String title;
     private String description;
-    private String imageBase64;
+    private String imageUrl;
     private Double latitude;
     private Double longitude;
     private Double radius;
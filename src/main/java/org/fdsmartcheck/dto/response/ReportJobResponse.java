@@ -0,0 +1,26 @@
+package org.fdsmartcheck.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+    private String id;
+    private String eventId;
+    private String format;
+    private String status;
+    private Boolean cached;
+    private Long sizeBytes;
+    private String error;
+    private String downloadUrl;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
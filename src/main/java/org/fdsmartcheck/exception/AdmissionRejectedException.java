@@ -0,0 +1,30 @@
+package org.fdsmartcheck.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Requisição recusada pelo controle de admissão do check-in, antes de chegar ao banco
+ * 429 quando o subevento passou da sua taxa, 503 quando o servidor está saturado;
+ * o cliente deve tentar de novo depois de retryAfterSeconds (cabeçalho Retry-After)
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(HttpStatus status, long retryAfterSeconds, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
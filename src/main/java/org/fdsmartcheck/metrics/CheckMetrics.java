@@ -0,0 +1,106 @@
+package org.fdsmartcheck.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Métricas do caminho do check-in: tempo de cada etapa e rejeições por motivo
+ *
+ * - fdsmartcheck.auth.stage{stage}: autenticação do token (JwtAuthenticationFilter), medida em
+ *   toda requisição autenticada, não só no check-in
+ * - fdsmartcheck.checkin.stage{stage}: etapas de CheckService.performCheck e de
+ *   GeoSecurityService.validateGeoPayload
+ * - fdsmartcheck.checkin.rejections{reason}: check-ins/checkouts recusados (online e em lote)
+ *
+ * Os medidores são criados uma vez no construtor; registrar uma medição não consulta o registry.
+ */
+@Component
+public class CheckMetrics {
+
+    public static final String AUTH_STAGE_TIMER = "fdsmartcheck.auth.stage";
+    public static final String CHECKIN_STAGE_TIMER = "fdsmartcheck.checkin.stage";
+    public static final String REJECTIONS_COUNTER = "fdsmartcheck.checkin.rejections";
+
+    public enum Stage {
+        // JwtAuthenticationFilter
+        JWT_VERIFY(AUTH_STAGE_TIMER, "jwt_verify"),
+        REVOCATION_CHECK(AUTH_STAGE_TIMER, "revocation_check"),
+        USER_LOOKUP(AUTH_STAGE_TIMER, "user_lookup"),
+        // CheckService.performCheck
+        QR_LOOKUP(CHECKIN_STAGE_TIMER, "qr_lookup"),
+        CHECKIN_WRITE(CHECKIN_STAGE_TIMER, "checkin_write"),
+        CHECKOUT_WRITE(CHECKIN_STAGE_TIMER, "checkout_write"),
+        // GeoSecurityService.validateGeoPayload
+        SIGNATURE(CHECKIN_STAGE_TIMER, "signature"),
+        NONCE(CHECKIN_STAGE_TIMER, "nonce"),
+        TIMESTAMP(CHECKIN_STAGE_TIMER, "timestamp"),
+        LOCATION(CHECKIN_STAGE_TIMER, "location");
+
+        private final String metric;
+        private final String tag;
+
+        Stage(String metric, String tag) {
+            this.metric = metric;
+            this.tag = tag;
+        }
+    }
+
+    public enum Rejection {
+        INVALID_QR("invalid_qr"),
+        BAD_SIGNATURE("bad_signature"),
+        REPLAY("replay"),
+        NONCE_CAPACITY("nonce_capacity"),
+        EXPIRED_TIMESTAMP("expired_timestamp"),
+        INVALID_LOCATION("invalid_location"),
+        OUT_OF_RADIUS("out_of_radius"),
+        NOT_SUBSCRIBED("not_subscribed"),
+        DUPLICATE("duplicate"),
+        NO_CHECKIN("no_checkin"),
+        OUTSIDE_WINDOW("outside_window");
+
+        private final String tag;
+
+        Rejection(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+    private final Map<Rejection, Counter> rejections = new EnumMap<>(Rejection.class);
+
+    public CheckMetrics(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, Timer.builder(stage.metric)
+                    .description("Tempo de cada etapa da autenticação e do check-in")
+                    .tag("stage", stage.tag)
+                    .register(registry));
+        }
+        for (Rejection rejection : Rejection.values()) {
+            rejections.put(rejection, Counter.builder(REJECTIONS_COUNTER)
+                    .description("Check-ins e checkouts recusados, por motivo")
+                    .tag("reason", rejection.tag)
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Executa a etapa medindo o tempo, inclusive quando ela termina com exceção
+     */
+    public <T> T time(Stage stage, Supplier<T> body) {
+        return timers.get(stage).record(body);
+    }
+
+    public void time(Stage stage, Runnable body) {
+        timers.get(stage).record(body);
+    }
+
+    public void reject(Rejection rejection) {
+        rejections.get(rejection).increment();
+    }
+}
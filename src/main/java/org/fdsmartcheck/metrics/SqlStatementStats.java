@@ -0,0 +1,136 @@
+package org.fdsmartcheck.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comandos SQL executados pela thread atual dentro de um escopo (requisição HTTP ou trecho medido)
+ *
+ * O DataSource instrumentado (SqlTracingConfig, app.sql.tracing.enabled) registra cada execução
+ * no escopo aberto na thread e nos escopos que o contêm. Também serve de asserção em testes de
+ * integração:
+ *
+ *   try (SqlStatementStats.Scope scope = SqlStatementStats.open()) {
+ *       checkService.performCheck(request);
+ *       scope.assertAtMost(3);
+ *   }
+ *
+ * Trabalho feito em outras threads (streaming assíncrono, jobs) não entra no escopo.
+ */
+public final class SqlStatementStats {
+
+    // Comandos guardados por escopo para a mensagem da asserção e o log da requisição
+    private static final int MAX_RECORDED_STATEMENTS = 100;
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static volatile boolean tracingInstalled;
+
+    private SqlStatementStats() {
+    }
+
+    /**
+     * Abre um escopo na thread atual; feche-o (try-with-resources) na mesma thread
+     */
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Escopo mais interno aberto na thread atual, ou null
+     */
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    public static boolean isTracingInstalled() {
+        return tracingInstalled;
+    }
+
+    static void markTracingInstalled() {
+        tracingInstalled = true;
+    }
+
+    static void record(String sql, long elapsedNanos) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.add(sql, elapsedNanos);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final List<String> statements = new ArrayList<>();
+        private int statementCount;
+        private long elapsedNanos;
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private void add(String sql, long nanos) {
+            statementCount++;
+            elapsedNanos += nanos;
+            if (statements.size() < MAX_RECORDED_STATEMENTS) {
+                statements.add(sql);
+            }
+        }
+
+        public int getStatementCount() {
+            return statementCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getElapsedMillis() {
+            return elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        /**
+         * Primeiros comandos executados no escopo (no máximo MAX_RECORDED_STATEMENTS)
+         */
+        public List<String> getStatements() {
+            return Collections.unmodifiableList(statements);
+        }
+
+        /**
+         * Falha (AssertionError, com os comandos executados) se o escopo passou de max comandos
+         */
+        public void assertAtMost(int max) {
+            if (!tracingInstalled) {
+                throw new IllegalStateException("Contagem de SQL desativada: habilite app.sql.tracing.enabled");
+            }
+            if (statementCount > max) {
+                StringBuilder message = new StringBuilder()
+                        .append("Esperado no máximo ").append(max)
+                        .append(" comandos SQL, executados ").append(statementCount).append(':');
+                for (int i = 0; i < statements.size(); i++) {
+                    message.append(System.lineSeparator()).append("  ").append(i + 1).append(". ").append(statements.get(i));
+                }
+                throw new AssertionError(message.toString());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (CURRENT.get() == this) {
+                if (parent != null) {
+                    CURRENT.set(parent);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.fdsmartcheck.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Abre um escopo de SqlStatementStats por requisição (incluindo a autenticação) e, ao final,
+ * avisa quando a requisição passou de app.sql.tracing.max-statements comandos
+ *
+ * Em DEBUG, toda requisição loga a contagem, o tempo de JDBC e os comandos executados.
+ */
+public class SqlTracingFilter extends OncePerRequestFilter {
+
+    private final int maxStatements;
+
+    public SqlTracingFilter(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        try (SqlStatementStats.Scope scope = SqlStatementStats.open()) {
+            filterChain.doFilter(request, response);
+
+            if (maxStatements > 0 && scope.getStatementCount() > maxStatements) {
+                logger.warn(String.format("%s %s executou %d comandos SQL (%.1f ms de JDBC), acima do limite de %d",
+                        request.getMethod(), request.getRequestURI(), scope.getStatementCount(),
+                        scope.getElapsedMillis(), maxStatements));
+            } else if (logger.isDebugEnabled() && scope.getStatementCount() > 0) {
+                logger.debug(String.format("%s %s: %d comandos SQL (%.1f ms de JDBC) %s",
+                        request.getMethod(), request.getRequestURI(), scope.getStatementCount(),
+                        scope.getElapsedMillis(), scope.getStatements()));
+            }
+        }
+    }
+}
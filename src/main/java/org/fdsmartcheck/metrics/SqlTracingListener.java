@@ -0,0 +1,64 @@
+package org.fdsmartcheck.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Registra cada execução JDBC no escopo da thread (SqlStatementStats) e loga os comandos lentos
+ *
+ * Um executeBatch conta como um comando (um round-trip), independente do tamanho do lote.
+ */
+public class SqlTracingListener implements QueryExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlTracingListener.class);
+
+    private static final String START_NANOS = "sqlTracing.startNanos";
+    private static final int MAX_LOGGED_SQL_LENGTH = 1000;
+
+    private final long slowQueryNanos;
+
+    public SqlTracingListener(long slowQueryMs) {
+        this.slowQueryNanos = slowQueryMs > 0 ? TimeUnit.MILLISECONDS.toNanos(slowQueryMs) : Long.MAX_VALUE;
+        SqlStatementStats.markTracingInstalled();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsed = start != null
+                ? System.nanoTime() - start
+                : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+
+        String sql = queryInfoList.size() == 1
+                ? queryInfoList.get(0).getQuery()
+                : queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+
+        SqlStatementStats.record(sql, elapsed);
+
+        if (elapsed >= slowQueryNanos) {
+            logger.warn("Comando SQL lento: {} ms{}: {}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    execInfo.isBatch() ? " (lote de " + execInfo.getBatchSize() + ")" : "",
+                    abbreviate(sql));
+        }
+    }
+
+    private static String abbreviate(String sql) {
+        String compact = sql.replaceAll("\\s+", " ").trim();
+        return compact.length() > MAX_LOGGED_SQL_LENGTH
+                ? compact.substring(0, MAX_LOGGED_SQL_LENGTH) + "..."
+                : compact;
+    }
+}
@@ -0,0 +1,45 @@
+package org.fdsmartcheck.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Cabeçalhos X-SQL-Statements e X-SQL-Time-Ms nas respostas (uso em desenvolvimento)
+ *
+ * Os valores são os do momento em que o corpo começa a ser escrito; consultas disparadas
+ * durante a serialização só aparecem no log do SqlTracingFilter.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "app.sql.tracing.response-headers", havingValue = "true")
+public class SqlTracingResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response
+    ) {
+        SqlStatementStats.Scope scope = SqlStatementStats.current();
+        if (scope != null) {
+            response.getHeaders().set("X-SQL-Statements", String.valueOf(scope.getStatementCount()));
+            response.getHeaders().set("X-SQL-Time-Ms", String.format(Locale.ROOT, "%.2f", scope.getElapsedMillis()));
+        }
+        return body;
+    }
+}
@@ -11,6 +11,11 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "checks", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"sub_event_id", "user_id"})
+}, indexes = {
+        // Paginação do histórico (CheckHistoryRepository): geral, por usuário e por subevento
+        @Index(name = "idx_checks_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_checks_user_created_at_id", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_checks_sub_event_created_at_id", columnList = "sub_event_id, created_at, id")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter
@@ -10,7 +10,11 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        // Listagem filtrada por status e período (EventSpecifications) e próximos eventos
+        @Index(name = "idx_events_status_start_date", columnList = "status, start_date"),
+        @Index(name = "idx_events_status_end_date", columnList = "status, end_date")
+})
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @Setter
@@ -29,8 +33,9 @@ public class Event {
     @Column(columnDefinition = "TEXT")
     private String description;
 
-    @Column(name = "image_base64", columnDefinition = "TEXT")
-    private String imageBase64;
+    // Conteúdo em EventImage; aqui só o SHA-256, que versiona a URL da imagem
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
 
     @Column(name = "latitude")
     private Double latitude;
@@ -0,0 +1,44 @@
+package org.fdsmartcheck.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Imagem de um evento, guardada fora da tabela events para que listagens e
+ * consultas de Event não carreguem o conteúdo
+ */
+@Entity
+@Table(name = "event_images")
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventImage {
+
+    @Id
+    @Column(name = "event_id")
+    private String eventId;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(nullable = false)
+    private byte[] content;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    // SHA-256 (hex) do conteúdo: ETag da imagem e versão da URL
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
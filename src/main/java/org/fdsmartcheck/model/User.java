@@ -39,6 +39,11 @@ public class User {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    // Incrementada quando papel, email, senha ou status mudam: invalida os tokens já emitidos
+    @Column(name = "account_version")
+    @Builder.Default
+    private Long accountVersion = 0L;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,8 @@
+package org.fdsmartcheck.model.enums;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,272 @@
+package org.fdsmartcheck.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.fdsmartcheck.repository.SubEventRepository.AttendanceSummaryView;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Contadores de presença materializados por subevento (tabela attendance_summaries,
+ * criada pela migração V5__attendance_summaries)
+ *
+ * Cada subevento tem até N linhas ("stripes"); cada gravação soma seu delta em uma delas,
+ * escolhida ao acaso, para que check-ins simultâneos no mesmo subevento não disputem o lock
+ * da mesma linha. O valor do subevento é a soma das suas stripes.
+ * As somas participam da transação corrente, junto com o check/inscrição que as originou.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AttendanceSummaryRepository {
+
+    private static final String ADD_SQL = """
+            INSERT INTO attendance_summaries AS a
+                (sub_event_id, stripe, subscriptions, total, with_both, only_checkin, only_checkout, with_neither)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (sub_event_id, stripe) DO UPDATE SET
+                subscriptions = a.subscriptions + EXCLUDED.subscriptions,
+                total = a.total + EXCLUDED.total,
+                with_both = a.with_both + EXCLUDED.with_both,
+                only_checkin = a.only_checkin + EXCLUDED.only_checkin,
+                only_checkout = a.only_checkout + EXCLUDED.only_checkout,
+                with_neither = a.with_neither + EXCLUDED.with_neither
+            """;
+
+    private static final String SUMMARY_SELECT = """
+            SELECT s.id AS sub_event_id, s.title, s.start_date, s.end_date,
+                   COALESCE(SUM(a.subscriptions), 0) AS subscriptions,
+                   COALESCE(SUM(a.total), 0) AS total,
+                   COALESCE(SUM(a.with_both), 0) AS with_both,
+                   COALESCE(SUM(a.only_checkin), 0) AS only_checkin,
+                   COALESCE(SUM(a.only_checkout), 0) AS only_checkout,
+                   COALESCE(SUM(a.with_neither), 0) AS with_neither
+            FROM sub_events s
+            LEFT JOIN attendance_summaries a ON a.sub_event_id = s.id
+            """;
+
+    // Mesma ordem de CheckRepository.streamAttendanceByEventId
+    private static final String SUMMARIZE_BY_EVENT_SQL = SUMMARY_SELECT + """
+            WHERE s.event_id = ?
+            GROUP BY s.id, s.title, s.start_date, s.end_date
+            ORDER BY s.start_date, s.id
+            """;
+
+    private static final String SUMMARIZE_BY_SUB_EVENT_SQL = SUMMARY_SELECT + """
+            WHERE s.id = ?
+            GROUP BY s.id, s.title, s.start_date, s.end_date
+            """;
+
+    // Impede duas reconciliações simultâneas (em instâncias diferentes) de aplicarem a mesma correção
+    private static final String RECONCILE_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext('attendance_summaries'))";
+
+    /*
+     * Recalcula os totais a partir de checks/subscriptions e soma a diferença na stripe 0.
+     * Tudo roda num único comando, portanto num único snapshot: valores reais e contadores
+     * refletem exatamente as mesmas transações confirmadas, e gravações concorrentes
+     * (ainda não visíveis) continuam somando seus próprios deltas por cima da correção.
+     */
+    private static final String RECONCILE_SQL = """
+            WITH actual AS (
+                SELECT s.id AS sub_event_id,
+                       (SELECT COUNT(*) FROM subscriptions sub WHERE sub.sub_event_id = s.id) AS subscriptions,
+                       COUNT(c.id) AS total,
+                       COUNT(c.id) FILTER (WHERE c.checkin_time IS NOT NULL AND c.checkout_time IS NOT NULL) AS with_both,
+                       COUNT(c.id) FILTER (WHERE c.checkin_time IS NOT NULL AND c.checkout_time IS NULL) AS only_checkin,
+                       COUNT(c.id) FILTER (WHERE c.checkin_time IS NULL AND c.checkout_time IS NOT NULL) AS only_checkout,
+                       COUNT(c.id) FILTER (WHERE c.checkin_time IS NULL AND c.checkout_time IS NULL) AS with_neither
+                FROM sub_events s
+                LEFT JOIN checks c ON c.sub_event_id = s.id
+                GROUP BY s.id
+            ), counted AS (
+                SELECT sub_event_id,
+                       SUM(subscriptions) AS subscriptions, SUM(total) AS total, SUM(with_both) AS with_both,
+                       SUM(only_checkin) AS only_checkin, SUM(only_checkout) AS only_checkout, SUM(with_neither) AS with_neither
+                FROM attendance_summaries
+                GROUP BY sub_event_id
+            ), drift AS (
+                SELECT a.sub_event_id,
+                       a.subscriptions - COALESCE(c.subscriptions, 0) AS subscriptions,
+                       a.total - COALESCE(c.total, 0) AS total,
+                       a.with_both - COALESCE(c.with_both, 0) AS with_both,
+                       a.only_checkin - COALESCE(c.only_checkin, 0) AS only_checkin,
+                       a.only_checkout - COALESCE(c.only_checkout, 0) AS only_checkout,
+                       a.with_neither - COALESCE(c.with_neither, 0) AS with_neither
+                FROM actual a
+                LEFT JOIN counted c ON c.sub_event_id = a.sub_event_id
+            ), wrong AS (
+                SELECT * FROM drift
+                WHERE subscriptions <> 0 OR total <> 0 OR with_both <> 0
+                   OR only_checkin <> 0 OR only_checkout <> 0 OR with_neither <> 0
+            ), corrected AS (
+                INSERT INTO attendance_summaries AS t
+                    (sub_event_id, stripe, subscriptions, total, with_both, only_checkin, only_checkout, with_neither)
+                SELECT sub_event_id, 0, subscriptions, total, with_both, only_checkin, only_checkout, with_neither
+                FROM wrong
+                ON CONFLICT (sub_event_id, stripe) DO UPDATE SET
+                    subscriptions = t.subscriptions + EXCLUDED.subscriptions,
+                    total = t.total + EXCLUDED.total,
+                    with_both = t.with_both + EXCLUDED.with_both,
+                    only_checkin = t.only_checkin + EXCLUDED.only_checkin,
+                    only_checkout = t.only_checkout + EXCLUDED.only_checkout,
+                    with_neither = t.with_neither + EXCLUDED.with_neither
+                RETURNING 1
+            )
+            SELECT * FROM wrong
+            """;
+
+    private static final String DELETE_ORPHANS_SQL = """
+            DELETE FROM attendance_summaries a
+            WHERE NOT EXISTS (SELECT 1 FROM sub_events s WHERE s.id = a.sub_event_id)
+            """;
+
+    private static final RowMapper<Summary> SUMMARY_MAPPER = (rs, rowNum) -> new Summary(
+            rs.getString("sub_event_id"),
+            rs.getString("title"),
+            rs.getTimestamp("start_date").toLocalDateTime(),
+            rs.getTimestamp("end_date").toLocalDateTime(),
+            rs.getLong("subscriptions"),
+            rs.getLong("total"),
+            rs.getLong("with_both"),
+            rs.getLong("only_checkin"),
+            rs.getLong("only_checkout"),
+            rs.getLong("with_neither")
+    );
+
+    private static final RowMapper<Drift> DRIFT_MAPPER = (rs, rowNum) -> {
+        Delta delta = new Delta();
+        delta.subscriptions = rs.getLong("subscriptions");
+        delta.total = rs.getLong("total");
+        delta.withBoth = rs.getLong("with_both");
+        delta.onlyCheckin = rs.getLong("only_checkin");
+        delta.onlyCheckout = rs.getLong("only_checkout");
+        delta.withNeither = rs.getLong("with_neither");
+        return new Drift(rs.getString("sub_event_id"), delta);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void add(String subEventId, int stripe, Delta delta) {
+        jdbcTemplate.update(ADD_SQL, params(subEventId, stripe, delta));
+    }
+
+    /**
+     * Soma vários deltas de uma vez; o chamador passa os subeventos em ordem fixa
+     * para que transações concorrentes travem as linhas na mesma ordem (sem deadlock)
+     */
+    public void addAll(Map<String, Delta> deltas, int stripe) {
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((subEventId, delta) -> batch.add(params(subEventId, stripe, delta)));
+        jdbcTemplate.batchUpdate(ADD_SQL, batch);
+    }
+
+    public List<Summary> summarizeByEventId(String eventId) {
+        return jdbcTemplate.query(SUMMARIZE_BY_EVENT_SQL, SUMMARY_MAPPER, eventId);
+    }
+
+    public Optional<Summary> summarizeBySubEventId(String subEventId) {
+        return jdbcTemplate.query(SUMMARIZE_BY_SUB_EVENT_SQL, SUMMARY_MAPPER, subEventId).stream().findFirst();
+    }
+
+    /**
+     * Corrige os contadores que divergem dos dados reais; precisa de transação aberta
+     *
+     * @return as correções aplicadas, ou vazio se outra reconciliação já está em andamento
+     */
+    public Optional<List<Drift>> reconcile() {
+        Boolean locked = jdbcTemplate.queryForObject(RECONCILE_LOCK_SQL, Boolean.class);
+        if (!Boolean.TRUE.equals(locked)) {
+            return Optional.empty();
+        }
+
+        List<Drift> drift = jdbcTemplate.query(RECONCILE_SQL, DRIFT_MAPPER);
+        jdbcTemplate.update(DELETE_ORPHANS_SQL);
+        return Optional.of(drift);
+    }
+
+    private Object[] params(String subEventId, int stripe, Delta delta) {
+        return new Object[]{
+                subEventId,
+                stripe,
+                delta.subscriptions,
+                delta.total,
+                delta.withBoth,
+                delta.onlyCheckin,
+                delta.onlyCheckout,
+                delta.withNeither
+        };
+    }
+
+    /**
+     * Variação dos contadores de um subevento
+     */
+    @Getter
+    public static class Delta {
+        private long subscriptions;
+        private long total;
+        private long withBoth;
+        private long onlyCheckin;
+        private long onlyCheckout;
+        private long withNeither;
+
+        public static Delta subscriptions(long count) {
+            Delta delta = new Delta();
+            delta.subscriptions = count;
+            return delta;
+        }
+
+        public Delta checkIn() {
+            total++;
+            onlyCheckin++;
+            return this;
+        }
+
+        public Delta checkOut() {
+            onlyCheckin--;
+            withBoth++;
+            return this;
+        }
+
+        /**
+         * Check novo já gravado com check-in e checkout (sincronização offline)
+         */
+        public Delta checkInAndOut() {
+            total++;
+            withBoth++;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "inscritos=" + subscriptions + ", registros=" + total + ", completos=" + withBoth +
+                    ", só check-in=" + onlyCheckin + ", só checkout=" + onlyCheckout + ", nenhum=" + withNeither;
+        }
+    }
+
+    @Value
+    public static class Drift {
+        String subEventId;
+        Delta correction;
+    }
+
+    @Value
+    public static class Summary implements AttendanceSummaryView {
+        String subEventId;
+        String title;
+        LocalDateTime startDate;
+        LocalDateTime endDate;
+        long subscriptions;
+        long total;
+        long withBoth;
+        long onlyCheckin;
+        long onlyCheckout;
+        long withNeither;
+    }
+}
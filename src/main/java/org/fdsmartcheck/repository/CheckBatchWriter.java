@@ -0,0 +1,123 @@
+package org.fdsmartcheck.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Gravação em lote dos checks sincronizados offline
+ * Participa da transação corrente; cada posição do retorno indica se a linha foi gravada
+ *
+ * Cada lista vira um comando de várias linhas com RETURNING id: o resultado vem das
+ * linhas realmente gravadas, e não das contagens do JDBC batch, que com reWriteBatchedInserts
+ * chegam como SUCCESS_NO_INFO e não dizem se o ON CONFLICT descartou a linha.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CheckBatchWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO checks (id, sub_event_id, user_id, checkin_time, checkin_latitude, checkin_longitude,
+                                checkout_time, checkout_latitude, checkout_longitude, is_present, created_at, updated_at)
+            VALUES %s
+            ON CONFLICT (sub_event_id, user_id) DO NOTHING
+            RETURNING id
+            """;
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, true, ?, ?)";
+
+    private static final String CHECKOUT_SQL = """
+            UPDATE checks c
+            SET checkout_time = v.checkout_time, checkout_latitude = v.checkout_latitude,
+                checkout_longitude = v.checkout_longitude, updated_at = ?
+            FROM (VALUES %s) AS v (id, checkout_time, checkout_latitude, checkout_longitude)
+            WHERE c.id = v.id AND c.checkout_time IS NULL
+            RETURNING c.id
+            """;
+    // Tipos explícitos: nos VALUES soltos um null não teria tipo para o SET
+    private static final String CHECKOUT_ROW = "(?::varchar, ?::timestamp, ?::double precision, ?::double precision)";
+
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insere novos checks (check-in e, se houver, checkout do mesmo lote)
+     * Linhas que conflitam com um check já existente não são gravadas
+     */
+    public boolean[] insertAll(List<CheckRow> rows, LocalDateTime now) {
+        return writeAll(rows, INSERT_SQL, INSERT_ROW, List.of(), row -> new Object[]{
+                row.getId(),
+                row.getSubEventId(),
+                row.getUserId(),
+                row.getCheckinTime(),
+                row.getCheckinLatitude(),
+                row.getCheckinLongitude(),
+                row.getCheckoutTime(),
+                row.getCheckoutLatitude(),
+                row.getCheckoutLongitude(),
+                now,
+                now
+        });
+    }
+
+    /**
+     * Registra o checkout de checks existentes que ainda não têm checkout
+     */
+    public boolean[] checkoutAll(List<CheckRow> rows, LocalDateTime now) {
+        return writeAll(rows, CHECKOUT_SQL, CHECKOUT_ROW, List.of(now), row -> new Object[]{
+                row.getId(),
+                row.getCheckoutTime(),
+                row.getCheckoutLatitude(),
+                row.getCheckoutLongitude()
+        });
+    }
+
+    /**
+     * Executa o comando em blocos de até ROWS_PER_STATEMENT linhas (limite de parâmetros do
+     * Postgres) e marca as linhas cujo id voltou no RETURNING
+     */
+    private boolean[] writeAll(List<CheckRow> rows, String sql, String rowPlaceholders, List<Object> leadingArgs,
+                               Function<CheckRow, Object[]> rowArgs) {
+        Set<String> writtenIds = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            List<CheckRow> chunk = rows.subList(from, Math.min(rows.size(), from + ROWS_PER_STATEMENT));
+
+            List<Object> args = new ArrayList<>(leadingArgs);
+            for (CheckRow row : chunk) {
+                args.addAll(Arrays.asList(rowArgs.apply(row)));
+            }
+
+            String values = String.join(", ", Collections.nCopies(chunk.size(), rowPlaceholders));
+            writtenIds.addAll(jdbcTemplate.queryForList(sql.formatted(values), String.class, args.toArray()));
+        }
+
+        boolean[] result = new boolean[rows.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = writtenIds.contains(rows.get(i).getId());
+        }
+        return result;
+    }
+
+    @Value
+    public static class CheckRow {
+        String id;
+        String subEventId;
+        String userId;
+        LocalDateTime checkinTime;
+        Double checkinLatitude;
+        Double checkinLongitude;
+        LocalDateTime checkoutTime;
+        Double checkoutLatitude;
+        Double checkoutLongitude;
+    }
+}
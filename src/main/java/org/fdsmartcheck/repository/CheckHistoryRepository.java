@@ -0,0 +1,89 @@
+package org.fdsmartcheck.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.fdsmartcheck.model.enums.CheckType;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Histórico de checks paginado por keyset, do mais recente para o mais antigo
+ *
+ * A ordem é (created_at, id) decrescente, coberta pelos índices de Check; cada página parte da
+ * última linha da anterior em vez de um OFFSET, então o custo não cresce com a profundidade.
+ * A consulta é montada só com os filtros informados, para que o planner use o índice certo.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CheckHistoryRepository {
+
+    private static final String SELECT = """
+            SELECT new org.fdsmartcheck.repository.CheckHistoryRow(
+                c.id, e.id, e.title, s.id, s.title, u.id, u.name, c.checkinTime, c.checkoutTime, c.createdAt)
+            FROM Check c JOIN c.subEvent s JOIN s.event e JOIN c.user u
+            WHERE 1 = 1
+            """;
+
+    private final EntityManager entityManager;
+
+    /**
+     * @param after última linha da página anterior (createdAt, id), ou nulos na primeira página
+     */
+    public List<CheckHistoryRow> find(
+            String userId,
+            String eventId,
+            String subEventId,
+            LocalDateTime from,
+            LocalDateTime to,
+            CheckType type,
+            LocalDateTime afterCreatedAt,
+            String afterId,
+            int limit
+    ) {
+        StringBuilder jpql = new StringBuilder(SELECT);
+        Map<String, Object> params = new HashMap<>();
+
+        if (userId != null) {
+            jpql.append(" AND u.id = :userId");
+            params.put("userId", userId);
+        }
+        if (eventId != null) {
+            jpql.append(" AND e.id = :eventId");
+            params.put("eventId", eventId);
+        }
+        if (subEventId != null) {
+            jpql.append(" AND s.id = :subEventId");
+            params.put("subEventId", subEventId);
+        }
+        if (from != null) {
+            jpql.append(" AND c.createdAt >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" AND c.createdAt < :to");
+            params.put("to", to);
+        }
+        if (type == CheckType.CHECKIN) {
+            jpql.append(" AND c.checkoutTime IS NULL");
+        } else if (type == CheckType.CHECKOUT) {
+            jpql.append(" AND c.checkoutTime IS NOT NULL");
+        }
+        if (afterCreatedAt != null) {
+            // Comparação de linha: o Postgres usa o par como limite do índice (..., created_at, id)
+            jpql.append(" AND (c.createdAt, c.id) < (:afterCreatedAt, :afterId)");
+            params.put("afterCreatedAt", afterCreatedAt);
+            params.put("afterId", afterId);
+        }
+
+        jpql.append(" ORDER BY c.createdAt DESC, c.id DESC");
+
+        TypedQuery<CheckHistoryRow> query = entityManager.createQuery(jpql.toString(), CheckHistoryRow.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,22 @@
+package org.fdsmartcheck.repository;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha do histórico de checks, projetada direto da consulta com usuário, subevento e evento
+ */
+@Value
+public class CheckHistoryRow {
+    String id;
+    String eventId;
+    String eventTitle;
+    String subEventId;
+    String subEventTitle;
+    String userId;
+    String userName;
+    LocalDateTime checkinTime;
+    LocalDateTime checkoutTime;
+    LocalDateTime createdAt;
+}
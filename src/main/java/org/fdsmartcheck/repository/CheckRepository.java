@@ -1,23 +1,127 @@
 package org.fdsmartcheck.repository;
 
+import jakarta.persistence.QueryHint;
+import org.fdsmartcheck.dto.report.AttendanceRow;
 import org.fdsmartcheck.model.Check;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CheckRepository extends JpaRepository<Check, String> {
 
+    String REPORT_FETCH_SIZE = "500";
+
     List<Check> findBySubEventId(String subEventId);
     Optional<Check> findBySubEventIdAndUserId(String subEventId, String userId);
     Boolean existsBySubEventIdAndUserId(String subEventId, String userId);
 
-    List<Check> findByUserId(String userId);
+    /**
+     * Linhas de presença de todos os subeventos do evento, lidas por cursor em blocos de REPORT_FETCH_SIZE
+     * Ordenadas como SubEventRepository.summarizeAttendanceByEventId, agrupadas por subevento
+     * Precisa de transação aberta
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = REPORT_FETCH_SIZE))
+    @Query("""
+            SELECT new org.fdsmartcheck.dto.report.AttendanceRow(s.id, u.name, u.email, c.checkinTime, c.checkoutTime)
+            FROM Check c JOIN c.subEvent s JOIN c.user u
+            WHERE s.event.id = :eventId
+            ORDER BY s.startDate, s.id, c.checkinTime
+            """)
+    Stream<AttendanceRow> streamAttendanceByEventId(@Param("eventId") String eventId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = REPORT_FETCH_SIZE))
+    @Query("""
+            SELECT new org.fdsmartcheck.dto.report.AttendanceRow(s.id, u.name, u.email, c.checkinTime, c.checkoutTime)
+            FROM Check c JOIN c.subEvent s JOIN c.user u
+            WHERE s.id = :subEventId
+            ORDER BY c.checkinTime
+            """)
+    Stream<AttendanceRow> streamAttendanceBySubEventId(@Param("subEventId") String subEventId);
+
+    /**
+     * Estado atual dos checks do usuário nos subeventos informados, sem carregar as entidades
+     */
+    @Query("""
+            SELECT c.id AS id, c.subEvent.id AS subEventId, c.checkinTime AS checkinTime, c.checkoutTime AS checkoutTime
+            FROM Check c
+            WHERE c.user.id = :userId AND c.subEvent.id IN :subEventIds
+            """)
+    List<CheckStateView> findStatesByUserIdAndSubEventIds(
+            @Param("userId") String userId,
+            @Param("subEventIds") Collection<String> subEventIds
+    );
+
+    /**
+     * Verifica inscrição, detecta duplicidade e insere o check-in em um único comando
+     *
+     * @return 0 = não inscrito, 1 = check-in já existente, 2 = inserido, 3 = fora da janela de check-in
+     */
+    @Query(value = """
+            WITH sub AS (
+                SELECT 1 FROM subscriptions WHERE sub_event_id = :subEventId AND user_id = :userId
+            ), dup AS (
+                SELECT 1 FROM checks WHERE sub_event_id = :subEventId AND user_id = :userId
+            ), ins AS (
+                INSERT INTO checks (id, sub_event_id, user_id, checkin_time, checkin_latitude, checkin_longitude,
+                                    is_present, created_at, updated_at)
+                SELECT :id, :subEventId, :userId, :checkinTime, :latitude, :longitude, true, :checkinTime, :checkinTime
+                WHERE EXISTS (SELECT 1 FROM sub) AND NOT EXISTS (SELECT 1 FROM dup) AND :windowOpen
+                ON CONFLICT (sub_event_id, user_id) DO NOTHING
+                RETURNING 1
+            )
+            SELECT CASE
+                WHEN NOT EXISTS (SELECT 1 FROM sub) THEN 0
+                WHEN EXISTS (SELECT 1 FROM ins) THEN 2
+                WHEN EXISTS (SELECT 1 FROM dup) THEN 1
+                WHEN NOT :windowOpen THEN 3
+                ELSE 1
+            END
+            """, nativeQuery = true)
+    Integer insertCheckInIfAllowed(
+            @Param("id") String id,
+            @Param("subEventId") String subEventId,
+            @Param("userId") String userId,
+            @Param("checkinTime") LocalDateTime checkinTime,
+            @Param("latitude") Double latitude,
+            @Param("longitude") Double longitude,
+            @Param("windowOpen") boolean windowOpen
+    );
+
+    /**
+     * Registra o checkout só se o check ainda não tem um (mesma guarda do CheckBatchWriter)
+     * Limpa o contexto de persistência: a entidade lida antes fica desatualizada
+     *
+     * @return 1 se este comando registrou o checkout, 0 se outro chegou antes
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE Check c
+            SET c.checkoutTime = :checkoutTime, c.checkoutLatitude = :latitude,
+                c.checkoutLongitude = :longitude, c.updatedAt = :checkoutTime
+            WHERE c.id = :id AND c.checkoutTime IS NULL
+            """)
+    int checkOutIfOpen(
+            @Param("id") String id,
+            @Param("checkoutTime") LocalDateTime checkoutTime,
+            @Param("latitude") Double latitude,
+            @Param("longitude") Double longitude
+    );
 
-    @Query("SELECT c FROM Check c WHERE c.subEvent.event.id = :eventId")
-    List<Check> findByEventId(@Param("eventId") String eventId);
+    interface CheckStateView {
+        String getId();
+        String getSubEventId();
+        LocalDateTime getCheckinTime();
+        LocalDateTime getCheckoutTime();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package org.fdsmartcheck.repository;
+
+import org.fdsmartcheck.model.EventImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EventImageRepository extends JpaRepository<EventImage, String> {
+}
@@ -2,7 +2,9 @@ package org.fdsmartcheck.repository;
 
 import org.fdsmartcheck.model.Event;
 import org.fdsmartcheck.model.enums.EventStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,7 +14,42 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, String> {
-    @Query("SELECT e FROM Event e WHERE e.endDate > :now AND e.status = 'ACTIVE' ORDER BY e.startDate ASC")
-    List<Event> findUpcomingEvents(@Param("now") LocalDateTime now);
+public interface EventRepository extends JpaRepository<Event, String>, JpaSpecificationExecutor<Event> {
+    @Query("SELECT e.imageHash FROM Event e WHERE e.id = :eventId")
+    Optional<String> findImageHashById(@Param("eventId") String eventId);
+
+    @Query("SELECT e FROM Event e WHERE e.endDate > :now AND e.status = 'ACTIVE' ORDER BY e.startDate ASC, e.id ASC")
+    List<Event> findUpcomingEvents(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Contagens e últimas alterações de tudo que aparece no relatório do evento,
+     * inclusive dos usuários (nome e email) inscritos ou com check nele
+     * Se nada disso mudou, um relatório já gerado continua válido
+     */
+    @Query("""
+            SELECT e.updatedAt AS eventUpdatedAt,
+                   (SELECT COUNT(s) FROM SubEvent s WHERE s.event.id = e.id) AS subEvents,
+                   (SELECT MAX(s.updatedAt) FROM SubEvent s WHERE s.event.id = e.id) AS subEventsUpdatedAt,
+                   (SELECT COUNT(sub) FROM Subscription sub WHERE sub.subEvent.event.id = e.id) AS subscriptions,
+                   (SELECT MAX(sub.createdAt) FROM Subscription sub WHERE sub.subEvent.event.id = e.id) AS subscriptionsCreatedAt,
+                   (SELECT MAX(sub.user.updatedAt) FROM Subscription sub WHERE sub.subEvent.event.id = e.id) AS subscribersUpdatedAt,
+                   (SELECT COUNT(c) FROM Check c WHERE c.subEvent.event.id = e.id) AS checks,
+                   (SELECT MAX(c.updatedAt) FROM Check c WHERE c.subEvent.event.id = e.id) AS checksUpdatedAt,
+                   (SELECT MAX(c.user.updatedAt) FROM Check c WHERE c.subEvent.event.id = e.id) AS checkUsersUpdatedAt
+            FROM Event e
+            WHERE e.id = :eventId
+            """)
+    Optional<ReportVersionView> findReportVersion(@Param("eventId") String eventId);
+
+    interface ReportVersionView {
+        LocalDateTime getEventUpdatedAt();
+        long getSubEvents();
+        LocalDateTime getSubEventsUpdatedAt();
+        long getSubscriptions();
+        LocalDateTime getSubscriptionsCreatedAt();
+        LocalDateTime getSubscribersUpdatedAt();
+        long getChecks();
+        LocalDateTime getChecksUpdatedAt();
+        LocalDateTime getCheckUsersUpdatedAt();
+    }
 }
\ No newline at end of file
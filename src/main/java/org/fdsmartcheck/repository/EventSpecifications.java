@@ -0,0 +1,44 @@
+package org.fdsmartcheck.repository;
+
+import org.fdsmartcheck.model.Event;
+import org.fdsmartcheck.model.enums.EventStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+/**
+ * Filtros da listagem de eventos, combinados e executados no banco
+ */
+public final class EventSpecifications {
+
+    private EventSpecifications() {
+    }
+
+    public static Specification<Event> hasStatus(EventStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Escrito como IN dos demais status (e não como <> CANCELLED) para que os índices que começam
+     * por status possam ser usados
+     */
+    public static Specification<Event> notCancelled() {
+        EnumSet<EventStatus> statuses = EnumSet.complementOf(EnumSet.of(EventStatus.CANCELLED));
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    /**
+     * Eventos ainda em andamento (ou futuros) em from
+     */
+    public static Specification<Event> endsAfter(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("endDate"), from);
+    }
+
+    /**
+     * Eventos que começam antes de to
+     */
+    public static Specification<Event> startsBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("startDate"), to);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,13 +16,20 @@ public interface QRCodeRepository extends JpaRepository<QRCode, String> {
 
     Optional<QRCode> findByCodeData(String codeData);
 
+    @Query("SELECT q FROM QRCode q JOIN FETCH q.subEvent s JOIN FETCH s.event WHERE q.codeData = :codeData")
+    Optional<QRCode> findWithSubEventByCodeData(@Param("codeData") String codeData);
+
     List<QRCode> findBySubEventId(String subEventId);
 
     Boolean existsByCodeData(String codeData);
 
     Optional<QRCode> findBySubEventIdAndIsActive(String subEventId, Boolean isActive);
 
+    /**
+     * Desativa os QR Codes ativos do subevento; updatedAt marca o fim do período ativo (a
+     * sincronização offline aceita leituras feitas até ele)
+     */
     @Modifying
-    @Query("UPDATE QRCode q SET q.isActive = false WHERE q.subEvent.id = :subEventId")
-    void deactivateAllBySubEventId(@Param("subEventId") String subEventId);
+    @Query("UPDATE QRCode q SET q.isActive = false, q.updatedAt = :now WHERE q.subEvent.id = :subEventId AND q.isActive = true")
+    void deactivateAllBySubEventId(@Param("subEventId") String subEventId, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -2,13 +2,65 @@ package org.fdsmartcheck.repository;
 
 import org.fdsmartcheck.model.SubEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SubEventRepository extends JpaRepository<SubEvent, String> {
 
     List<SubEvent> findByEventId(String eventId);
 
-}
\ No newline at end of file
+    @Query("SELECT s FROM SubEvent s JOIN FETCH s.event WHERE s.id = :id")
+    Optional<SubEvent> findWithEventById(@Param("id") String id);
+
+    /**
+     * Inscritos e totais de presença de cada subevento do evento, num único GROUP BY
+     * Subeventos sem checks também aparecem (LEFT JOIN), em ordem cronológica
+     */
+    @Query("""
+            SELECT s.id AS subEventId, s.title AS title, s.startDate AS startDate, s.endDate AS endDate,
+                   (SELECT COUNT(sub) FROM Subscription sub WHERE sub.subEvent.id = s.id) AS subscriptions,
+                   COUNT(c) AS total,
+                   COALESCE(SUM(CASE WHEN c.checkinTime IS NOT NULL AND c.checkoutTime IS NOT NULL THEN 1 ELSE 0 END), 0) AS withBoth,
+                   COALESCE(SUM(CASE WHEN c.checkinTime IS NOT NULL AND c.checkoutTime IS NULL THEN 1 ELSE 0 END), 0) AS onlyCheckin,
+                   COALESCE(SUM(CASE WHEN c.checkinTime IS NULL AND c.checkoutTime IS NOT NULL THEN 1 ELSE 0 END), 0) AS onlyCheckout,
+                   COALESCE(SUM(CASE WHEN c.id IS NOT NULL AND c.checkinTime IS NULL AND c.checkoutTime IS NULL THEN 1 ELSE 0 END), 0) AS withNeither
+            FROM SubEvent s LEFT JOIN Check c ON c.subEvent.id = s.id
+            WHERE s.event.id = :eventId
+            GROUP BY s.id, s.title, s.startDate, s.endDate
+            ORDER BY s.startDate, s.id
+            """)
+    List<AttendanceSummaryView> summarizeAttendanceByEventId(@Param("eventId") String eventId);
+
+    @Query("""
+            SELECT s.id AS subEventId, s.title AS title, s.startDate AS startDate, s.endDate AS endDate,
+                   (SELECT COUNT(sub) FROM Subscription sub WHERE sub.subEvent.id = s.id) AS subscriptions,
+                   COUNT(c) AS total,
+                   COALESCE(SUM(CASE WHEN c.checkinTime IS NOT NULL AND c.checkoutTime IS NOT NULL THEN 1 ELSE 0 END), 0) AS withBoth,
+                   COALESCE(SUM(CASE WHEN c.checkinTime IS NOT NULL AND c.checkoutTime IS NULL THEN 1 ELSE 0 END), 0) AS onlyCheckin,
+                   COALESCE(SUM(CASE WHEN c.checkinTime IS NULL AND c.checkoutTime IS NOT NULL THEN 1 ELSE 0 END), 0) AS onlyCheckout,
+                   COALESCE(SUM(CASE WHEN c.id IS NOT NULL AND c.checkinTime IS NULL AND c.checkoutTime IS NULL THEN 1 ELSE 0 END), 0) AS withNeither
+            FROM SubEvent s LEFT JOIN Check c ON c.subEvent.id = s.id
+            WHERE s.id = :subEventId
+            GROUP BY s.id, s.title, s.startDate, s.endDate
+            """)
+    Optional<AttendanceSummaryView> summarizeAttendanceBySubEventId(@Param("subEventId") String subEventId);
+
+    interface AttendanceSummaryView {
+        String getSubEventId();
+        String getTitle();
+        LocalDateTime getStartDate();
+        LocalDateTime getEndDate();
+        long getSubscriptions();
+        long getTotal();
+        long getWithBoth();
+        long getOnlyCheckin();
+        long getOnlyCheckout();
+        long getWithNeither();
+    }
+}
@@ -2,9 +2,13 @@ package org.fdsmartcheck.repository;
 
 import org.fdsmartcheck.model.Subscription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface SubscriptionRepository extends JpaRepository<Subscription, String> {
@@ -13,5 +17,11 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Stri
 
     boolean existsBySubEventIdAndUserId(String subEventId, String userId);
 
-    void deleteBySubEventIdAndUserId(String subEventId, String userId);
+    long deleteBySubEventIdAndUserId(String subEventId, String userId);
+
+    @Query("SELECT s.subEvent.id FROM Subscription s WHERE s.user.id = :userId AND s.subEvent.id IN :subEventIds")
+    Set<String> findSubscribedSubEventIds(
+            @Param("userId") String userId,
+            @Param("subEventIds") Collection<String> subEventIds
+    );
 }
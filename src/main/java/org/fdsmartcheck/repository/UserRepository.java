@@ -12,4 +12,11 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
     List<User> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email);
+
+    Optional<AccountStatusView> findAccountStatusById(String id);
+
+    interface AccountStatusView {
+        Boolean getIsActive();
+        Long getAccountVersion();
+    }
 }
\ No newline at end of file
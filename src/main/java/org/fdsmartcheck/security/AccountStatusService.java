@@ -0,0 +1,75 @@
+package org.fdsmartcheck.security;
+
+import org.fdsmartcheck.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache curto de status da conta (ativa + versão) usado para validar tokens sem carregar o usuário
+ * Desativações e trocas de papel passam a valer em no máximo ttl-seconds em cada nó
+ */
+@Service
+public class AccountStatusService {
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxSize;
+
+    // userId -> status em cache
+    private final ConcurrentHashMap<String, CachedStatus> statuses = new ConcurrentHashMap<>();
+
+    public AccountStatusService(
+            UserRepository userRepository,
+            @Value("${app.security.account-status.ttl-seconds:30}") long ttlSeconds,
+            @Value("${app.security.account-status.max-size:10000}") int maxSize
+    ) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Verifica se a conta está ativa e se o token foi emitido para a versão atual da conta
+     */
+    public boolean isCurrent(String userId, long tokenVersion) {
+        long now = System.currentTimeMillis();
+        CachedStatus status = statuses.get(userId);
+
+        if (status == null || now - status.getLoadedAt() > ttlMillis) {
+            status = load(userId, now);
+        }
+
+        return status.isActive() && status.getVersion() == tokenVersion;
+    }
+
+    public void evict(String userId) {
+        statuses.remove(userId);
+    }
+
+    private CachedStatus load(String userId, long now) {
+        CachedStatus status = userRepository.findAccountStatusById(userId)
+                .map(view -> new CachedStatus(
+                        Boolean.TRUE.equals(view.getIsActive()),
+                        view.getAccountVersion() != null ? view.getAccountVersion() : 0L,
+                        now))
+                .orElse(new CachedStatus(false, -1L, now));
+
+        if (statuses.size() >= maxSize) {
+            statuses.entrySet().removeIf(entry -> now - entry.getValue().getLoadedAt() > ttlMillis);
+            if (statuses.size() >= maxSize) {
+                statuses.clear();
+            }
+        }
+        statuses.put(userId, status);
+        return status;
+    }
+
+    @lombok.Value
+    private static class CachedStatus {
+        boolean active;
+        long version;
+        long loadedAt;
+    }
+}
@@ -0,0 +1,35 @@
+package org.fdsmartcheck.security;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.fdsmartcheck.model.enums.Role;
+
+import java.security.Principal;
+
+/**
+ * Principal montado a partir das claims verificadas do JWT
+ * getName() continua devolvendo o email, como o principal anterior
+ */
+@Getter
+@RequiredArgsConstructor
+public class AuthenticatedUser implements Principal {
+
+    private final String id;
+    private final String email;
+    private final String displayName;
+    private final Role role;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
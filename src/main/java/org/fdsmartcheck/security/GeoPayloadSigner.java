@@ -0,0 +1,283 @@
+package org.fdsmartcheck.security;
+
+import org.fdsmartcheck.config.ExecutionMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Assinatura HMAC-SHA256 do payload de geolocalização no formato canônico
+ *
+ * Produz exatamente os mesmos bytes que o ObjectMapper gerava a partir de um TreeMap
+ * ({"deviceId":...,"latitude":...,"longitude":...,"timestamp":...}), mas escreve os campos
+ * direto em um buffer reutilizável, reaproveita o Mac já inicializado e compara a assinatura
+ * em tempo constante.
+ *
+ * Com threads de plataforma, Mac e buffer ficam num ThreadLocal. Com threads virtuais cada
+ * requisição roda numa thread nova, e o ThreadLocal criaria (e inicializaria) um Mac por requisição;
+ * nesse modo eles ficam num pool sem lock, que cresce no máximo até o número de threads assinando
+ * ao mesmo tempo (a assinatura não bloqueia).
+ */
+@Component
+public class GeoPayloadSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    // Jackson escapa os demais caracteres de controle com hexadecimal maiúsculo
+    private static final byte[] JSON_HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] DEVICE_ID = ascii("{\"deviceId\":");
+    private static final byte[] LATITUDE = ascii(",\"latitude\":");
+    private static final byte[] LONGITUDE = ascii(",\"longitude\":");
+    private static final byte[] TIMESTAMP = ascii(",\"timestamp\":");
+    private static final byte[] NULL = ascii("null");
+
+    private final SecretKeySpec key;
+    // Só um dos dois existe, conforme o modo de execução
+    private final ThreadLocal<SignerState> threadState;
+    private final ConcurrentLinkedQueue<SignerState> pool;
+
+    public GeoPayloadSigner(@Value("${app.geo.secret-key}") String secretKey, ExecutionMode executionMode) {
+        this.key = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        if (executionMode.isVirtualThreads()) {
+            this.threadState = null;
+            this.pool = new ConcurrentLinkedQueue<>();
+        } else {
+            this.threadState = ThreadLocal.withInitial(() -> new SignerState(newMac()));
+            this.pool = null;
+        }
+    }
+
+    /**
+     * Assina o payload e retorna a assinatura em hexadecimal minúsculo
+     */
+    public String sign(String deviceId, Double latitude, Double longitude, Long timestamp) {
+        SignerState state = acquire();
+        try {
+            byte[] digest = state.digest(deviceId, latitude, longitude, timestamp);
+
+            char[] hex = new char[MAC_LENGTH * 2];
+            for (int i = 0; i < MAC_LENGTH; i++) {
+                int b = digest[i] & 0xff;
+                hex[2 * i] = HEX[b >>> 4];
+                hex[2 * i + 1] = HEX[b & 0x0f];
+            }
+            return new String(hex);
+        } finally {
+            release(state);
+        }
+    }
+
+    /**
+     * Compara a assinatura recebida com a esperada em tempo constante
+     */
+    public boolean verify(String deviceId, Double latitude, Double longitude, Long timestamp, String signature) {
+        if (signature == null || signature.length() != MAC_LENGTH * 2) {
+            return false;
+        }
+
+        SignerState state = acquire();
+        try {
+            byte[] digest = state.digest(deviceId, latitude, longitude, timestamp);
+
+            int diff = 0;
+            for (int i = 0; i < MAC_LENGTH; i++) {
+                int b = digest[i] & 0xff;
+                diff |= signature.charAt(2 * i) ^ HEX[b >>> 4];
+                diff |= signature.charAt(2 * i + 1) ^ HEX[b & 0x0f];
+            }
+            return diff == 0;
+        } finally {
+            release(state);
+        }
+    }
+
+    private SignerState acquire() {
+        if (threadState != null) {
+            return threadState.get();
+        }
+        SignerState state = pool.poll();
+        return state != null ? state : new SignerState(newMac());
+    }
+
+    private void release(SignerState state) {
+        if (pool != null) {
+            pool.offer(state);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Não foi possível inicializar o HMAC de geolocalização", e);
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Mac, buffer do payload e saída do digest, usados por uma assinatura de cada vez
+     */
+    private static final class SignerState {
+
+        private final Mac mac;
+        private final byte[] digest = new byte[MAC_LENGTH];
+        private byte[] buffer = new byte[256];
+        private int length;
+
+        private SignerState(Mac mac) {
+            this.mac = mac;
+        }
+
+        private byte[] digest(String deviceId, Double latitude, Double longitude, Long timestamp) {
+            length = 0;
+            write(DEVICE_ID);
+            writeString(deviceId);
+            write(LATITUDE);
+            writeDouble(latitude);
+            write(LONGITUDE);
+            writeDouble(longitude);
+            write(TIMESTAMP);
+            writeLong(timestamp);
+            write((byte) '}');
+
+            try {
+                mac.update(buffer, 0, length);
+                mac.doFinal(digest, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+            return digest;
+        }
+
+        private void write(byte b) {
+            ensureCapacity(1);
+            buffer[length++] = b;
+        }
+
+        private void write(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        private void writeAscii(String value) {
+            ensureCapacity(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                buffer[length++] = (byte) value.charAt(i);
+            }
+        }
+
+        private void writeLong(Long value) {
+            if (value == null) {
+                write(NULL);
+                return;
+            }
+            writeAscii(Long.toString(value));
+        }
+
+        private void writeDouble(Double value) {
+            if (value == null) {
+                write(NULL);
+                return;
+            }
+            // Mesmo formato do Jackson: Double.toString, com NaN/Infinity entre aspas
+            String text = Double.toString(value);
+            if (value.isNaN() || value.isInfinite()) {
+                write((byte) '"');
+                writeAscii(text);
+                write((byte) '"');
+            } else {
+                writeAscii(text);
+            }
+        }
+
+        /**
+         * String JSON com o mesmo escape do Jackson, codificada em UTF-8
+         */
+        private void writeString(String value) {
+            if (value == null) {
+                write(NULL);
+                return;
+            }
+
+            ensureCapacity(value.length() * 3 + 2);
+            buffer[length++] = '"';
+
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+
+                if (c < 0x80) {
+                    if (c >= 0x20 && c != '"' && c != '\\') {
+                        buffer[length++] = (byte) c;
+                    } else {
+                        writeEscaped(c);
+                    }
+                } else if (c < 0x800) {
+                    buffer[length++] = (byte) (0xc0 | (c >> 6));
+                    buffer[length++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c)
+                        && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    ensureCapacity(4);
+                    buffer[length++] = (byte) (0xf0 | (codePoint >> 18));
+                    buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    buffer[length++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    // String.getBytes(UTF_8) troca surrogates isolados por '?'
+                    buffer[length++] = '?';
+                } else {
+                    buffer[length++] = (byte) (0xe0 | (c >> 12));
+                    buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    buffer[length++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+
+            ensureCapacity(1);
+            buffer[length++] = '"';
+        }
+
+        private void writeEscaped(char c) {
+            ensureCapacity(6);
+            buffer[length++] = '\\';
+            switch (c) {
+                case '"' -> buffer[length++] = '"';
+                case '\\' -> buffer[length++] = '\\';
+                case '\b' -> buffer[length++] = 'b';
+                case '\t' -> buffer[length++] = 't';
+                case '\f' -> buffer[length++] = 'f';
+                case '\n' -> buffer[length++] = 'n';
+                case '\r' -> buffer[length++] = 'r';
+                default -> {
+                    buffer[length++] = 'u';
+                    buffer[length++] = '0';
+                    buffer[length++] = '0';
+                    buffer[length++] = JSON_HEX[c >> 4];
+                    buffer[length++] = JSON_HEX[c & 0x0f];
+                }
+            }
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.fdsmartcheck.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Store de nonces em memória, local a cada instância
+ *
+ * O teste-e-registro é um único putIfAbsent (O(1)). Cada nonce também entra no balde
+ * da fatia de tempo em que foi registrado; quando um balde inteiro passa da retenção
+ * ele é descartado de uma vez, sem varrer o mapa todo a cada requisição.
+ *
+ * O número de nonces retidos é limitado por max-entries. Ao atingir o limite:
+ * - REJECT: novas requisições são recusadas até a limpeza liberar espaço (padrão, fail-closed)
+ * - EVICT_OLDEST: os baldes mais antigos são descartados antes do vencimento
+ */
+@Component
+@ConditionalOnProperty(name = "app.geo.nonce-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryNonceStore implements NonceStore {
+
+    public enum OverflowPolicy {
+        REJECT,
+        EVICT_OLDEST
+    }
+
+    private final long retentionMillis;
+    private final long bucketMillis;
+    private final int maxEntries;
+    private final OverflowPolicy overflowPolicy;
+
+    // nonce -> instante do registro
+    private final ConcurrentHashMap<String, Long> nonces = new ConcurrentHashMap<>();
+    // fatia de tempo -> nonces registrados nela
+    private final ConcurrentSkipListMap<Long, Queue<String>> buckets = new ConcurrentSkipListMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private volatile long nextSweepAt;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder capacityRejects = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public InMemoryNonceStore(
+            @Value("${app.geo.max-time-diff-seconds:60}") long maxTimeDiffSeconds,
+            @Value("${app.geo.nonce.buckets:12}") int bucketCount,
+            @Value("${app.geo.nonce.max-entries:200000}") int maxEntries,
+            @Value("${app.geo.nonce.overflow-policy:REJECT}") OverflowPolicy overflowPolicy
+    ) {
+        // Mesma retenção de antes: o dobro da tolerância do timestamp
+        this.retentionMillis = maxTimeDiffSeconds * 2000;
+        this.bucketMillis = Math.max(1, retentionMillis / Math.max(1, bucketCount));
+        this.maxEntries = maxEntries;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public NonceCheckResult register(String nonce) {
+        long now = System.currentTimeMillis();
+
+        if (now >= nextSweepAt) {
+            sweep(now);
+        }
+
+        if (size.get() >= maxEntries && !makeRoom(now)) {
+            capacityRejects.increment();
+            return NonceCheckResult.CAPACITY_EXCEEDED;
+        }
+
+        Long previous = nonces.putIfAbsent(nonce, now);
+        if (previous == null) {
+            size.incrementAndGet();
+        } else if (now - previous > retentionMillis && nonces.replace(nonce, previous, now)) {
+            // Registro antigo ainda não varrido: o nonce pode ser reutilizado
+            expired.increment();
+        } else {
+            duplicates.increment();
+            return NonceCheckResult.DUPLICATE;
+        }
+
+        buckets.computeIfAbsent(now / bucketMillis, key -> new ConcurrentLinkedQueue<>()).add(nonce);
+        accepted.increment();
+        return NonceCheckResult.ACCEPTED;
+    }
+
+    @Override
+    public Stats stats() {
+        return new Stats(
+                "memory",
+                size.get(),
+                maxEntries,
+                accepted.sum(),
+                duplicates.sum(),
+                capacityRejects.sum(),
+                expired.sum(),
+                evicted.sum()
+        );
+    }
+
+    /**
+     * Descarta os baldes cujo conteúdo inteiro já passou da retenção
+     */
+    private void sweep(long now) {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            long oldestLiveBucket = (now - retentionMillis) / bucketMillis;
+            Iterator<Map.Entry<Long, Queue<String>>> iterator = buckets.headMap(oldestLiveBucket).entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Queue<String>> bucket = iterator.next();
+                iterator.remove();
+                expired.add(drop(bucket.getKey(), bucket.getValue()));
+            }
+            nextSweepAt = now + bucketMillis;
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    /**
+     * Tenta liberar espaço conforme a política de overflow
+     */
+    private boolean makeRoom(long now) {
+        sweep(now);
+        if (size.get() < maxEntries) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.REJECT) {
+            return false;
+        }
+
+        sweepLock.lock();
+        try {
+            while (size.get() >= maxEntries) {
+                Map.Entry<Long, Queue<String>> oldest = buckets.pollFirstEntry();
+                if (oldest == null) {
+                    return false;
+                }
+                evicted.add(drop(oldest.getKey(), oldest.getValue()));
+            }
+            return true;
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    /**
+     * Remove do mapa os nonces de um balde, preservando os que foram registrados de novo depois
+     */
+    private int drop(long bucket, Queue<String> bucketNonces) {
+        int removed = 0;
+        for (String nonce : bucketNonces) {
+            Long registeredAt = nonces.get(nonce);
+            if (registeredAt != null
+                    && registeredAt / bucketMillis <= bucket
+                    && nonces.remove(nonce, registeredAt)) {
+                removed++;
+            }
+        }
+        size.addAndGet(-removed);
+        return removed;
+    }
+}
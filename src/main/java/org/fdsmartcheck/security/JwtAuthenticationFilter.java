@@ -5,24 +5,28 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.fdsmartcheck.metrics.CheckMetrics;
+import org.fdsmartcheck.metrics.CheckMetrics.Stage;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsServiceImpl userDetailsService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final AccountStatusService accountStatusService;
+    private final CheckMetrics checkMetrics;
 
     @Override
     protected void doFilterInternal(
@@ -32,7 +36,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -42,21 +45,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             jwt = authHeader.substring(7);
 
-            if (tokenBlacklistService.isBlacklisted(jwt)) {
-                filterChain.doFilter(request, response);
-                return;
-            }
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Assinatura e expiração verificadas uma única vez
+                VerifiedToken token = checkMetrics.time(Stage.JWT_VERIFY, () -> jwtTokenProvider.verify(jwt));
 
-            userEmail = jwtTokenProvider.extractUsername(jwt);
+                if (checkMetrics.time(Stage.REVOCATION_CHECK, () -> tokenBlacklistService.isBlacklisted(token.revocationKey(jwt)))) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
 
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                AuthenticatedUser principal = checkMetrics.time(Stage.USER_LOOKUP, () -> resolvePrincipal(token));
 
-                if (jwtTokenProvider.isTokenValid(jwt, userDetails)) {
+                if (principal != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
-                            userDetails.getAuthorities()
+                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + principal.getRole().name()))
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -69,4 +73,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tokens com claims de usuário dispensam a consulta ao banco (exceto o status em cache);
+     * tokens antigos continuam sendo resolvidos pelo email
+     */
+    private AuthenticatedUser resolvePrincipal(VerifiedToken token) {
+        AuthenticatedUser principal = token.toAuthenticatedUser();
+
+        if (principal == null) {
+            return token.getSubject() != null
+                    ? userDetailsService.loadAuthenticatedUser(token.getSubject())
+                    : null;
+        }
+
+        if (!accountStatusService.isCurrent(principal.getId(), token.getAccountVersion())) {
+            logger.debug("Token JWT emitido para versão antiga da conta ou conta inativa");
+            return null;
+        }
+
+        return principal;
+    }
+}
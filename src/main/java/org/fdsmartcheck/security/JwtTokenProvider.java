@@ -1,75 +1,93 @@
 package org.fdsmartcheck.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.fdsmartcheck.model.User;
+import org.fdsmartcheck.model.enums.Role;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_NAME = "name";
+    public static final String CLAIM_ACCOUNT_VERSION = "ver";
 
-    @Value("${jwt.expiration}")
-    private long expiration;
+    private final long expiration;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    // Chave e parser são imutáveis e thread-safe: montados uma única vez
+    private final SecretKey signInKey;
+    private final JwtParser parser;
+
+    public JwtTokenProvider(
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.expiration}") long expiration
+    ) {
+        this.expiration = expiration;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Verifica assinatura e expiração e devolve todas as claims relevantes de uma só vez
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = extractAllClaims(token);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Object version = claims.get(CLAIM_ACCOUNT_VERSION);
+
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get(CLAIM_USER_ID, String.class),
+                role != null ? Role.valueOf(role) : null,
+                claims.get(CLAIM_NAME, String.class),
+                version instanceof Number number ? number.longValue() : 0L,
+                claims.getExpiration()
+        );
     }
 
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+    /**
+     * Gera o token com id, papel, nome e versão da conta, permitindo autenticar
+     * as requisições seguintes apenas com as claims verificadas
+     */
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_NAME, user.getName());
+        claims.put(CLAIM_ACCOUNT_VERSION, user.getAccountVersion() != null ? user.getAccountVersion() : 0L);
+        return buildToken(claims, user.getEmail());
     }
 
-    public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+    private String buildToken(Map<String, Object> extraClaims, String subject) {
+        // jti compacto: é a chave usada na revogação (logout)
         return Jwts.builder()
                 .claims(extraClaims)
-                .subject(userDetails.getUsername())
+                .id(UUID.randomUUID().toString())
+                .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), Jwts.SIG.HS256)
+                .signWith(signInKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
-
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package org.fdsmartcheck.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+
+/**
+ * Autentica a coleta do Prometheus (GET /actuator/prometheus) pelo token fixo
+ * app.metrics.scrape-token (Authorization: Bearer <token>), com o papel METRICS
+ *
+ * Roda antes do JwtAuthenticationFilter, que ignora a requisição já autenticada; sem token
+ * configurado não faz nada e o endpoint fica restrito a ADMIN.
+ */
+public class MetricsScrapeTokenFilter extends OncePerRequestFilter {
+
+    public static final String PROMETHEUS_PATH = "/actuator/prometheus";
+    public static final String ROLE = "METRICS";
+
+    private final byte[] expectedHeader;
+
+    public MetricsScrapeTokenFilter(String scrapeToken) {
+        this.expectedHeader = scrapeToken == null || scrapeToken.isBlank()
+                ? null
+                : ("Bearer " + scrapeToken.trim()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return expectedHeader == null || !PROMETHEUS_PATH.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+
+        if (authHeader != null
+                && MessageDigest.isEqual(expectedHeader, authHeader.getBytes(StandardCharsets.UTF_8))) {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    "prometheus",
+                    null,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + ROLE))
+            );
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,13 @@
+package org.fdsmartcheck.security;
+
+/**
+ * Resultado do registro de um nonce (requestId) de check-in
+ */
+public enum NonceCheckResult {
+    /** Nonce inédito, registrado com sucesso */
+    ACCEPTED,
+    /** Nonce já utilizado dentro da janela de retenção */
+    DUPLICATE,
+    /** Store cheio e política de overflow REJECT */
+    CAPACITY_EXCEEDED
+}
@@ -0,0 +1,34 @@
+package org.fdsmartcheck.security;
+
+import lombok.Value;
+
+/**
+ * Store de nonces (requestId) usado na proteção anti-replay do check-in
+ *
+ * Implementações selecionadas por app.geo.nonce-store:
+ * - memory (padrão): InMemoryNonceStore, local a cada instância
+ * - postgres: PostgresNonceStore, compartilhado entre instâncias atrás do load balancer
+ */
+public interface NonceStore {
+
+    /**
+     * Registra o nonce se ele ainda não foi visto dentro da janela de retenção
+     * O nonce aceito fica consumido na hora, independente do resultado do check que o usou
+     */
+    NonceCheckResult register(String nonce);
+
+    Stats stats();
+
+    @Value
+    class Stats {
+        String store;
+        long size;
+        // null quando o store não tem limite de entradas
+        Integer maxEntries;
+        long accepted;
+        long duplicates;
+        long capacityRejects;
+        long expired;
+        long evicted;
+    }
+}
@@ -0,0 +1,127 @@
+package org.fdsmartcheck.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Store de nonces compartilhado no Postgres
+ *
+ * Com várias instâncias atrás do load balancer, um requestId aceito em um nó também é
+ * recusado nos demais. A tabela é UNLOGGED (sem WAL): os nonces só precisam sobreviver
+ * à janela de retenção, e perder o conteúdo num crash do banco equivale a reiniciar
+ * o store em memória. O relógio usado é o do banco, comum a todos os nós: expires_at é um
+ * instante (timestamptz) comparado com now(), independente do fuso de cada sessão/JVM.
+ *
+ * A tabela vem das migrações V3__used_nonces e V6__used_nonces_timestamptz. O registro é chamado
+ * fora da transação do check (CheckService.performCheck), então é gravado em autocommit: como no
+ * store em memória, o requestId fica consumido mesmo que o check seja recusado depois.
+ *
+ * O tamanho informado em stats() é a estimativa do Postgres (pg_class.reltuples), relida pela
+ * limpeza periódica: um COUNT(*) a cada coleta do /actuator/prometheus varreria a tabela
+ * justamente quando ela está maior, no pico de check-ins.
+ */
+@Component
+@ConditionalOnProperty(name = "app.geo.nonce-store", havingValue = "postgres")
+public class PostgresNonceStore implements NonceStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresNonceStore.class);
+
+    // Insere o nonce ou reaproveita um registro já vencido e ainda não apagado;
+    // 0 linhas afetadas significa nonce em uso
+    private static final String REGISTER_SQL = """
+            INSERT INTO used_nonces (request_id, expires_at)
+            VALUES (?, now() + make_interval(secs => ?))
+            ON CONFLICT (request_id) DO UPDATE
+                SET expires_at = EXCLUDED.expires_at
+                WHERE used_nonces.expires_at < now()
+            """;
+
+    private static final String DELETE_EXPIRED_SQL = """
+            DELETE FROM used_nonces
+            WHERE ctid IN (
+                SELECT ctid FROM used_nonces
+                WHERE expires_at < now()
+                LIMIT ?
+            )
+            """;
+
+    // -1 enquanto a tabela não foi analisada (autovacuum/ANALYZE)
+    private static final String ESTIMATED_SIZE_SQL =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = 'used_nonces'::regclass";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long retentionSeconds;
+    private final int deleteBatchSize;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private volatile long estimatedSize;
+
+    public PostgresNonceStore(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.geo.max-time-diff-seconds:60}") long maxTimeDiffSeconds,
+            @Value("${app.geo.nonce.postgres.delete-batch-size:5000}") int deleteBatchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Mesma retenção do store em memória: o dobro da tolerância do timestamp
+        this.retentionSeconds = maxTimeDiffSeconds * 2;
+        this.deleteBatchSize = deleteBatchSize;
+    }
+
+    @Override
+    public NonceCheckResult register(String nonce) {
+        int updated = jdbcTemplate.update(REGISTER_SQL, nonce, (double) retentionSeconds);
+
+        if (updated == 0) {
+            duplicates.increment();
+            return NonceCheckResult.DUPLICATE;
+        }
+        accepted.increment();
+        return NonceCheckResult.ACCEPTED;
+    }
+
+    @Override
+    public Stats stats() {
+        return new Stats(
+                "postgres",
+                estimatedSize,
+                null,
+                accepted.sum(),
+                duplicates.sum(),
+                0,
+                expired.sum(),
+                0
+        );
+    }
+
+    /**
+     * Apaga os nonces vencidos em lotes, para não segurar locks nem gerar um DELETE gigante,
+     * e relê a estimativa de tamanho
+     */
+    @Scheduled(
+            fixedDelayString = "${app.geo.nonce.postgres.cleanup-interval-ms:30000}",
+            initialDelayString = "${app.geo.nonce.postgres.cleanup-interval-ms:30000}"
+    )
+    public void deleteExpired() {
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, deleteBatchSize);
+                expired.add(deleted);
+            } while (deleted >= deleteBatchSize);
+
+            Long size = jdbcTemplate.queryForObject(ESTIMATED_SIZE_SQL, Long.class);
+            estimatedSize = size != null ? Math.max(size, 0) : 0;
+        } catch (Exception e) {
+            logger.warn("Falha ao apagar nonces vencidos: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.fdsmartcheck.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Revogações de token compartilhadas entre instâncias numa tabela do Postgres
+ * (criada pela migração V4__revoked_tokens)
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.revocation-store", havingValue = "postgres")
+public class PostgresRevocationStore implements RevocationStore {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO revoked_tokens (token_id, expires_at)
+            VALUES (?, ?)
+            ON CONFLICT (token_id) DO NOTHING
+            """;
+
+    private static final String FIND_SINCE_SQL = """
+            SELECT token_id, expires_at, revoked_at
+            FROM revoked_tokens
+            WHERE revoked_at > ? AND expires_at > LOCALTIMESTAMP
+            ORDER BY revoked_at
+            """;
+
+    private static final String DELETE_EXPIRED_SQL = """
+            DELETE FROM revoked_tokens
+            WHERE ctid IN (
+                SELECT ctid FROM revoked_tokens
+                WHERE expires_at < LOCALTIMESTAMP
+                LIMIT ?
+            )
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int deleteBatchSize;
+
+    public PostgresRevocationStore(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.security.revocation.postgres.delete-batch-size:5000}") int deleteBatchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deleteBatchSize = deleteBatchSize;
+    }
+
+    @Override
+    public void save(String tokenId, long expiresAtMs) {
+        jdbcTemplate.update(INSERT_SQL, tokenId, new Timestamp(expiresAtMs));
+    }
+
+    @Override
+    public List<Revocation> findRevokedSince(long revokedAfterMs) {
+        return jdbcTemplate.query(
+                FIND_SINCE_SQL,
+                (rs, rowNum) -> new Revocation(
+                        rs.getString("token_id"),
+                        rs.getTimestamp("expires_at").getTime(),
+                        rs.getTimestamp("revoked_at").getTime()
+                ),
+                new Timestamp(revokedAfterMs)
+        );
+    }
+
+    @Override
+    public int deleteExpired() {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, deleteBatchSize);
+            total += deleted;
+        } while (deleted >= deleteBatchSize);
+        return total;
+    }
+}
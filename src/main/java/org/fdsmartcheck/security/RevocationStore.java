@@ -0,0 +1,31 @@
+package org.fdsmartcheck.security;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Backend compartilhado de revogação de tokens (logout)
+ *
+ * O TokenBlacklistService grava cada revogação aqui e puxa periodicamente as revogações
+ * feitas pelas outras instâncias; as consultas por requisição continuam em memória.
+ * Sem backend configurado (app.security.revocation-store=memory), a revogação é local à instância.
+ */
+public interface RevocationStore {
+
+    void save(String tokenId, long expiresAtMs);
+
+    /**
+     * Revogações ainda não expiradas registradas após o instante informado (relógio do backend)
+     */
+    List<Revocation> findRevokedSince(long revokedAfterMs);
+
+    int deleteExpired();
+
+    @Value
+    class Revocation {
+        String tokenId;
+        long expiresAt;
+        long revokedAt;
+    }
+}
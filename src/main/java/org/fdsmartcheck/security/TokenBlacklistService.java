@@ -1,29 +1,168 @@
 package org.fdsmartcheck.security;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Revogação de tokens (logout), indexada pelo jti
+ *
+ * - Consulta: filtro de Bloom opcional + ConcurrentHashMap, sem lock (O(1))
+ * - Expiração: fila ordenada pelo exp do token; a limpeza só remove o que já venceu
+ * - Multi-instância: com um RevocationStore configurado, cada logout é gravado nele e as
+ *   revogações das outras instâncias são puxadas periodicamente para a memória
+ */
 @Service
 public class TokenBlacklistService {
 
-    // token -> expiration timestamp (ms)
-    private final ConcurrentHashMap<String, Long> blacklist = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistService.class);
 
-    public void blacklist(String token, long expirationMs) {
-        blacklist.put(token, expirationMs);
-        // Clean up expired tokens
-        long now = System.currentTimeMillis();
-        blacklist.entrySet().removeIf(entry -> entry.getValue() < now);
+    // Sobreposição na leitura incremental, cobrindo commits concorrentes no backend
+    private static final long PULL_OVERLAP_MS = 5000;
+
+    // tokenId -> expiração (ms)
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    // Protegida pelo próprio monitor da fila
+    private final PriorityQueue<Expiry> expiryQueue = new PriorityQueue<>(Comparator.comparingLong(Expiry::getExpiresAt));
+
+    private final RevocationStore revocationStore;
+    private final boolean bloomEnabled;
+    private final int bloomExpectedInsertions;
+    private final double bloomFalsePositiveRate;
+    private volatile RevocationBloomFilter bloomFilter;
+    private int bloomCapacity;
+
+    private long lastPulledRevokedAt = 0;
+
+    public TokenBlacklistService(
+            ObjectProvider<RevocationStore> revocationStore,
+            @Value("${app.security.revocation.bloom.enabled:true}") boolean bloomEnabled,
+            @Value("${app.security.revocation.bloom.expected-insertions:100000}") int bloomExpectedInsertions,
+            @Value("${app.security.revocation.bloom.false-positive-rate:0.01}") double bloomFalsePositiveRate
+    ) {
+        this.revocationStore = revocationStore.getIfAvailable();
+        this.bloomEnabled = bloomEnabled;
+        this.bloomExpectedInsertions = bloomExpectedInsertions;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.bloomCapacity = bloomExpectedInsertions;
+        this.bloomFilter = bloomEnabled ? new RevocationBloomFilter(bloomCapacity, bloomFalsePositiveRate) : null;
     }
 
-    public boolean isBlacklisted(String token) {
-        Long expiration = blacklist.get(token);
-        if (expiration == null) return false;
-        if (expiration < System.currentTimeMillis()) {
-            blacklist.remove(token);
+    public void blacklist(String tokenId, long expirationMs) {
+        if (expirationMs < System.currentTimeMillis()) {
+            return;
+        }
+
+        addLocal(tokenId, expirationMs);
+
+        if (revocationStore != null) {
+            revocationStore.save(tokenId, expirationMs);
+        }
+    }
+
+    public boolean isBlacklisted(String tokenId) {
+        RevocationBloomFilter filter = bloomFilter;
+        if (filter != null && !filter.mightContain(tokenId)) {
             return false;
         }
-        return true;
+
+        Long expiration = revoked.get(tokenId);
+        return expiration != null && expiration >= System.currentTimeMillis();
+    }
+
+    /**
+     * Revogações ainda retidas em memória (inclui as já vencidas que a limpeza não removeu)
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Remove as revogações cujos tokens já expiraram, na ordem de expiração
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+
+        synchronized (expiryQueue) {
+            Expiry head;
+            while ((head = expiryQueue.peek()) != null && head.getExpiresAt() < now) {
+                expiryQueue.poll();
+                if (revoked.remove(head.getTokenId(), head.getExpiresAt())) {
+                    removed++;
+                }
+            }
+
+            // O filtro não remove: reconstrói só com os ids que continuam revogados,
+            // e também quando passou da capacidade e a taxa de falso positivo subiu
+            if (bloomEnabled && (removed > 0 || revoked.size() > bloomCapacity)) {
+                bloomCapacity = Math.max(bloomExpectedInsertions, revoked.size() * 2);
+                RevocationBloomFilter rebuilt = new RevocationBloomFilter(bloomCapacity, bloomFalsePositiveRate);
+                revoked.keySet().forEach(rebuilt::put);
+                bloomFilter = rebuilt;
+            }
+        }
+
+        if (revocationStore != null) {
+            try {
+                revocationStore.deleteExpired();
+            } catch (Exception e) {
+                logger.warn("Falha ao apagar revogações expiradas: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Puxa as revogações feitas pelas outras instâncias
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.pull-interval-ms:5000}")
+    public void pullRemoteRevocations() {
+        if (revocationStore == null) {
+            return;
+        }
+
+        try {
+            List<RevocationStore.Revocation> revocations =
+                    revocationStore.findRevokedSince(lastPulledRevokedAt - PULL_OVERLAP_MS);
+
+            for (RevocationStore.Revocation revocation : revocations) {
+                addLocal(revocation.getTokenId(), revocation.getExpiresAt());
+                lastPulledRevokedAt = Math.max(lastPulledRevokedAt, revocation.getRevokedAt());
+            }
+        } catch (Exception e) {
+            logger.warn("Falha ao sincronizar revogações de token: {}", e.getMessage());
+        }
+    }
+
+    private void addLocal(String tokenId, long expirationMs) {
+        // O lock da fila também impede que a reconstrução do filtro perca um id recém-revogado
+        synchronized (expiryQueue) {
+            if (revoked.putIfAbsent(tokenId, expirationMs) != null) {
+                return;
+            }
+            expiryQueue.add(new Expiry(tokenId, expirationMs));
+            RevocationBloomFilter filter = bloomFilter;
+            if (filter != null) {
+                filter.put(tokenId);
+            }
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Expiry {
+        private final String tokenId;
+        private final long expiresAt;
     }
 }
@@ -32,4 +32,18 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Carrega o principal a partir do banco (tokens antigos, sem claims de usuário)
+     */
+    public AuthenticatedUser loadAuthenticatedUser(String email) throws UsernameNotFoundException {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("Credenciais inválidas"));
+
+        if (!user.getIsActive()) {
+            throw new UsernameNotFoundException("Credenciais inválidas");
+        }
+
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getName(), user.getRole());
+    }
+}
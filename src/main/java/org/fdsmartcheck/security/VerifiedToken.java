@@ -0,0 +1,40 @@
+package org.fdsmartcheck.security;
+
+import lombok.Value;
+import org.fdsmartcheck.model.enums.Role;
+
+import java.util.Date;
+
+/**
+ * Claims de um JWT cuja assinatura e expiração já foram verificadas (uma única vez por requisição)
+ */
+@Value
+public class VerifiedToken {
+
+    // jti; ausente em tokens emitidos antes da revogação por id
+    String tokenId;
+    String subject;
+    String userId;
+    Role role;
+    String displayName;
+    long accountVersion;
+    Date expiration;
+
+    /**
+     * Tokens emitidos antes da inclusão das claims de usuário não têm id/papel
+     */
+    public boolean hasUserClaims() {
+        return userId != null && role != null;
+    }
+
+    /**
+     * Chave de revogação: o jti ou, em tokens antigos sem jti, o próprio token
+     */
+    public String revocationKey(String rawToken) {
+        return tokenId != null ? tokenId : rawToken;
+    }
+
+    public AuthenticatedUser toAuthenticatedUser() {
+        return hasUserClaims() ? new AuthenticatedUser(userId, subject, displayName, role) : null;
+    }
+}
@@ -0,0 +1,151 @@
+package org.fdsmartcheck.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limite de requisições simultâneas ajustado pela latência observada (AIMD)
+ *
+ * - Resposta dentro da latência alvo com o limite em uso: limite += 1/limite (cerca de +1 por ciclo)
+ * - Resposta acima do alvo ou falha por sobrecarga: limite *= backoff, no máximo uma vez por
+ *   intervalo de latência alvo, para uma rajada de respostas lentas não derrubar o limite a zero
+ *
+ * Acima do limite a requisição espera numa fila curta (max-queue, max-queue-wait); com a fila
+ * cheia ou a espera esgotada o chamador recusa na hora. Lock e Condition em vez de
+ * synchronized/wait para não prender threads virtuais.
+ */
+class AdaptiveConcurrencyLimiter {
+
+    enum Admission {
+        ADMITTED,
+        ADMITTED_AFTER_QUEUE,
+        QUEUE_FULL,
+        QUEUE_TIMEOUT
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final int maxQueue;
+    private final long maxQueueWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long nextDecreaseAt;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyMs,
+                               double backoffRatio, int maxQueue, long maxQueueWaitMs) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.backoffRatio = backoffRatio;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        this.nextDecreaseAt = System.nanoTime();
+    }
+
+    Admission acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return Admission.ADMITTED;
+            }
+            if (queued >= maxQueue) {
+                return Admission.QUEUE_FULL;
+            }
+
+            queued++;
+            try {
+                long remaining = maxQueueWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return Admission.QUEUE_TIMEOUT;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return Admission.ADMITTED_AFTER_QUEUE;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera a vaga e ajusta o limite com a latência (a partir da admissão) da requisição
+     *
+     * @param overloaded falha que indica sobrecarga (timeout do pool, erro 5xx), não erro de regra
+     */
+    void release(long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            boolean limitInUse = inFlight >= (int) limit / 2;
+            inFlight--;
+
+            long now = System.nanoTime();
+            if (overloaded || latencyNanos > targetLatencyNanos) {
+                if (now - nextDecreaseAt >= 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    nextDecreaseAt = now + targetLatencyNanos;
+                }
+            } else if (limitInUse) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+
+            if (inFlight < (int) limit) {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Limite todo em uso ou requisições na fila: há disputa por vagas
+     */
+    boolean isSaturated() {
+        lock.lock();
+        try {
+            return inFlight >= (int) limit || queued > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.fdsmartcheck.service;
+
+import lombok.Value;
+import org.fdsmartcheck.model.enums.CheckType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Check-in ou checkout gravado, publicado no ApplicationEventPublisher e entregue
+ * ao painel ao vivo depois do commit
+ */
+@Value
+public class AttendanceChange {
+    String eventId;
+    String subEventId;
+    CheckType type;
+    String userId;
+    String userName;
+    LocalDateTime time;
+}
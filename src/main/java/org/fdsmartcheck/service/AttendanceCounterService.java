@@ -0,0 +1,138 @@
+package org.fdsmartcheck.service;
+
+import org.fdsmartcheck.repository.AttendanceSummaryRepository;
+import org.fdsmartcheck.repository.AttendanceSummaryRepository.Delta;
+import org.fdsmartcheck.repository.AttendanceSummaryRepository.Drift;
+import org.fdsmartcheck.repository.SubEventRepository;
+import org.fdsmartcheck.repository.SubEventRepository.AttendanceSummaryView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Contadores de presença por subevento, atualizados a cada check-in, checkout, inscrição e
+ * cancelamento, na mesma transação da gravação; relatórios leem O(subeventos) linhas em vez
+ * de agregar todos os checks
+ *
+ * Uma reconciliação periódica recalcula os totais a partir de checks/subscriptions, corrige
+ * e registra qualquer divergência (também é ela que popula a tabela na primeira execução).
+ * Desligados (app.attendance.counters.enabled=false), nada é gravado e os relatórios voltam
+ * a agregar os checks; ao religar, a reconciliação da inicialização recompõe os contadores.
+ */
+@Service
+public class AttendanceCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceCounterService.class);
+
+    private static final int MAX_LOGGED_DRIFTS = 10;
+
+    private final AttendanceSummaryRepository attendanceSummaryRepository;
+    private final SubEventRepository subEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int stripes;
+
+    public AttendanceCounterService(
+            AttendanceSummaryRepository attendanceSummaryRepository,
+            SubEventRepository subEventRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.attendance.counters.enabled:true}") boolean enabled,
+            @Value("${app.attendance.counters.stripes:8}") int stripes
+    ) {
+        this.attendanceSummaryRepository = attendanceSummaryRepository;
+        this.subEventRepository = subEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.stripes = Math.max(1, stripes);
+    }
+
+    public void checkIn(String subEventId) {
+        add(subEventId, new Delta().checkIn());
+    }
+
+    public void checkOut(String subEventId) {
+        add(subEventId, new Delta().checkOut());
+    }
+
+    public void subscriptionsChanged(String subEventId, long count) {
+        if (count != 0) {
+            add(subEventId, Delta.subscriptions(count));
+        }
+    }
+
+    /**
+     * Deltas de vários subeventos (lote offline), gravados em ordem de subevento
+     */
+    public void addAll(Map<String, Delta> deltas) {
+        if (enabled && !deltas.isEmpty()) {
+            attendanceSummaryRepository.addAll(new TreeMap<>(deltas), randomStripe());
+        }
+    }
+
+    /**
+     * Totais dos subeventos do evento, em ordem cronológica: dos contadores ou, desligados,
+     * agregando os checks
+     */
+    public List<? extends AttendanceSummaryView> summarizeByEventId(String eventId) {
+        return enabled
+                ? attendanceSummaryRepository.summarizeByEventId(eventId)
+                : subEventRepository.summarizeAttendanceByEventId(eventId);
+    }
+
+    public Optional<? extends AttendanceSummaryView> summarizeBySubEventId(String subEventId) {
+        return enabled
+                ? attendanceSummaryRepository.summarizeBySubEventId(subEventId)
+                : subEventRepository.summarizeAttendanceBySubEventId(subEventId);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.attendance.counters.reconcile-interval-ms:3600000}",
+            initialDelayString = "${app.attendance.counters.reconcile-initial-delay-ms:0}"
+    )
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Optional<List<Drift>> result = transactionTemplate.execute(status -> attendanceSummaryRepository.reconcile());
+            if (result == null || result.isEmpty()) {
+                logger.debug("Reconciliação dos contadores de presença já em andamento em outra instância");
+                return;
+            }
+
+            List<Drift> drifts = result.get();
+            if (!drifts.isEmpty()) {
+                logger.warn("Contadores de presença divergentes em {} subeventos, corrigidos a partir dos checks: {}",
+                        drifts.size(),
+                        drifts.stream()
+                                .limit(MAX_LOGGED_DRIFTS)
+                                .map(drift -> drift.getSubEventId() + " (" + drift.getCorrection() + ")")
+                                .collect(Collectors.joining("; ")));
+            }
+        } catch (Exception e) {
+            logger.warn("Falha na reconciliação dos contadores de presença: {}", e.getMessage());
+        }
+    }
+
+    private void add(String subEventId, Delta delta) {
+        if (enabled) {
+            attendanceSummaryRepository.add(subEventId, randomStripe(), delta);
+        }
+    }
+
+    private int randomStripe() {
+        return ThreadLocalRandom.current().nextInt(stripes);
+    }
+}
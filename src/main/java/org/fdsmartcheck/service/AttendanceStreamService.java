@@ -0,0 +1,340 @@
+package org.fdsmartcheck.service;
+
+import jakarta.annotation.PreDestroy;
+import org.fdsmartcheck.config.ExecutionMode;
+import org.fdsmartcheck.dto.response.AttendanceChangeResponse;
+import org.fdsmartcheck.dto.response.AttendanceCountsResponse;
+import org.fdsmartcheck.exception.ResourceNotFoundException;
+import org.fdsmartcheck.repository.EventRepository;
+import org.fdsmartcheck.repository.SubEventRepository.AttendanceSummaryView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Painel de presença ao vivo (Server-Sent Events) por evento
+ *
+ * - Check-ins/checkouts chegam como AttendanceChange depois do commit; a entrega é só
+ *   enfileirar nos buffers dos inscritos daquele evento, sem consulta ao banco
+ * - Os totais por subevento são relidos uma vez por evento a cada flush-interval-ms, só quando
+ *   houve mudança (ou a cada counts-refresh-ms, cobrindo gravações de outras instâncias),
+ *   e valem para todos os inscritos do evento
+ * - Cada inscrito tem um buffer limitado: mudanças além de buffer-size descartam as mais antigas
+ *   (o cliente é avisado com um evento "dropped") e os totais pendentes são sobrescritos pelos
+ *   mais recentes. O envio roda num pool próprio, no máximo uma tarefa por inscrito, então um
+ *   cliente lento não atrasa os outros nem a requisição que fez o check-in
+ *
+ * Eventos SSE: snapshot (totais de todos os subeventos, na conexão), checks (mudanças),
+ * counts (totais atualizados de todos os subeventos) e dropped (quantidade de mudanças descartadas).
+ */
+@Service
+public class AttendanceStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceStreamService.class);
+
+    private final AttendanceCounterService attendanceCounterService;
+    private final EventRepository eventRepository;
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final long countsRefreshMs;
+    private final ExecutorService sender;
+
+    private final ConcurrentHashMap<String, EventChannel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public AttendanceStreamService(
+            AttendanceCounterService attendanceCounterService,
+            EventRepository eventRepository,
+            ExecutionMode executionMode,
+            @Value("${app.checkin.stream.buffer-size:256}") int bufferSize,
+            @Value("${app.checkin.stream.max-subscribers:500}") int maxSubscribers,
+            @Value("${app.checkin.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.checkin.stream.counts-refresh-ms:10000}") long countsRefreshMs,
+            @Value("${app.checkin.stream.sender-threads:4}") int senderThreads
+    ) {
+        this.attendanceCounterService = attendanceCounterService;
+        this.eventRepository = eventRepository;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        this.countsRefreshMs = countsRefreshMs;
+
+        this.sender = Executors.newFixedThreadPool(Math.max(1, senderThreads),
+                executionMode.threadFactory("attendance-stream-"));
+    }
+
+    public SseEmitter subscribe(String eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Evento não encontrado");
+        }
+
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Muitos painéis conectados no momento. Tente novamente em instantes.");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(eventId, emitter);
+
+        // Registrado antes de ler os totais: nenhuma mudança confirmada depois da leitura se perde
+        channels.compute(eventId, (key, channel) -> {
+            EventChannel target = channel != null ? channel : new EventChannel();
+            target.subscribers.add(subscriber);
+            return target;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        try {
+            subscriber.snapshot(loadCounts(eventId));
+        } catch (RuntimeException e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onAttendanceChange(AttendanceChange change) {
+        EventChannel channel = channels.get(change.getEventId());
+        if (channel == null) {
+            return;
+        }
+
+        AttendanceChangeResponse response = AttendanceChangeResponse.builder()
+                .subEventId(change.getSubEventId())
+                .userId(change.getUserId())
+                .userName(change.getUserName())
+                .type(change.getType().name())
+                .time(change.getTime())
+                .build();
+
+        channel.changed.set(true);
+        for (Subscriber subscriber : channel.subscribers) {
+            subscriber.offer(response);
+        }
+    }
+
+    /**
+     * Entrega as mudanças acumuladas e, para os eventos alterados, os totais atualizados
+     */
+    @Scheduled(fixedDelayString = "${app.checkin.stream.flush-interval-ms:500}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+
+        channels.forEach((eventId, channel) -> {
+            boolean changed = channel.changed.getAndSet(false);
+            if (changed || now - channel.countsLoadedAt >= countsRefreshMs) {
+                try {
+                    channel.countsLoadedAt = now;
+                    List<AttendanceCountsResponse> counts = loadCounts(eventId);
+                    for (Subscriber subscriber : channel.subscribers) {
+                        subscriber.counts(counts);
+                    }
+                } catch (Exception e) {
+                    logger.warn("Falha ao atualizar os totais do painel do evento {}: {}", eventId, e.getMessage());
+                }
+            }
+
+            for (Subscriber subscriber : channel.subscribers) {
+                schedule(subscriber);
+            }
+        });
+    }
+
+    /**
+     * Comentário SSE periódico: mantém proxies com a conexão aberta e revela clientes que saíram
+     */
+    @Scheduled(fixedDelayString = "${app.checkin.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> {
+            subscriber.heartbeat();
+            schedule(subscriber);
+        }));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private List<AttendanceCountsResponse> loadCounts(String eventId) {
+        List<AttendanceCountsResponse> counts = new ArrayList<>();
+        for (AttendanceSummaryView summary : attendanceCounterService.summarizeByEventId(eventId)) {
+            counts.add(AttendanceCountsResponse.from(summary));
+        }
+        return counts;
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.hasPending() || !subscriber.sending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Pending pending;
+            while ((pending = subscriber.take()) != null) {
+                send(subscriber.emitter, pending);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado: o container também chamará onError/onCompletion
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.sending.set(false);
+        }
+
+        // Algo pode ter chegado entre o último take() e a liberação do flag
+        if (subscriber.active.get()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(SseEmitter emitter, Pending pending) throws IOException {
+        if (pending.snapshot != null) {
+            emitter.send(SseEmitter.event().name("snapshot").data(pending.snapshot));
+        }
+        if (pending.dropped > 0) {
+            emitter.send(SseEmitter.event().name("dropped").data(pending.dropped));
+        }
+        if (!pending.changes.isEmpty()) {
+            emitter.send(SseEmitter.event().name("checks").data(pending.changes));
+        }
+        if (!pending.counts.isEmpty()) {
+            emitter.send(SseEmitter.event().name("counts").data(pending.counts));
+        }
+        if (pending.heartbeat) {
+            emitter.send(SseEmitter.event().comment("ping"));
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.active.compareAndSet(true, false)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        channels.computeIfPresent(subscriber.eventId, (key, channel) -> {
+            channel.subscribers.remove(subscriber);
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+
+    private static final class EventChannel {
+        private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+        private final AtomicBoolean changed = new AtomicBoolean();
+        private volatile long countsLoadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Buffers de um painel conectado; protegidos pelo monitor do próprio inscrito
+     */
+    private final class Subscriber {
+        private final String eventId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean active = new AtomicBoolean(true);
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private List<AttendanceCountsResponse> snapshot;
+        private final ArrayDeque<AttendanceChangeResponse> changes = new ArrayDeque<>();
+        private final Map<String, AttendanceCountsResponse> counts = new LinkedHashMap<>();
+        private long dropped;
+        private boolean heartbeat;
+
+        private Subscriber(String eventId, SseEmitter emitter) {
+            this.eventId = eventId;
+            this.emitter = emitter;
+        }
+
+        synchronized void snapshot(List<AttendanceCountsResponse> snapshot) {
+            this.snapshot = snapshot;
+            counts.clear();
+        }
+
+        synchronized void offer(AttendanceChangeResponse change) {
+            if (changes.size() >= bufferSize) {
+                changes.pollFirst();
+                dropped++;
+            }
+            changes.addLast(change);
+        }
+
+        synchronized void counts(List<AttendanceCountsResponse> latest) {
+            for (AttendanceCountsResponse count : latest) {
+                counts.put(count.getSubEventId(), count);
+            }
+        }
+
+        synchronized void heartbeat() {
+            heartbeat = true;
+        }
+
+        synchronized boolean hasPending() {
+            return active.get() && (snapshot != null || dropped > 0 || !changes.isEmpty() || !counts.isEmpty() || heartbeat);
+        }
+
+        synchronized Pending take() {
+            if (!hasPending()) {
+                return null;
+            }
+            Pending pending = new Pending(snapshot, dropped, new ArrayList<>(changes), new ArrayList<>(counts.values()), heartbeat);
+            snapshot = null;
+            dropped = 0;
+            changes.clear();
+            counts.clear();
+            heartbeat = false;
+            return pending;
+        }
+    }
+
+    private static final class Pending {
+        private final List<AttendanceCountsResponse> snapshot;
+        private final long dropped;
+        private final List<AttendanceChangeResponse> changes;
+        private final List<AttendanceCountsResponse> counts;
+        private final boolean heartbeat;
+
+        private Pending(List<AttendanceCountsResponse> snapshot, long dropped, List<AttendanceChangeResponse> changes,
+                        List<AttendanceCountsResponse> counts, boolean heartbeat) {
+            this.snapshot = snapshot;
+            this.dropped = dropped;
+            this.changes = changes;
+            this.counts = counts;
+            this.heartbeat = heartbeat;
+        }
+    }
+}
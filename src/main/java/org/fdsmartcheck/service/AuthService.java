@@ -13,8 +13,6 @@ import org.fdsmartcheck.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -43,9 +41,8 @@ public class AuthService {
         }
 
         // Autenticar usuário
-        Authentication authentication;
         try {
-            authentication = authenticationManager.authenticate(
+            authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(email, request.getPassword())
             );
         } catch (org.springframework.security.core.AuthenticationException e) {
@@ -70,9 +67,8 @@ public class AuthService {
             throw new BadRequestException("Usuário inativo");
         }
 
-        // Gerar token
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String token = jwtTokenProvider.generateToken(userDetails);
+        // Gerar token (com id, papel e versão da conta nas claims)
+        String token = jwtTokenProvider.generateToken(user);
 
         // Construir resposta
         UserResponse userResponse = UserResponse.builder()
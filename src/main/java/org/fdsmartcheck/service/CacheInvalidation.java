@@ -0,0 +1,55 @@
+package org.fdsmartcheck.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invalidação dos caches locais carregados do banco (QRCodeResolutionCache, UpcomingEventsCache)
+ *
+ * Cada invalidação avança uma geração; o cache lê a geração antes de carregar e só armazena
+ * o resultado se ela não mudou, porque a carga pode ter lido o estado anterior à alteração.
+ * Dentro de uma transação a invalidação roda na hora e de novo após o commit: até lá, uma
+ * leitura concorrente ainda pode recarregar o estado antigo.
+ */
+final class CacheInvalidation {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Geração atual, a ler antes de iniciar uma carga
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Se nenhuma invalidação ocorreu desde que a carga leu a geração
+     */
+    boolean isCurrent(long loadGeneration) {
+        return generation.get() == loadGeneration;
+    }
+
+    /**
+     * Remove as entradas com clear agora e, havendo transação, novamente após o commit
+     */
+    void invalidate(Runnable clear) {
+        run(clear);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    run(clear);
+                }
+            });
+        }
+    }
+
+    // A geração avança antes da remoção: uma carga antiga que termine entre as duas já não é armazenada
+    private void run(Runnable clear) {
+        generation.incrementAndGet();
+        clear.run();
+    }
+}
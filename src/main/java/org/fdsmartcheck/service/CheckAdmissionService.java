@@ -0,0 +1,287 @@
+package org.fdsmartcheck.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.fdsmartcheck.exception.AdmissionRejectedException;
+import org.fdsmartcheck.exception.BadRequestException;
+import org.fdsmartcheck.exception.ResourceNotFoundException;
+import org.fdsmartcheck.exception.UnauthorizedException;
+import org.fdsmartcheck.service.AdaptiveConcurrencyLimiter.Admission;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Controle de admissão do POST /api/checkin e do POST /api/checkin/batch, antes de qualquer
+ * acesso ao banco
+ *
+ * 1. Taxa por subevento (só no check-in individual): um token bucket por subevento, resolvido
+ *    pelo cache de QR Codes, para que a rajada de um auditório lotado não ocupe a capacidade
+ *    dos demais. O bucket acompanha a taxa de cada subevento o tempo todo, mas só recusa
+ *    (429 com Retry-After até o próximo token) quando o limite de concorrência está saturado:
+ *    com o servidor folgado, nenhum subevento é limitado. QR Codes fora do cache (desconhecidos
+ *    ou ainda não lidos) passam só pelo limite de concorrência, sem criar bucket
+ * 2. Concorrência: AdaptiveConcurrencyLimiter, com limite ajustado pela latência observada e
+ *    fila curta; saturado, 503 com Retry-After em vez de deixar a requisição esperar o pool de
+ *    conexões até o timeout (e o cliente repetir por cima). O lote ocupa uma vaga e entra na
+ *    latência observada pelo tempo médio por item
+ *
+ * Métricas: fdsmartcheck.admission.requests{outcome}, fdsmartcheck.admission.queue.wait e os
+ * gauges fdsmartcheck.admission.limit, .in-flight e .queued.
+ */
+@Service
+public class CheckAdmissionService {
+
+    private final boolean enabled;
+    private final QRCodeResolutionCache resolutionCache;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long retryAfterSeconds;
+
+    private final double subEventRatePerSecond;
+    private final double subEventBurst;
+    private final int maxBuckets;
+    private final long bucketIdleNanos;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final Counter admitted;
+    private final Counter admittedAfterQueue;
+    private final Counter shedQueueFull;
+    private final Counter shedQueueTimeout;
+    private final Counter throttled;
+    private final Timer queueWait;
+
+    public CheckAdmissionService(
+            MeterRegistry registry,
+            QRCodeResolutionCache resolutionCache,
+            @Value("${app.checkin.admission.enabled:true}") boolean enabled,
+            @Value("${app.checkin.admission.initial-limit:20}") int initialLimit,
+            @Value("${app.checkin.admission.min-limit:4}") int minLimit,
+            @Value("${app.checkin.admission.max-limit:200}") int maxLimit,
+            @Value("${app.checkin.admission.target-latency-ms:500}") long targetLatencyMs,
+            @Value("${app.checkin.admission.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${app.checkin.admission.max-queue:200}") int maxQueue,
+            @Value("${app.checkin.admission.max-queue-wait-ms:2000}") long maxQueueWaitMs,
+            @Value("${app.checkin.admission.retry-after-seconds:2}") long retryAfterSeconds,
+            @Value("${app.checkin.admission.sub-event.rate-per-second:50}") double subEventRatePerSecond,
+            @Value("${app.checkin.admission.sub-event.burst:150}") double subEventBurst,
+            @Value("${app.checkin.admission.sub-event.max-buckets:10000}") int maxBuckets,
+            @Value("${app.checkin.admission.sub-event.idle-ms:300000}") long bucketIdleMs
+    ) {
+        this.enabled = enabled;
+        this.resolutionCache = resolutionCache;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, targetLatencyMs,
+                backoffRatio, maxQueue, maxQueueWaitMs);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        this.subEventRatePerSecond = subEventRatePerSecond;
+        this.subEventBurst = Math.max(1, subEventBurst);
+        this.maxBuckets = maxBuckets;
+        this.bucketIdleNanos = TimeUnit.MILLISECONDS.toNanos(bucketIdleMs);
+
+        this.admitted = outcome(registry, "admitted");
+        this.admittedAfterQueue = outcome(registry, "admitted_after_queue");
+        this.shedQueueFull = outcome(registry, "shed_queue_full");
+        this.shedQueueTimeout = outcome(registry, "shed_queue_timeout");
+        this.throttled = outcome(registry, "throttled_sub_event");
+        this.queueWait = Timer.builder("fdsmartcheck.admission.queue.wait")
+                .description("Espera na fila do limite de concorrência do check-in")
+                .register(registry);
+
+        Gauge.builder("fdsmartcheck.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Limite atual de check-ins simultâneos")
+                .register(registry);
+        Gauge.builder("fdsmartcheck.admission.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Check-ins em andamento")
+                .register(registry);
+        Gauge.builder("fdsmartcheck.admission.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .description("Check-ins esperando vaga")
+                .register(registry);
+    }
+
+    /**
+     * Executa o check-in se a requisição for admitida; senão lança AdmissionRejectedException (429/503)
+     */
+    public <T> T admit(String qrCode, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+
+        throttle(qrCode);
+        return limit(1, action);
+    }
+
+    /**
+     * Executa o lote se houver vaga no limite de concorrência; senão lança AdmissionRejectedException (503)
+     * Sem taxa por subevento: os itens de um lote podem ser de subeventos diferentes
+     */
+    public <T> T admitBatch(int items, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+
+        return limit(Math.max(1, items), action);
+    }
+
+    private <T> T limit(int items, Supplier<T> action) {
+        long queuedAt = System.nanoTime();
+        Admission admission;
+        try {
+            admission = limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw saturated();
+        }
+
+        switch (admission) {
+            case ADMITTED -> admitted.increment();
+            case ADMITTED_AFTER_QUEUE -> {
+                admittedAfterQueue.increment();
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            }
+            case QUEUE_FULL -> {
+                shedQueueFull.increment();
+                throw saturated();
+            }
+            case QUEUE_TIMEOUT -> {
+                shedQueueTimeout.increment();
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                throw saturated();
+            }
+        }
+
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            overloaded = !isClientError(e);
+            throw e;
+        } finally {
+            // Lote: latência por item, para não parecer sobrecarga só por ser grande
+            limiter.release((System.nanoTime() - start) / items, overloaded);
+        }
+    }
+
+    /**
+     * Descarta os buckets de subeventos sem uso
+     */
+    @Scheduled(fixedDelayString = "${app.checkin.admission.sub-event.cleanup-interval-ms:60000}")
+    public void purgeIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, bucketIdleNanos));
+    }
+
+    private void throttle(String qrCode) {
+        if (subEventRatePerSecond <= 0 || qrCode == null) {
+            return;
+        }
+
+        // Só o que já está em cache: resolver aqui iria ao banco antes da admissão
+        ResolvedQRCode resolved = resolutionCache.peek(qrCode);
+        if (resolved == null) {
+            return;
+        }
+        String subEventId = resolved.getSubEventId();
+
+        TokenBucket bucket = buckets.get(subEventId);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                return;
+            }
+            bucket = buckets.computeIfAbsent(subEventId, key -> new TokenBucket(subEventRatePerSecond, subEventBurst));
+        }
+
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos > 0 && limiter.isSaturated()) {
+            throttled.increment();
+            throw new AdmissionRejectedException(
+                    HttpStatus.TOO_MANY_REQUESTS,
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)),
+                    "Muitos check-ins neste subevento agora. Tente novamente em instantes."
+            );
+        }
+    }
+
+    private AdmissionRejectedException saturated() {
+        return new AdmissionRejectedException(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                retryAfterSeconds,
+                "Servidor ocupado. Tente novamente em instantes."
+        );
+    }
+
+    /**
+     * Erros de regra (inscrição, duplicidade, assinatura...) não indicam sobrecarga;
+     * timeouts do pool, 5xx e demais exceções indicam
+     */
+    private static boolean isClientError(RuntimeException e) {
+        if (e instanceof ResponseStatusException statusException) {
+            return statusException.getStatusCode().is4xxClientError();
+        }
+        return e instanceof BadRequestException
+                || e instanceof ResourceNotFoundException
+                || e instanceof UnauthorizedException;
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("fdsmartcheck.admission.requests")
+                .description("Check-ins admitidos, enfileirados e recusados pelo controle de admissão")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Token bucket: até burst requisições de uma vez, repostas a ratePerSecond
+     */
+    private static final class TokenBucket {
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+        private long lastUsedAt;
+
+        private TokenBucket(double ratePerSecond, double capacity) {
+            this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+            this.lastUsedAt = refilledAt;
+        }
+
+        /**
+         * @return 0 se consumiu um token, ou quanto falta (ns) para o próximo
+         */
+        private synchronized long tryAcquire(long now) {
+            lastUsedAt = now;
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        /**
+         * Sem uso há idleNanos: já está cheio de novo e pode ser recriado sem diferença
+         */
+        private synchronized boolean isIdle(long now, long idleNanos) {
+            return now - lastUsedAt >= idleNanos;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - refilledAt;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+                refilledAt = now;
+            }
+        }
+    }
+}
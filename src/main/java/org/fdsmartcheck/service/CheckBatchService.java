@@ -0,0 +1,378 @@
+package org.fdsmartcheck.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.fdsmartcheck.dto.request.CheckBatchRequest;
+import org.fdsmartcheck.dto.request.CheckRequest;
+import org.fdsmartcheck.dto.response.CheckBatchResponse;
+import org.fdsmartcheck.dto.response.CheckResponse;
+import org.fdsmartcheck.exception.BadRequestException;
+import org.fdsmartcheck.metrics.CheckMetrics;
+import org.fdsmartcheck.metrics.CheckMetrics.Rejection;
+import org.fdsmartcheck.model.Check;
+import org.fdsmartcheck.model.enums.CheckType;
+import org.fdsmartcheck.repository.AttendanceSummaryRepository.Delta;
+import org.fdsmartcheck.repository.CheckBatchWriter;
+import org.fdsmartcheck.repository.CheckBatchWriter.CheckRow;
+import org.fdsmartcheck.repository.CheckRepository;
+import org.fdsmartcheck.repository.SubscriptionRepository;
+import org.fdsmartcheck.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Sincronização em lote de check-ins/checkouts capturados offline
+ *
+ * Cada item passa pelas mesmas validações e mensagens de POST /api/checkin, com uma diferença:
+ * o horário que vale é o da captura (timestamp do geoPayload), e ele precisa cair dentro da
+ * janela de check-in/checkout do subevento em vez de estar a poucos segundos do servidor.
+ * Pelo mesmo motivo o QR Code não precisa estar ativo nem o subevento em andamento na
+ * sincronização: basta o QR Code ter estado ativo no momento da captura (o lote pode chegar
+ * depois da sessão ou de uma rotação do QR Code).
+ *
+ * Inscrições e checks existentes são carregados com uma consulta cada; as decisões são tomadas
+ * em memória (considerando os itens anteriores do próprio lote) e a gravação é feita com JDBC
+ * batch numa única transação. As validações rodam antes dela: como em POST /api/checkin, o nonce
+ * de cada item fica consumido mesmo que o item seja recusado.
+ */
+@Service
+@RequiredArgsConstructor
+public class CheckBatchService {
+
+    private final CheckService checkService;
+    private final GeoSecurityService geoSecurityService;
+    private final SubscriptionRepository subscriptionRepository;
+    private final CheckRepository checkRepository;
+    private final CheckBatchWriter checkBatchWriter;
+    private final Validator validator;
+    private final AttendanceCounterService attendanceCounterService;
+    private final CheckMetrics checkMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.checkin.batch.max-size:100}")
+    private int maxBatchSize;
+
+    public CheckBatchResponse performBatch(CheckBatchRequest request) {
+        List<CheckRequest> items = request.getItems();
+
+        if (items.size() > maxBatchSize) {
+            throw new BadRequestException("O lote excede o limite de " + maxBatchSize + " itens");
+        }
+
+        AuthenticatedUser user = checkService.getCurrentUser();
+        CheckBatchResponse.ItemResult[] results = new CheckBatchResponse.ItemResult[items.size()];
+
+        // 1. Validação do corpo e resolução dos QR Codes
+        ResolvedQRCode[] resolved = new ResolvedQRCode[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            CheckRequest item = items.get(i);
+            try {
+                validateItem(item);
+                resolved[i] = checkService.resolveQRCodeForCapture(item.getQrCode());
+            } catch (ResponseStatusException e) {
+                results[i] = failure(i, item, e);
+            }
+        }
+
+        // 2. Estado atual do usuário nos subeventos do lote (uma consulta cada)
+        Map<String, ResolvedQRCode> subEvents = new HashMap<>();
+        for (ResolvedQRCode subEvent : resolved) {
+            if (subEvent != null) {
+                subEvents.put(subEvent.getSubEventId(), subEvent);
+            }
+        }
+        Set<String> subEventIds = subEvents.keySet();
+
+        Set<String> subscribed = subEventIds.isEmpty()
+                ? Set.of()
+                : subscriptionRepository.findSubscribedSubEventIds(user.getId(), subEventIds);
+
+        Map<String, StagedCheck> checks = new HashMap<>();
+        if (!subEventIds.isEmpty()) {
+            for (CheckRepository.CheckStateView state : checkRepository.findStatesByUserIdAndSubEventIds(user.getId(), subEventIds)) {
+                checks.put(state.getSubEventId(), StagedCheck.existing(state));
+            }
+        }
+
+        // 3. Validação geográfica e regras de check-in/checkout, item a item
+        for (int i = 0; i < items.size(); i++) {
+            if (resolved[i] == null) {
+                continue;
+            }
+            CheckRequest item = items.get(i);
+            try {
+                results[i] = stage(i, item, resolved[i], user, subscribed, checks);
+            } catch (ResponseStatusException e) {
+                results[i] = failure(i, item, e);
+            }
+        }
+
+        // 4. Gravação em lote
+        transactionTemplate.executeWithoutResult(status -> write(items, results, checks.values(), subEvents, user));
+
+        int accepted = 0;
+        for (CheckBatchResponse.ItemResult result : results) {
+            if (result.isSuccess()) {
+                accepted++;
+            }
+        }
+
+        return CheckBatchResponse.builder()
+                .accepted(accepted)
+                .rejected(results.length - accepted)
+                .results(List.of(results))
+                .build();
+    }
+
+    private CheckBatchResponse.ItemResult stage(
+            int index,
+            CheckRequest item,
+            ResolvedQRCode subEvent,
+            AuthenticatedUser user,
+            Set<String> subscribed,
+            Map<String, StagedCheck> checks
+    ) {
+        LocalDateTime capturedAt = geoSecurityService.validateOfflineGeoPayload(
+                item,
+                subEvent.getLatitude(),
+                subEvent.getLongitude(),
+                subEvent.getRadius()
+        );
+
+        checkService.validateQRCodeActiveAt(subEvent, capturedAt);
+
+        if (CheckType.CHECKIN.equals(item.getType())) {
+            if (!subscribed.contains(subEvent.getSubEventId())) {
+                checkMetrics.reject(Rejection.NOT_SUBSCRIBED);
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Você não está inscrito neste subevento");
+            }
+
+            if (checks.containsKey(subEvent.getSubEventId())) {
+                checkMetrics.reject(Rejection.DUPLICATE);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Você já realizou check-in neste sub-evento");
+            }
+
+            checkService.validateCheckinWindow(subEvent, capturedAt);
+
+            StagedCheck staged = StagedCheck.created(subEvent.getSubEventId(), index, capturedAt, item);
+            checks.put(subEvent.getSubEventId(), staged);
+            return success(index, item, checkService.toResponse(staged.toCheck(), subEvent, user));
+        }
+
+        if (CheckType.CHECKOUT.equals(item.getType())) {
+            StagedCheck staged = checks.get(subEvent.getSubEventId());
+            if (staged == null) {
+                checkMetrics.reject(Rejection.NO_CHECKIN);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Você precisa fazer check-in antes de fazer checkout");
+            }
+
+            if (staged.checkoutTime != null) {
+                checkMetrics.reject(Rejection.DUPLICATE);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Você já realizou checkout neste sub-evento");
+            }
+
+            checkService.validateCheckoutWindow(subEvent, capturedAt);
+
+            staged.checkout(index, capturedAt, item);
+            return success(index, item, checkService.toResponse(staged.toCheck(), subEvent, user));
+        }
+
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tipo inválido. Use CHECKIN ou CHECKOUT");
+    }
+
+    /**
+     * Insere os checks novos e atualiza os checkouts dos existentes; itens cuja linha não foi
+     * gravada (check concorrente feito por outra requisição) viram falha
+     */
+    private void write(
+            List<CheckRequest> items,
+            CheckBatchResponse.ItemResult[] results,
+            Iterable<StagedCheck> checks,
+            Map<String, ResolvedQRCode> subEvents,
+            AuthenticatedUser user
+    ) {
+        List<StagedCheck> inserts = new ArrayList<>();
+        List<StagedCheck> checkouts = new ArrayList<>();
+
+        for (StagedCheck check : checks) {
+            if (check.isNew) {
+                inserts.add(check);
+            } else if (check.checkoutIndex >= 0) {
+                checkouts.add(check);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Delta> deltas = new HashMap<>();
+
+        boolean[] inserted = checkBatchWriter.insertAll(
+                inserts.stream().map(check -> check.toRow(user.getId())).collect(Collectors.toList()),
+                now
+        );
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i]) {
+                StagedCheck check = inserts.get(i);
+                ResolvedQRCode subEvent = subEvents.get(check.subEventId);
+                Delta delta = deltas.computeIfAbsent(check.subEventId, k -> new Delta());
+                checkService.publishChange(subEvent, user, CheckType.CHECKIN, check.checkinTime);
+                if (check.checkoutTime != null) {
+                    delta.checkInAndOut();
+                    checkService.publishChange(subEvent, user, CheckType.CHECKOUT, check.checkoutTime);
+                } else {
+                    delta.checkIn();
+                }
+            } else {
+                StagedCheck check = inserts.get(i);
+                checkMetrics.reject(Rejection.DUPLICATE);
+                results[check.checkinIndex] = failure(check.checkinIndex, items.get(check.checkinIndex),
+                        HttpStatus.BAD_REQUEST, "Você já realizou check-in neste sub-evento");
+                if (check.checkoutIndex >= 0) {
+                    results[check.checkoutIndex] = failure(check.checkoutIndex, items.get(check.checkoutIndex),
+                            HttpStatus.BAD_REQUEST, "Você já realizou check-in neste sub-evento");
+                }
+            }
+        }
+
+        boolean[] checkedOut = checkBatchWriter.checkoutAll(
+                checkouts.stream().map(check -> check.toRow(user.getId())).collect(Collectors.toList()),
+                now
+        );
+        for (int i = 0; i < checkedOut.length; i++) {
+            if (checkedOut[i]) {
+                StagedCheck check = checkouts.get(i);
+                deltas.computeIfAbsent(check.subEventId, k -> new Delta()).checkOut();
+                checkService.publishChange(subEvents.get(check.subEventId), user, CheckType.CHECKOUT, check.checkoutTime);
+            } else {
+                StagedCheck check = checkouts.get(i);
+                checkMetrics.reject(Rejection.DUPLICATE);
+                results[check.checkoutIndex] = failure(check.checkoutIndex, items.get(check.checkoutIndex),
+                        HttpStatus.BAD_REQUEST, "Você já realizou checkout neste sub-evento");
+            }
+        }
+
+        attendanceCounterService.addAll(deltas);
+    }
+
+    /**
+     * Os itens do lote não passam pelo @Valid do controller: cada um é validado aqui
+     * para que um item malformado não derrube o lote inteiro
+     */
+    private void validateItem(CheckRequest item) {
+        if (item == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Item do lote vazio");
+        }
+
+        Set<ConstraintViolation<CheckRequest>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+        }
+    }
+
+    private CheckBatchResponse.ItemResult success(int index, CheckRequest item, CheckResponse check) {
+        return CheckBatchResponse.ItemResult.builder()
+                .index(index)
+                .requestId(item.getRequestId())
+                .success(true)
+                .status(HttpStatus.OK.value())
+                .message(check.getMessage())
+                .check(check)
+                .build();
+    }
+
+    private CheckBatchResponse.ItemResult failure(int index, CheckRequest item, ResponseStatusException e) {
+        return failure(index, item, HttpStatus.valueOf(e.getStatusCode().value()), e.getReason());
+    }
+
+    private CheckBatchResponse.ItemResult failure(int index, CheckRequest item, HttpStatus status, String message) {
+        return CheckBatchResponse.ItemResult.builder()
+                .index(index)
+                .requestId(item != null ? item.getRequestId() : null)
+                .success(false)
+                .status(status.value())
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Estado de um check (existente ou criado no lote) durante o processamento
+     */
+    private static final class StagedCheck {
+        private final String id;
+        private final String subEventId;
+        private final boolean isNew;
+        private final int checkinIndex;
+        private final LocalDateTime checkinTime;
+        private final Double checkinLatitude;
+        private final Double checkinLongitude;
+
+        private int checkoutIndex = -1;
+        private LocalDateTime checkoutTime;
+        private Double checkoutLatitude;
+        private Double checkoutLongitude;
+
+        private StagedCheck(String id, String subEventId, boolean isNew, int checkinIndex,
+                            LocalDateTime checkinTime, Double checkinLatitude, Double checkinLongitude) {
+            this.id = id;
+            this.subEventId = subEventId;
+            this.isNew = isNew;
+            this.checkinIndex = checkinIndex;
+            this.checkinTime = checkinTime;
+            this.checkinLatitude = checkinLatitude;
+            this.checkinLongitude = checkinLongitude;
+        }
+
+        static StagedCheck existing(CheckRepository.CheckStateView state) {
+            StagedCheck check = new StagedCheck(state.getId(), state.getSubEventId(), false, -1,
+                    state.getCheckinTime(), null, null);
+            check.checkoutTime = state.getCheckoutTime();
+            return check;
+        }
+
+        static StagedCheck created(String subEventId, int index, LocalDateTime capturedAt, CheckRequest item) {
+            return new StagedCheck(UUID.randomUUID().toString(), subEventId, true, index, capturedAt,
+                    item.getGeoPayload().getLatitude(), item.getGeoPayload().getLongitude());
+        }
+
+        void checkout(int index, LocalDateTime capturedAt, CheckRequest item) {
+            this.checkoutIndex = index;
+            this.checkoutTime = capturedAt;
+            this.checkoutLatitude = item.getGeoPayload().getLatitude();
+            this.checkoutLongitude = item.getGeoPayload().getLongitude();
+        }
+
+        Check toCheck() {
+            return Check.builder()
+                    .id(id)
+                    .checkinTime(checkinTime)
+                    .checkoutTime(checkoutTime)
+                    .checkinLatitude(checkinLatitude)
+                    .checkinLongitude(checkinLongitude)
+                    .checkoutLatitude(checkoutLatitude)
+                    .checkoutLongitude(checkoutLongitude)
+                    .isPresent(true)
+                    .build();
+        }
+
+        CheckRow toRow(String userId) {
+            return new CheckRow(id, subEventId, userId, checkinTime, checkinLatitude, checkinLongitude,
+                    checkoutTime, checkoutLatitude, checkoutLongitude);
+        }
+    }
+}
@@ -1,27 +1,42 @@
 package org.fdsmartcheck.service;
 
 import lombok.RequiredArgsConstructor;
+import org.fdsmartcheck.dto.request.CheckHistoryFilter;
 import org.fdsmartcheck.dto.request.CheckRequest;
 import org.fdsmartcheck.model.enums.CheckType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.fdsmartcheck.dto.response.CheckInfoResponse;
 import org.fdsmartcheck.dto.response.CheckResponse;
+import org.fdsmartcheck.dto.response.CursorPage;
+import org.fdsmartcheck.exception.BadRequestException;
+import org.fdsmartcheck.metrics.CheckMetrics;
+import org.fdsmartcheck.metrics.CheckMetrics.Rejection;
+import org.fdsmartcheck.metrics.CheckMetrics.Stage;
 import org.fdsmartcheck.model.Check;
-import org.fdsmartcheck.model.Event;
-import org.fdsmartcheck.model.SubEvent;
-import org.fdsmartcheck.model.User;
+import org.fdsmartcheck.repository.CheckHistoryRepository;
+import org.fdsmartcheck.repository.CheckHistoryRow;
 import org.fdsmartcheck.repository.CheckRepository;
+import org.fdsmartcheck.repository.SubEventRepository;
 import org.fdsmartcheck.repository.SubscriptionRepository;
 import org.fdsmartcheck.repository.UserRepository;
+import org.fdsmartcheck.security.AuthenticatedUser;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,73 +44,124 @@ import java.util.stream.Collectors;
 public class CheckService {
 
     private final CheckRepository checkRepository;
+    private final CheckHistoryRepository checkHistoryRepository;
     private final SubscriptionRepository subscriptionRepository;
+    private final SubEventRepository subEventRepository;
     private final UserRepository userRepository;
     private final QRCodeService qrCodeService;
     private final GeoSecurityService geoSecurityService;
-
-    @Transactional
+    private final AttendanceCounterService attendanceCounterService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CheckMetrics checkMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    // Resultados de CheckRepository.insertCheckInIfAllowed
+    private static final int CHECKIN_NOT_SUBSCRIBED = 0;
+    private static final int CHECKIN_ALREADY_EXISTS = 1;
+    private static final int CHECKIN_INSERTED = 2;
+    private static final int CHECKIN_WINDOW_CLOSED = 3;
+
+    // Quando ativo, inscrição, duplicidade e inserção do check-in viram um único comando SQL
+    @Value("${app.checkin.single-query:false}")
+    private boolean singleQueryCheckIn;
+
+    @Value("${app.checkin.history.default-page-size:50}")
+    private int historyDefaultPageSize;
+
+    @Value("${app.checkin.history.max-page-size:200}")
+    private int historyMaxPageSize;
+
+    /**
+     * Valida o payload fora da transação e grava o check numa transação própria
+     *
+     * O nonce (requestId) é registrado antes da gravação e fica consumido mesmo que o check seja
+     * recusado depois (fora do raio, sem inscrição, fora da janela), com qualquer NonceStore: no
+     * Postgres ele é gravado em autocommit, sem depender do commit do check.
+     */
     public CheckResponse performCheck(CheckRequest request) {
-        User currentUser = getCurrentUser();
-        SubEvent subEvent = qrCodeService.validateAndGetSubEvent(request.getQrCode());
-
-        Double targetLat = subEvent.getLatitude();
-        Double targetLon = subEvent.getLongitude();
-        Double targetRadius = subEvent.getRadius();
-
-        if (targetLat == null || targetLon == null) {
-            Event parentEvent = subEvent.getEvent();
-            if (parentEvent != null) {
-                targetLat = parentEvent.getLatitude();
-                targetLon = parentEvent.getLongitude();
-                targetRadius = parentEvent.getRadius();
-            }
-        }
+        AuthenticatedUser currentUser = getCurrentUser();
+        // Localização já vem resolvida (SubEvent ou Event pai) no snapshot do QR Code
+        ResolvedQRCode subEvent = resolveQRCode(request.getQrCode());
 
         geoSecurityService.validateGeoPayload(
                 request,
-                targetLat,
-                targetLon,
-                targetRadius
+                subEvent.getLatitude(),
+                subEvent.getLongitude(),
+                subEvent.getRadius()
         );
 
         if (CheckType.CHECKIN.equals(request.getType())) {
-            return performCheckIn(subEvent, currentUser, request);
+            return checkMetrics.time(Stage.CHECKIN_WRITE,
+                    () -> transactionTemplate.execute(status -> performCheckIn(subEvent, currentUser, request)));
         } else if (CheckType.CHECKOUT.equals(request.getType())) {
-            return performCheckOut(subEvent, currentUser, request);
+            return checkMetrics.time(Stage.CHECKOUT_WRITE,
+                    () -> transactionTemplate.execute(status -> performCheckOut(subEvent, currentUser, request)));
         } else {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tipo inválido. Use CHECKIN ou CHECKOUT");
         }
     }
 
+    /**
+     * Resolve o QR Code lido, medindo a consulta e contando os códigos recusados
+     */
+    ResolvedQRCode resolveQRCode(String qrCode) {
+        try {
+            return checkMetrics.time(Stage.QR_LOOKUP, () -> qrCodeService.validateAndResolve(qrCode));
+        } catch (ResponseStatusException e) {
+            checkMetrics.reject(Rejection.INVALID_QR);
+            throw e;
+        }
+    }
+
+    /**
+     * Resolve o QR Code de uma leitura offline (sem as validações de horário atual), medindo a
+     * consulta e contando os códigos recusados
+     */
+    ResolvedQRCode resolveQRCodeForCapture(String qrCode) {
+        try {
+            return checkMetrics.time(Stage.QR_LOOKUP, () -> qrCodeService.resolveForCapture(qrCode));
+        } catch (ResponseStatusException e) {
+            checkMetrics.reject(Rejection.INVALID_QR);
+            throw e;
+        }
+    }
+
+    /**
+     * Valida se o QR Code de uma leitura offline estava ativo no horário da captura
+     */
+    void validateQRCodeActiveAt(ResolvedQRCode subEvent, LocalDateTime capturedAt) {
+        try {
+            qrCodeService.validateActiveAt(subEvent, capturedAt);
+        } catch (ResponseStatusException e) {
+            checkMetrics.reject(Rejection.INVALID_QR);
+            throw e;
+        }
+    }
+
     @Transactional
-    protected CheckResponse performCheckIn(SubEvent subEvent, User user, CheckRequest request) {
+    protected CheckResponse performCheckIn(ResolvedQRCode subEvent, AuthenticatedUser user, CheckRequest request) {
+        if (singleQueryCheckIn) {
+            return performSingleQueryCheckIn(subEvent, user, request);
+        }
+
         // Verificar inscrição
-        if (!subscriptionRepository.existsBySubEventIdAndUserId(subEvent.getId(), user.getId())) {
+        if (!subscriptionRepository.existsBySubEventIdAndUserId(subEvent.getSubEventId(), user.getId())) {
+            checkMetrics.reject(Rejection.NOT_SUBSCRIBED);
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Você não está inscrito neste subevento");
         }
 
         // Verificar se já existe check-in
-        if (checkRepository.existsBySubEventIdAndUserId(subEvent.getId(), user.getId())) {
+        if (checkRepository.existsBySubEventIdAndUserId(subEvent.getSubEventId(), user.getId())) {
+            checkMetrics.reject(Rejection.DUPLICATE);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Você já realizou check-in neste sub-evento");
         }
 
-        LocalDateTime now = LocalDateTime.now();
-
-        if (now.isBefore(subEvent.getCheckinStart())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Check-in ainda não está disponível. Disponível a partir de " + subEvent.getCheckinStart());
-        }
-
-        if (now.isAfter(subEvent.getCheckinEnd())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Período de check-in encerrado. Encerrou em " + subEvent.getCheckinEnd());
-        }
+        validateCheckinWindow(subEvent, LocalDateTime.now());
 
         // Criar registro (usando coordenadas do geoPayload)
         Check check = Check.builder()
-                .subEvent(subEvent)
-                .user(user)
+                .subEvent(subEventRepository.getReferenceById(subEvent.getSubEventId()))
+                .user(userRepository.getReferenceById(user.getId()))
                 .checkinTime(LocalDateTime.now())
                 .checkinLatitude(request.getGeoPayload().getLatitude())
                 .checkinLongitude(request.getGeoPayload().getLongitude())
@@ -104,80 +170,192 @@ public class CheckService {
 
         try {
             Check savedCheck = checkRepository.save(check);
-            return toResponse(savedCheck);
+            attendanceCounterService.checkIn(subEvent.getSubEventId());
+            publishChange(subEvent, user, CheckType.CHECKIN, savedCheck.getCheckinTime());
+            return toResponse(savedCheck, subEvent, user);
         } catch (DataIntegrityViolationException e) {
+            checkMetrics.reject(Rejection.DUPLICATE);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Você já realizou check-in neste sub-evento");
         }
     }
 
-    @Transactional
-    protected CheckResponse performCheckOut(SubEvent subEvent, User user, CheckRequest request) {
-        Check check = checkRepository.findBySubEventIdAndUserId(subEvent.getId(), user.getId())
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "Você precisa fazer check-in antes de fazer checkout"
-                ));
+    /**
+     * Check-in em um único round-trip: o INSERT condicional devolve qual regra barrou a inserção,
+     * mantendo a mesma precedência e as mesmas mensagens do fluxo tradicional
+     */
+    private CheckResponse performSingleQueryCheckIn(ResolvedQRCode subEvent, AuthenticatedUser user, CheckRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean windowOpen = !now.isBefore(subEvent.getCheckinStart()) && !now.isAfter(subEvent.getCheckinEnd());
+        String checkId = UUID.randomUUID().toString();
+
+        int outcome = checkRepository.insertCheckInIfAllowed(
+                checkId,
+                subEvent.getSubEventId(),
+                user.getId(),
+                now,
+                request.getGeoPayload().getLatitude(),
+                request.getGeoPayload().getLongitude(),
+                windowOpen
+        );
 
-        if (check.getCheckoutTime() != null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Você já realizou checkout neste sub-evento");
+        switch (outcome) {
+            case CHECKIN_INSERTED -> {
+                attendanceCounterService.checkIn(subEvent.getSubEventId());
+                publishChange(subEvent, user, CheckType.CHECKIN, now);
+                Check check = Check.builder()
+                        .id(checkId)
+                        .checkinTime(now)
+                        .checkinLatitude(request.getGeoPayload().getLatitude())
+                        .checkinLongitude(request.getGeoPayload().getLongitude())
+                        .isPresent(true)
+                        .build();
+                return toResponse(check, subEvent, user);
+            }
+            case CHECKIN_NOT_SUBSCRIBED -> {
+                checkMetrics.reject(Rejection.NOT_SUBSCRIBED);
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Você não está inscrito neste subevento");
+            }
+            case CHECKIN_WINDOW_CLOSED -> {
+                // windowOpen veio do mesmo now: a validação sempre recusa aqui, com a métrica e a mensagem originais
+                validateCheckinWindow(subEvent, now);
+                throw new IllegalStateException("Janela de check-in fechada sem recusa da validação");
+            }
+            case CHECKIN_ALREADY_EXISTS -> {
+                checkMetrics.reject(Rejection.DUPLICATE);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Você já realizou check-in neste sub-evento");
+            }
+            default -> throw new IllegalStateException("Resultado de check-in inesperado: " + outcome);
         }
+    }
 
-        LocalDateTime now = LocalDateTime.now();
+    void validateCheckinWindow(ResolvedQRCode subEvent, LocalDateTime now) {
+        if (now.isBefore(subEvent.getCheckinStart())) {
+            checkMetrics.reject(Rejection.OUTSIDE_WINDOW);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Check-in ainda não está disponível. Disponível a partir de " + subEvent.getCheckinStart());
+        }
 
+        if (now.isAfter(subEvent.getCheckinEnd())) {
+            checkMetrics.reject(Rejection.OUTSIDE_WINDOW);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Período de check-in encerrado. Encerrou em " + subEvent.getCheckinEnd());
+        }
+    }
+
+    void validateCheckoutWindow(ResolvedQRCode subEvent, LocalDateTime now) {
         if (now.isBefore(subEvent.getCheckoutStart())) {
+            checkMetrics.reject(Rejection.OUTSIDE_WINDOW);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     "Checkout ainda não está disponível. Disponível a partir de " + subEvent.getCheckoutStart());
         }
 
         if (now.isAfter(subEvent.getCheckoutEnd())) {
+            checkMetrics.reject(Rejection.OUTSIDE_WINDOW);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     "Período de checkout encerrado. Encerrou em " + subEvent.getCheckoutEnd());
         }
+    }
 
-        check.setCheckoutTime(LocalDateTime.now());
-        check.setCheckoutLatitude(request.getGeoPayload().getLatitude());
-        check.setCheckoutLongitude(request.getGeoPayload().getLongitude());
+    @Transactional
+    protected CheckResponse performCheckOut(ResolvedQRCode subEvent, AuthenticatedUser user, CheckRequest request) {
+        Check check = checkRepository.findBySubEventIdAndUserId(subEvent.getSubEventId(), user.getId())
+                .orElseThrow(() -> {
+                    checkMetrics.reject(Rejection.NO_CHECKIN);
+                    return new ResponseStatusException(
+                            HttpStatus.BAD_REQUEST,
+                            "Você precisa fazer check-in antes de fazer checkout"
+                    );
+                });
 
-        Check updatedCheck = checkRepository.save(check);
+        if (check.getCheckoutTime() != null) {
+            checkMetrics.reject(Rejection.DUPLICATE);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Você já realizou checkout neste sub-evento");
+        }
 
-        return toResponse(updatedCheck);
-    }
+        validateCheckoutWindow(subEvent, LocalDateTime.now());
 
-    @Transactional(readOnly = true)
-    public List<CheckResponse> getCheckHistory() {
-        User currentUser = getCurrentUser();
+        LocalDateTime checkoutTime = LocalDateTime.now();
+        Double latitude = request.getGeoPayload().getLatitude();
+        Double longitude = request.getGeoPayload().getLongitude();
 
-        if ("ADMIN".equals(currentUser.getRole().toString())) {
-            return checkRepository.findAll().stream()
-                    .map(this::toResponse)
-                    .collect(Collectors.toList());
+        // UPDATE condicional: de dois checkouts simultâneos (toque duplo, nova tentativa, item de /batch)
+        // só um grava, conta no contador e é publicado
+        if (checkRepository.checkOutIfOpen(check.getId(), checkoutTime, latitude, longitude) != 1) {
+            checkMetrics.reject(Rejection.DUPLICATE);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Você já realizou checkout neste sub-evento");
         }
 
-        return checkRepository.findByUserId(currentUser.getId()).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        check.setCheckoutTime(checkoutTime);
+        check.setCheckoutLatitude(latitude);
+        check.setCheckoutLongitude(longitude);
+
+        attendanceCounterService.checkOut(subEvent.getSubEventId());
+        publishChange(subEvent, user, CheckType.CHECKOUT, checkoutTime);
+
+        return toResponse(check, subEvent, user);
+    }
+
+    /**
+     * Histórico paginado: o administrador vê todos os checks, os demais usuários só os próprios
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CheckResponse> getCheckHistory(CheckHistoryFilter filter) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        return findHistory(currentUser.isAdmin() ? null : currentUser.getId(), null, filter);
     }
 
     @Transactional(readOnly = true)
-    public List<CheckResponse> getChecksByEventId(String eventId) {
-        return checkRepository.findByEventId(eventId).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    public CursorPage<CheckResponse> getChecksByEventId(String eventId, CheckHistoryFilter filter) {
+        return findHistory(null, eventId, filter);
+    }
+
+    private CursorPage<CheckResponse> findHistory(String userId, String eventId, CheckHistoryFilter filter) {
+        int limit = filter.getLimit() != null ? filter.getLimit() : historyDefaultPageSize;
+        if (limit < 1) {
+            throw new BadRequestException("O limite da página deve ser maior que zero");
+        }
+        limit = Math.min(limit, historyMaxPageSize);
+
+        HistoryCursor after = filter.getCursor() != null ? HistoryCursor.decode(filter.getCursor()) : null;
+
+        // Uma linha a mais indica se existe próxima página
+        List<CheckHistoryRow> rows = checkHistoryRepository.find(
+                userId,
+                eventId,
+                filter.getSubEventId(),
+                filter.getFrom(),
+                filter.getTo(),
+                filter.getType(),
+                after != null ? after.createdAt : null,
+                after != null ? after.id : null,
+                limit + 1
+        );
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            CheckHistoryRow last = rows.get(limit - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new CursorPage<>(
+                rows.stream().map(this::toResponse).collect(Collectors.toList()),
+                nextCursor
+        );
     }
 
     @Transactional(readOnly = true)
     public CheckInfoResponse getCheckInfo(String qrCodeData) {
-        User currentUser = getCurrentUser();
-        SubEvent subEvent = qrCodeService.validateAndGetSubEvent(qrCodeData);
-        Event event = subEvent.getEvent();
+        AuthenticatedUser currentUser = getCurrentUser();
+        ResolvedQRCode subEvent = qrCodeService.validateAndResolve(qrCodeData);
 
         Optional<Check> existingCheck = checkRepository.findBySubEventIdAndUserId(
-                subEvent.getId(),
+                subEvent.getSubEventId(),
                 currentUser.getId()
         );
 
         boolean isSubscribed = subscriptionRepository.existsBySubEventIdAndUserId(
-                subEvent.getId(),
+                subEvent.getSubEventId(),
                 currentUser.getId()
         );
 
@@ -240,12 +418,12 @@ public class CheckService {
         }
 
         return CheckInfoResponse.builder()
-                .eventId(event.getId())
-                .eventTitle(event.getTitle())
-                .eventDescription(event.getDescription())
-                .subEventId(subEvent.getId())
-                .subEventTitle(subEvent.getTitle())
-                .subEventDescription(subEvent.getDescription())
+                .eventId(subEvent.getEventId())
+                .eventTitle(subEvent.getEventTitle())
+                .eventDescription(subEvent.getEventDescription())
+                .subEventId(subEvent.getSubEventId())
+                .subEventTitle(subEvent.getSubEventTitle())
+                .subEventDescription(subEvent.getSubEventDescription())
                 .locationDescription(subEvent.getLocationDescription())
                 .startDate(subEvent.getStartDate())
                 .endDate(subEvent.getEndDate())
@@ -264,33 +442,53 @@ public class CheckService {
                 .build();
     }
 
-    private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+    /**
+     * Usuário autenticado a partir das claims do token (sem consulta ao banco)
+     */
+    AuthenticatedUser getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+
+        throw new ResponseStatusException(
+                HttpStatus.UNAUTHORIZED,
+                "Usuário autenticado não encontrado"
+        );
+    }
 
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.UNAUTHORIZED,
-                        "Usuário autenticado não encontrado"
-                ));
+    /**
+     * Avisa o painel ao vivo (AttendanceStreamService), que só recebe a mudança depois do commit
+     */
+    void publishChange(ResolvedQRCode subEvent, AuthenticatedUser user, CheckType type, LocalDateTime time) {
+        eventPublisher.publishEvent(new AttendanceChange(
+                subEvent.getEventId(),
+                subEvent.getSubEventId(),
+                type,
+                user.getId(),
+                user.getDisplayName(),
+                time
+        ));
     }
 
-    private CheckResponse toResponse(Check check) {
+    /**
+     * Monta a resposta com os dados do snapshot do QR Code e do token, sem carregar SubEvent/Event/User
+     */
+    CheckResponse toResponse(Check check, ResolvedQRCode subEvent, AuthenticatedUser user) {
         String type = check.getCheckoutTime() != null ? "CHECKOUT" : "CHECKIN";
         LocalDateTime actionTime = check.getCheckoutTime() != null
                 ? check.getCheckoutTime()
                 : check.getCheckinTime();
 
-        SubEvent subEvent = check.getSubEvent();
-        Event event = subEvent.getEvent();
-
         return CheckResponse.builder()
                 .id(check.getId())
-                .eventId(event.getId())
-                .eventTitle(event.getTitle())
-                .subEventId(subEvent.getId())
-                .subEventTitle(subEvent.getTitle())
-                .userId(check.getUser().getId())
-                .userName(check.getUser().getName())
+                .eventId(subEvent.getEventId())
+                .eventTitle(subEvent.getEventTitle())
+                .subEventId(subEvent.getSubEventId())
+                .subEventTitle(subEvent.getSubEventTitle())
+                .userId(user.getId())
+                .userName(user.getDisplayName())
                 .type(type)
                 .checkinTime(check.getCheckinTime())
                 .checkoutTime(check.getCheckoutTime())
@@ -300,4 +498,59 @@ public class CheckService {
                         : "Check-in realizado")
                 .build();
     }
+
+    private CheckResponse toResponse(CheckHistoryRow row) {
+        String type = row.getCheckoutTime() != null ? "CHECKOUT" : "CHECKIN";
+        LocalDateTime actionTime = row.getCheckoutTime() != null
+                ? row.getCheckoutTime()
+                : row.getCheckinTime();
+
+        return CheckResponse.builder()
+                .id(row.getId())
+                .eventId(row.getEventId())
+                .eventTitle(row.getEventTitle())
+                .subEventId(row.getSubEventId())
+                .subEventTitle(row.getSubEventTitle())
+                .userId(row.getUserId())
+                .userName(row.getUserName())
+                .type(type)
+                .checkinTime(row.getCheckinTime())
+                .checkoutTime(row.getCheckoutTime())
+                .createdAt(actionTime)
+                .message(type.equals("CHECKOUT")
+                        ? "Checkout realizado"
+                        : "Check-in realizado")
+                .build();
+    }
+
+    /**
+     * Posição (createdAt, id) da última linha entregue, opaca para o cliente
+     */
+    private static final class HistoryCursor {
+        private final LocalDateTime createdAt;
+        private final String id;
+
+        private HistoryCursor(LocalDateTime createdAt, String id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        private String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                if (separator < 0) {
+                    throw new BadRequestException("Cursor inválido");
+                }
+                return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new BadRequestException("Cursor inválido");
+            }
+        }
+    }
 }
\ No newline at end of file
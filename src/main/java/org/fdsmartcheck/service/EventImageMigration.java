@@ -0,0 +1,129 @@
+package org.fdsmartcheck.service;
+
+import org.fdsmartcheck.exception.BadRequestException;
+import org.fdsmartcheck.service.EventImageService.DecodedImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Move as imagens da antiga coluna events.image_base64 para event_images
+ *
+ * Roda na inicialização, em lotes pequenos (uma transação cada), até a coluna ficar vazia.
+ * As linhas do lote são travadas com SKIP LOCKED, então várias instâncias podem subir ao mesmo
+ * tempo sem migrar a mesma imagem duas vezes. Bancos criados sem a coluna não fazem nada.
+ * Valores que não decodificam ficam na coluna e são registrados no log.
+ */
+@Component
+public class EventImageMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventImageMigration.class);
+
+    private static final int BATCH_SIZE = 20;
+
+    private static final String COLUMN_EXISTS_SQL = """
+            SELECT COUNT(*) FROM information_schema.columns
+            WHERE table_name = 'events' AND column_name = 'image_base64'
+            """;
+
+    private static final String SELECT_BATCH_SQL = """
+            SELECT id, image_base64 FROM events
+            WHERE image_base64 IS NOT NULL AND id > ?
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String INSERT_IMAGE_SQL = """
+            INSERT INTO event_images (event_id, content_type, content, size_bytes, sha256, updated_at)
+            VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT (event_id) DO NOTHING
+            """;
+
+    // Uma imagem já enviada pela API nova prevalece sobre a antiga
+    private static final String CLEAR_COLUMN_SQL = """
+            UPDATE events SET image_hash = COALESCE(image_hash, ?), image_base64 = NULL WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public EventImageMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            Long columns = jdbcTemplate.queryForObject(COLUMN_EXISTS_SQL, Long.class);
+            if (columns == null || columns == 0) {
+                return;
+            }
+
+            int migrated = 0;
+            String lastId = "";
+            while (true) {
+                String afterId = lastId;
+                BatchResult result = transactionTemplate.execute(status -> migrateBatch(afterId));
+                if (result == null || result.lastId == null) {
+                    break;
+                }
+                migrated += result.migrated;
+                lastId = result.lastId;
+            }
+
+            if (migrated > 0) {
+                logger.info("{} imagens de eventos migradas para event_images", migrated);
+            }
+        } catch (Exception e) {
+            logger.warn("Falha na migração das imagens dos eventos: {}", e.getMessage());
+        }
+    }
+
+    private BatchResult migrateBatch(String afterId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_BATCH_SQL, afterId, BATCH_SIZE);
+        if (rows.isEmpty()) {
+            return new BatchResult(0, null);
+        }
+
+        int migrated = 0;
+        String lastId = afterId;
+        for (Map<String, Object> row : rows) {
+            String eventId = (String) row.get("id");
+            lastId = eventId;
+
+            DecodedImage decoded;
+            try {
+                decoded = EventImageService.decode((String) row.get("image_base64"));
+            } catch (BadRequestException e) {
+                logger.warn("Imagem do evento {} não migrada: {}", eventId, e.getMessage());
+                continue;
+            }
+
+            jdbcTemplate.update(INSERT_IMAGE_SQL, eventId, decoded.contentType, decoded.content,
+                    (long) decoded.content.length, decoded.sha256);
+            jdbcTemplate.update(CLEAR_COLUMN_SQL, decoded.sha256, eventId);
+            migrated++;
+        }
+        return new BatchResult(migrated, lastId);
+    }
+
+    private static final class BatchResult {
+        private final int migrated;
+        private final String lastId;
+
+        private BatchResult(int migrated, String lastId) {
+            this.migrated = migrated;
+            this.lastId = lastId;
+        }
+    }
+}
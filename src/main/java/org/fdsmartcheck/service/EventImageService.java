@@ -0,0 +1,179 @@
+package org.fdsmartcheck.service;
+
+import org.fdsmartcheck.exception.BadRequestException;
+import org.fdsmartcheck.exception.ResourceNotFoundException;
+import org.fdsmartcheck.model.Event;
+import org.fdsmartcheck.model.EventImage;
+import org.fdsmartcheck.repository.EventImageRepository;
+import org.fdsmartcheck.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Imagens dos eventos: recebidas em Base64 (EventRequest), guardadas decodificadas em
+ * event_images e servidas como binário em GET /api/events/{id}/image
+ *
+ * A URL publicada nas respostas leva o hash do conteúdo (?v=), então muda sempre que a
+ * imagem muda e pode ser guardada em cache indefinidamente.
+ */
+@Service
+public class EventImageService {
+
+    // Prefixo do hash usado na URL; o ETag usa o hash inteiro
+    private static final int URL_VERSION_LENGTH = 16;
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final EventImageRepository eventImageRepository;
+    private final EventRepository eventRepository;
+    private final int maxBytes;
+
+    public EventImageService(
+            EventImageRepository eventImageRepository,
+            EventRepository eventRepository,
+            @Value("${app.events.image.max-bytes:5242880}") int maxBytes
+    ) {
+        this.eventImageRepository = eventImageRepository;
+        this.eventRepository = eventRepository;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Substitui a imagem do evento (já persistido) e atualiza o hash em Event
+     */
+    @Transactional
+    public void store(Event event, String base64) {
+        DecodedImage decoded = decode(base64);
+        if (decoded.content.length > maxBytes) {
+            throw new BadRequestException("A imagem excede o limite de " + maxBytes + " bytes");
+        }
+
+        EventImage image = eventImageRepository.findById(event.getId())
+                .orElseGet(() -> EventImage.builder().eventId(event.getId()).build());
+        image.setContentType(decoded.contentType);
+        image.setContent(decoded.content);
+        image.setSizeBytes((long) decoded.content.length);
+        image.setSha256(decoded.sha256);
+        eventImageRepository.save(image);
+
+        event.setImageHash(decoded.sha256);
+    }
+
+    /**
+     * Hash atual da imagem, sem carregar o conteúdo (suficiente para responder 304)
+     */
+    @Transactional(readOnly = true)
+    public String getImageHash(String eventId) {
+        return eventRepository.findImageHashById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Imagem do evento não encontrada"));
+    }
+
+    @Transactional(readOnly = true)
+    public EventImage getImage(String eventId) {
+        return eventImageRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Imagem do evento não encontrada"));
+    }
+
+    public String imageUrl(Event event) {
+        if (event.getImageHash() == null) {
+            return null;
+        }
+        return "/api/events/" + event.getId() + "/image?v=" + urlVersion(event.getImageHash());
+    }
+
+    public static String urlVersion(String hash) {
+        return hash.substring(0, Math.min(URL_VERSION_LENGTH, hash.length()));
+    }
+
+    /**
+     * Aceita Base64 puro ou data URL (data:image/png;base64,...); sem data URL, o tipo é
+     * deduzido dos primeiros bytes
+     */
+    static DecodedImage decode(String base64) {
+        String data = base64.trim();
+        String contentType = null;
+
+        if (data.startsWith("data:")) {
+            int comma = data.indexOf(',');
+            if (comma < 0) {
+                throw new BadRequestException("Imagem inválida");
+            }
+            String header = data.substring(5, comma);
+            int separator = header.indexOf(';');
+            contentType = separator >= 0 ? header.substring(0, separator) : header;
+            data = data.substring(comma + 1);
+        }
+
+        byte[] content;
+        try {
+            content = Base64.getMimeDecoder().decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Imagem inválida: Base64 malformado");
+        }
+        if (content.length == 0) {
+            throw new BadRequestException("Imagem vazia");
+        }
+
+        if (contentType == null || contentType.isBlank()) {
+            contentType = sniffContentType(content);
+        }
+        return new DecodedImage(contentType, content, sha256(content));
+    }
+
+    private static String sniffContentType(byte[] content) {
+        if (startsWith(content, 0x89, 'P', 'N', 'G')) {
+            return "image/png";
+        }
+        if (startsWith(content, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(content, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (content.length >= 12 && startsWith(content, 'R', 'I', 'F', 'F')
+                && new String(content, 8, 4, StandardCharsets.US_ASCII).equals("WEBP")) {
+            return "image/webp";
+        }
+        return DEFAULT_CONTENT_TYPE;
+    }
+
+    private static boolean startsWith(byte[] content, int... prefix) {
+        if (content.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((content[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static final class DecodedImage {
+        final String contentType;
+        final byte[] content;
+        final String sha256;
+
+        private DecodedImage(String contentType, byte[] content, String sha256) {
+            this.contentType = contentType;
+            this.content = content;
+            this.sha256 = sha256;
+        }
+    }
+}
@@ -2,12 +2,22 @@ package org.fdsmartcheck.service;
 
 import org.fdsmartcheck.dto.request.EventRequest;
 import org.fdsmartcheck.dto.response.EventResponse;
+import org.fdsmartcheck.exception.BadRequestException;
 import org.fdsmartcheck.model.Event;
 import org.fdsmartcheck.model.User;
 import org.fdsmartcheck.model.enums.EventStatus;
 import org.fdsmartcheck.repository.EventRepository;
+import org.fdsmartcheck.repository.EventSpecifications;
 import org.fdsmartcheck.repository.UserRepository;
+import org.fdsmartcheck.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +26,7 @@ import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +35,15 @@ public class EventService {
 
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
+    private final QRCodeResolutionCache qrCodeResolutionCache;
+    private final EventImageService eventImageService;
+    private final UpcomingEventsCache upcomingEventsCache;
+
+    // Campos aceitos em ?sort= (qualquer outro viraria erro de consulta)
+    private static final Set<String> SORTABLE_FIELDS = Set.of("startDate", "endDate", "title", "createdAt");
+
+    @Value("${app.events.upcoming.max-size:50}")
+    private int upcomingMaxSize;
 
     @Transactional
     public EventResponse createEvent(EventRequest request) {
@@ -34,7 +54,6 @@ public class EventService {
         Event event = Event.builder()
                 .title(request.getTitle())
                 .description(request.getDescription())
-                .imageBase64(request.getImageBase64())
                 .latitude(request.getLatitude())
                 .longitude(request.getLongitude())
                 .radius(request.getRadius())
@@ -45,15 +64,40 @@ public class EventService {
                 .build();
 
         Event savedEvent = eventRepository.save(event);
+        if (request.getImageBase64() != null && !request.getImageBase64().isEmpty()) {
+            eventImageService.store(savedEvent, request.getImageBase64());
+        }
+        upcomingEventsCache.invalidate();
         return toResponse(savedEvent);
     }
 
+    /**
+     * Listagem paginada; sem status, traz todos exceto os cancelados
+     * from/to selecionam os eventos que acontecem (ao menos em parte) dentro do período
+     */
     @Transactional(readOnly = true)
-    public List<EventResponse> getAllEvents() {
-        return eventRepository.findAll().stream()
-                .filter(e -> e.getStatus() != EventStatus.CANCELLED)
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    public Page<EventResponse> getEvents(EventStatus status, LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_FIELDS.contains(order.getProperty())) {
+                throw new BadRequestException("Ordenação inválida: " + order.getProperty());
+            }
+        }
+
+        Specification<Event> spec = status != null
+                ? EventSpecifications.hasStatus(status)
+                : EventSpecifications.notCancelled();
+        if (from != null) {
+            spec = spec.and(EventSpecifications.endsAfter(from));
+        }
+        if (to != null) {
+            spec = spec.and(EventSpecifications.startsBefore(to));
+        }
+
+        // id desempata a ordenação, para que as páginas não repitam nem pulem eventos
+        Pageable stable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort().and(Sort.by("id")));
+
+        return eventRepository.findAll(spec, stable).map(this::toResponse);
     }
 
     @Transactional(readOnly = true)
@@ -70,14 +114,18 @@ public class EventService {
         event.setTitle(request.getTitle());
         event.setDescription(request.getDescription());
         if (request.getImageBase64() != null && !request.getImageBase64().isEmpty()) {
-            event.setImageBase64(request.getImageBase64());
+            eventImageService.store(event, request.getImageBase64());
         }
         event.setLatitude(request.getLatitude());
         event.setLongitude(request.getLongitude());
         event.setStartDate(request.getStartDate());
         event.setEndDate(request.getEndDate());
 
-        return toResponse(eventRepository.save(event));
+        EventResponse response = toResponse(eventRepository.save(event));
+        // SubEvents sem localização própria usam a do Event nos QR Codes em cache
+        qrCodeResolutionCache.invalidateEvent(id);
+        upcomingEventsCache.invalidate();
+        return response;
     }
 
     @Transactional
@@ -85,13 +133,24 @@ public class EventService {
         Event event = findEventOrThrow(id);
         event.setStatus(EventStatus.CANCELLED);
         eventRepository.save(event);
+        upcomingEventsCache.invalidate();
     }
 
-    @Transactional(readOnly = true)
-    public List<EventResponse> getUpcomingEvents() {
-        return eventRepository.findUpcomingEvents(LocalDateTime.now()).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    /**
+     * Próximos eventos ativos (no máximo app.events.upcoming.max-size), servidos do UpcomingEventsCache
+     * Sem @Transactional: um acerto no cache não chega a pegar conexão do pool
+     */
+    public List<EventResponse> getUpcomingEvents(int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("O limite deve ser maior que zero");
+        }
+
+        List<EventResponse> upcoming = upcomingEventsCache.get(() ->
+                eventRepository.findUpcomingEvents(LocalDateTime.now(), PageRequest.of(0, upcomingMaxSize)).stream()
+                        .map(this::toResponse)
+                        .collect(Collectors.toList()));
+
+        return upcoming.subList(0, Math.min(limit, upcoming.size()));
     }
 
     private Event findEventOrThrow(String id) {
@@ -99,11 +158,17 @@ public class EventService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Evento não encontrado"));
     }
 
+    /**
+     * Referência ao usuário autenticado (id vem das claims do token, sem consulta ao banco)
+     */
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return userRepository.getReferenceById(user.getId());
+        }
 
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Usuário autenticado não encontrado na base de dados."));
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Usuário autenticado não encontrado na base de dados.");
     }
 
     private void validateDates(EventRequest request) {
@@ -119,7 +184,7 @@ public class EventService {
                 .id(event.getId())
                 .title(event.getTitle())
                 .description(event.getDescription())
-                .imageBase64(event.getImageBase64())
+                .imageUrl(eventImageService.imageUrl(event))
                 .latitude(event.getLatitude())
                 .longitude(event.getLongitude())
                 .radius(event.getRadius())
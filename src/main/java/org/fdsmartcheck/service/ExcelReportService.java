@@ -9,21 +9,26 @@ import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.fdsmartcheck.dto.report.AttendanceRow;
 import org.fdsmartcheck.exception.ResourceNotFoundException;
-import org.fdsmartcheck.model.Check;
 import org.fdsmartcheck.model.Event;
 import org.fdsmartcheck.model.SubEvent;
-import org.fdsmartcheck.repository.CheckRepository;
 import org.fdsmartcheck.repository.EventRepository;
 import org.fdsmartcheck.repository.SubEventRepository;
-import org.fdsmartcheck.repository.SubscriptionRepository;
+import org.fdsmartcheck.repository.SubEventRepository.AttendanceSummaryView;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -32,118 +37,42 @@ public class ExcelReportService {
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
+    private static final int COLUMN_COUNT = 4;
+
     private final EventRepository eventRepository;
     private final SubEventRepository subEventRepository;
-    private final CheckRepository checkRepository;
-    private final SubscriptionRepository subscriptionRepository;
+    private final ReportDataService reportDataService;
 
-    public byte[] generateExcelReport(String eventId) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new ResourceNotFoundException("Evento não encontrado"));
+    // Linhas mantidas em memória pelo SXSSF; as anteriores vão para um arquivo temporário
+    @Value("${app.reports.excel.row-window:200}")
+    private int rowWindow;
 
-        List<SubEvent> subEvents = subEventRepository.findByEventId(eventId);
+    public byte[] generateExcelReport(String eventId) {
+        Event event = reportDataService.getEvent(eventId);
 
         try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             Sheet sheet = workbook.createSheet("Relatorio");
+            writeEventReport(new ReportSheet(workbook, sheet), event);
 
-            CellStyle titleStyle = createTitleStyle(workbook);
-            CellStyle labelStyle = createLabelStyle(workbook);
-            CellStyle headerStyle = createHeaderStyle(workbook);
-            CellStyle subEventTitleStyle = createSubEventTitleStyle(workbook);
-            CellStyle dataStyle = createDataStyle(workbook);
-
-            int rowIdx = 0;
-
-            Row titleRow = sheet.createRow(rowIdx++);
-            org.apache.poi.ss.usermodel.Cell titleCell = titleRow.createCell(0);
-            titleCell.setCellValue("RELATÓRIO DE PRESENÇA");
-            titleCell.setCellStyle(titleStyle);
-
-            Row eventRow = sheet.createRow(rowIdx++);
-            eventRow.createCell(0).setCellValue("Evento:");
-            eventRow.getCell(0).setCellStyle(labelStyle);
-            eventRow.createCell(1).setCellValue(event.getTitle());
-
-            Row periodRow = sheet.createRow(rowIdx++);
-            periodRow.createCell(0).setCellValue("Período:");
-            periodRow.getCell(0).setCellStyle(labelStyle);
-            periodRow.createCell(1).setCellValue(
-                    event.getStartDate().format(DATE_FORMATTER) + " a " + event.getEndDate().format(DATE_FORMATTER));
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+                sheet.autoSizeColumn(i);
+            }
 
-            Row generatedRow = sheet.createRow(rowIdx++);
-            generatedRow.createCell(0).setCellValue("Gerado em:");
-            generatedRow.getCell(0).setCellStyle(labelStyle);
-            generatedRow.createCell(1).setCellValue(LocalDateTime.now().format(DATE_TIME_FORMATTER));
+            workbook.write(baos);
+            return baos.toByteArray();
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao gerar relatório Excel", e);
+        }
+    }
 
-            rowIdx++;
+    public byte[] generateSubEventExcelReport(String subEventId) {
+        SubEvent subEvent = reportDataService.getSubEvent(subEventId);
 
-            boolean isFirstSubEvent = true;
-            for (SubEvent subEvent : subEvents) {
-                if (!isFirstSubEvent) {
-                    rowIdx++;
-                }
-                isFirstSubEvent = false;
-
-                Row subEventTitleRow = sheet.createRow(rowIdx++);
-                org.apache.poi.ss.usermodel.Cell subEventCell = subEventTitleRow.createCell(0);
-                subEventCell.setCellValue(subEvent.getTitle() + " (" + subEvent.getStartDate().format(DATE_FORMATTER) + ")");
-                subEventCell.setCellStyle(subEventTitleStyle);
-
-                List<Check> checks = checkRepository.findBySubEventId(subEvent.getId());
-                long totalSubscriptions = subscriptionRepository.findBySubEventId(subEvent.getId()).size();
-                long totalChecks = checks.size();
-                long full = checks.stream().filter(this::hasCheckinAndCheckout).count();
-                long onlyCheckin = checks.stream().filter(this::hasOnlyCheckin).count();
-                long onlyCheckout = checks.stream().filter(this::hasOnlyCheckout).count();
-                long none = checks.stream().filter(this::hasNoCheckinOrCheckout).count();
-
-                Row subscriptionsRow = sheet.createRow(rowIdx++);
-                subscriptionsRow.createCell(0).setCellValue("Inscritos: " + totalSubscriptions);
-                subscriptionsRow.getCell(0).setCellStyle(labelStyle);
-
-                Row totalChecksRow = sheet.createRow(rowIdx++);
-                totalChecksRow.createCell(0).setCellValue("Registros: " + totalChecks);
-                totalChecksRow.getCell(0).setCellStyle(labelStyle);
-
-                Row fullRow = sheet.createRow(rowIdx++);
-                fullRow.createCell(0).setCellValue("Check-in e Check-out: " + full);
-                fullRow.getCell(0).setCellStyle(labelStyle);
-
-                Row onlyCheckinRow = sheet.createRow(rowIdx++);
-                onlyCheckinRow.createCell(0).setCellValue("Somente Check-in: " + onlyCheckin);
-                onlyCheckinRow.getCell(0).setCellStyle(labelStyle);
-
-                Row onlyCheckoutRow = sheet.createRow(rowIdx++);
-                onlyCheckoutRow.createCell(0).setCellValue("Somente Check-out: " + onlyCheckout);
-                onlyCheckoutRow.getCell(0).setCellStyle(labelStyle);
-
-                Row noneRow = sheet.createRow(rowIdx++);
-                noneRow.createCell(0).setCellValue("Sem Check-in/Check-out: " + none);
-                noneRow.getCell(0).setCellStyle(labelStyle);
-
-                Row headerRow = sheet.createRow(rowIdx++);
-                createHeaderCell(headerRow, 0, "Nome", headerStyle);
-                createHeaderCell(headerRow, 1, "Email", headerStyle);
-                createHeaderCell(headerRow, 2, "Check-in", headerStyle);
-                createHeaderCell(headerRow, 3, "Check-out", headerStyle);
-
-                if (checks.isEmpty()) {
-                    Row emptyRow = sheet.createRow(rowIdx++);
-                    createDataCell(emptyRow, 0, "Nenhum registro de presença", dataStyle);
-                } else {
-                    for (Check check : checks) {
-                        Row row = sheet.createRow(rowIdx++);
-                        createDataCell(row, 0, check.getUser().getName(), dataStyle);
-                        createDataCell(row, 1, check.getUser().getEmail(), dataStyle);
-                        createDataCell(row, 2, check.getCheckinTime() != null
-                                ? check.getCheckinTime().format(DATE_TIME_FORMATTER) : "-", dataStyle);
-                        createDataCell(row, 3, check.getCheckoutTime() != null
-                                ? check.getCheckoutTime().format(DATE_TIME_FORMATTER) : "-", dataStyle);
-                    }
-                }
-            }
+        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Relatorio");
+            writeSubEventReport(new ReportSheet(workbook, sheet), subEvent);
 
-            for (int i = 0; i < 4; i++) {
+            for (int i = 0; i < COLUMN_COUNT; i++) {
                 sheet.autoSizeColumn(i);
             }
 
@@ -154,108 +83,214 @@ public class ExcelReportService {
         }
     }
 
-    public byte[] generateSubEventExcelReport(String subEventId) {
-        SubEvent subEvent = subEventRepository.findById(subEventId)
-                .orElseThrow(() -> new ResourceNotFoundException("Subevento não encontrado"));
+    /**
+     * Relatório do evento em modo streaming: SXSSF com janela limitada de linhas,
+     * larguras de coluna estimadas pelo tamanho do texto e escrita direta na resposta
+     *
+     * A existência do evento é verificada antes de a resposta começar (404 continua possível);
+     * os dados são lidos pelo ReportDataService durante a escrita.
+     */
+    public StreamingResponseBody streamExcelReport(String eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Evento não encontrado");
+        }
 
-        Event event = subEvent.getEvent();
-        List<Check> checks = checkRepository.findBySubEventId(subEventId);
+        return out -> writeStreaming(out, report -> writeEventReport(report, reportDataService.getEvent(eventId)));
+    }
 
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+    public StreamingResponseBody streamSubEventExcelReport(String subEventId) {
+        if (!subEventRepository.existsById(subEventId)) {
+            throw new ResourceNotFoundException("Subevento não encontrado");
+        }
+
+        return out -> writeStreaming(out, report -> writeSubEventReport(report, reportDataService.getSubEvent(subEventId)));
+    }
+
+    private void writeStreaming(OutputStream out, Consumer<ReportSheet> content) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
             Sheet sheet = workbook.createSheet("Relatorio");
+            ReportSheet report = new ReportSheet(workbook, sheet);
 
-            CellStyle titleStyle = createTitleStyle(workbook);
-            CellStyle labelStyle = createLabelStyle(workbook);
-            CellStyle headerStyle = createHeaderStyle(workbook);
-            CellStyle dataStyle = createDataStyle(workbook);
-
-            int rowIdx = 0;
-
-            Row titleRow = sheet.createRow(rowIdx++);
-            org.apache.poi.ss.usermodel.Cell titleCell = titleRow.createCell(0);
-            titleCell.setCellValue("RELATÓRIO DE PRESENÇA");
-            titleCell.setCellStyle(titleStyle);
-
-            Row eventRow = sheet.createRow(rowIdx++);
-            eventRow.createCell(0).setCellValue("Evento:");
-            eventRow.getCell(0).setCellStyle(labelStyle);
-            eventRow.createCell(1).setCellValue(event.getTitle());
-
-            Row subEventRow = sheet.createRow(rowIdx++);
-            subEventRow.createCell(0).setCellValue("Subevento:");
-            subEventRow.getCell(0).setCellStyle(labelStyle);
-            subEventRow.createCell(1).setCellValue(subEvent.getTitle());
-
-            Row periodRow = sheet.createRow(rowIdx++);
-            periodRow.createCell(0).setCellValue("Data:");
-            periodRow.getCell(0).setCellStyle(labelStyle);
-            periodRow.createCell(1).setCellValue(
-                    subEvent.getStartDate().format(DATE_TIME_FORMATTER) + " a " +
-                            subEvent.getEndDate().format(DATE_TIME_FORMATTER)
-            );
-
-            Row generatedRow = sheet.createRow(rowIdx++);
-            generatedRow.createCell(0).setCellValue("Gerado em:");
-            generatedRow.getCell(0).setCellStyle(labelStyle);
-            generatedRow.createCell(1).setCellValue(LocalDateTime.now().format(DATE_TIME_FORMATTER));
+            content.accept(report);
 
+            report.applyEstimatedWidths();
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.close();
+            workbook.dispose();
+        }
+    }
+
+    private void writeEventReport(ReportSheet report, Event event) {
+        report.titleRow("RELATÓRIO DE PRESENÇA");
+        report.labelRow("Evento:", event.getTitle());
+        report.labelRow("Período:",
+                event.getStartDate().format(DATE_FORMATTER) + " a " + event.getEndDate().format(DATE_FORMATTER));
+        report.labelRow("Gerado em:", LocalDateTime.now().format(DATE_TIME_FORMATTER));
+        report.skipRow();
+
+        boolean[] isFirstSubEvent = {true};
+        reportDataService.forEachSubEvent(event.getId(), (summary, rows) -> {
+            if (!isFirstSubEvent[0]) {
+                report.skipRow();
+            }
+            isFirstSubEvent[0] = false;
+
+            report.subEventTitleRow(summary.getTitle() + " (" + summary.getStartDate().format(DATE_FORMATTER) + ")");
+            writeSummary(report, summary);
+
+            report.headerRow();
+            if (!rows.hasNext()) {
+                report.emptyRow("Nenhum registro de presença");
+            } else {
+                writeRows(report, rows);
+            }
+        });
+    }
+
+    private void writeSubEventReport(ReportSheet report, SubEvent subEvent) {
+        Event event = subEvent.getEvent();
+
+        report.titleRow("RELATÓRIO DE PRESENÇA");
+        report.labelRow("Evento:", event.getTitle());
+        report.labelRow("Subevento:", subEvent.getTitle());
+        report.labelRow("Data:",
+                subEvent.getStartDate().format(DATE_TIME_FORMATTER) + " a " +
+                        subEvent.getEndDate().format(DATE_TIME_FORMATTER));
+        report.labelRow("Gerado em:", LocalDateTime.now().format(DATE_TIME_FORMATTER));
+        report.skipRow();
+
+        reportDataService.forSubEvent(subEvent.getId(), (summary, rows) -> {
+            writeSummary(report, summary);
+
+            report.headerRow();
+            writeRows(report, rows);
+        });
+    }
+
+    private void writeSummary(ReportSheet report, AttendanceSummaryView summary) {
+        report.labelRow("Inscritos: " + summary.getSubscriptions());
+        report.labelRow("Registros: " + summary.getTotal());
+        report.labelRow("Check-in e Check-out: " + summary.getWithBoth());
+        report.labelRow("Somente Check-in: " + summary.getOnlyCheckin());
+        report.labelRow("Somente Check-out: " + summary.getOnlyCheckout());
+        report.labelRow("Sem Check-in/Check-out: " + summary.getWithNeither());
+    }
+
+    private void writeRows(ReportSheet report, Iterator<AttendanceRow> rows) {
+        while (rows.hasNext()) {
+            report.attendanceRow(rows.next());
+        }
+    }
+
+    /**
+     * Planilha do relatório: cria as linhas em sequência com os estilos do relatório
+     * e guarda o maior texto de cada coluna para estimar a largura sem autoSizeColumn
+     */
+    private final class ReportSheet {
+
+        // Largura de caractere da fonte padrão (1/256 de caractere) e limite do Excel
+        private static final int CHAR_WIDTH = 256;
+        private static final int MAX_COLUMN_WIDTH = 255 * CHAR_WIDTH;
+
+        private final Sheet sheet;
+        private final CellStyle titleStyle;
+        private final CellStyle labelStyle;
+        private final CellStyle headerStyle;
+        private final CellStyle subEventTitleStyle;
+        private final CellStyle dataStyle;
+        private final int[] maxChars = new int[COLUMN_COUNT];
+        private int rowIdx = 0;
+
+        private ReportSheet(Workbook workbook, Sheet sheet) {
+            this.sheet = sheet;
+            this.titleStyle = createTitleStyle(workbook);
+            this.labelStyle = createLabelStyle(workbook);
+            this.headerStyle = createHeaderStyle(workbook);
+            this.subEventTitleStyle = createSubEventTitleStyle(workbook);
+            this.dataStyle = createDataStyle(workbook);
+        }
+
+        void skipRow() {
             rowIdx++;
+        }
+
+        void titleRow(String title) {
+            // Fonte 14pt: ocupa cerca de 1,3x a largura da fonte padrão
+            cell(sheet.createRow(rowIdx++), 0, title, titleStyle, title.length() * 13 / 10);
+        }
+
+        void subEventTitleRow(String title) {
+            cell(sheet.createRow(rowIdx++), 0, title, subEventTitleStyle, title.length());
+        }
+
+        void labelRow(String label) {
+            cell(sheet.createRow(rowIdx++), 0, label, labelStyle, label.length());
+        }
+
+        void labelRow(String label, String value) {
+            Row row = sheet.createRow(rowIdx++);
+            cell(row, 0, label, labelStyle, label.length());
+            cell(row, 1, value, null, value != null ? value.length() : 0);
+        }
+
+        void headerRow() {
+            Row row = sheet.createRow(rowIdx++);
+            createHeaderCell(row, 0, "Nome", headerStyle);
+            createHeaderCell(row, 1, "Email", headerStyle);
+            createHeaderCell(row, 2, "Check-in", headerStyle);
+            createHeaderCell(row, 3, "Check-out", headerStyle);
+            observe(0, 4);
+            observe(1, 5);
+            observe(2, 8);
+            observe(3, 9);
+        }
+
+        void emptyRow(String message) {
+            Row row = sheet.createRow(rowIdx++);
+            createDataCell(row, 0, message, dataStyle);
+            observe(0, message.length());
+        }
 
-            long totalSubscriptions = subscriptionRepository.findBySubEventId(subEventId).size();
-            Row subscriptionsRow = sheet.createRow(rowIdx++);
-            subscriptionsRow.createCell(0).setCellValue("Inscritos: " + totalSubscriptions);
-            subscriptionsRow.getCell(0).setCellStyle(labelStyle);
-
-            long totalChecks = checks.size();
-            long full = checks.stream().filter(this::hasCheckinAndCheckout).count();
-            long onlyCheckin = checks.stream().filter(this::hasOnlyCheckin).count();
-            long onlyCheckout = checks.stream().filter(this::hasOnlyCheckout).count();
-            long none = checks.stream().filter(this::hasNoCheckinOrCheckout).count();
-
-            Row totalChecksRow = sheet.createRow(rowIdx++);
-            totalChecksRow.createCell(0).setCellValue("Registros: " + totalChecks);
-            totalChecksRow.getCell(0).setCellStyle(labelStyle);
-
-            Row fullRow = sheet.createRow(rowIdx++);
-            fullRow.createCell(0).setCellValue("Check-in e Check-out: " + full);
-            fullRow.getCell(0).setCellStyle(labelStyle);
-
-            Row onlyCheckinRow = sheet.createRow(rowIdx++);
-            onlyCheckinRow.createCell(0).setCellValue("Somente Check-in: " + onlyCheckin);
-            onlyCheckinRow.getCell(0).setCellStyle(labelStyle);
-
-            Row onlyCheckoutRow = sheet.createRow(rowIdx++);
-            onlyCheckoutRow.createCell(0).setCellValue("Somente Check-out: " + onlyCheckout);
-            onlyCheckoutRow.getCell(0).setCellStyle(labelStyle);
-
-            Row noneRow = sheet.createRow(rowIdx++);
-            noneRow.createCell(0).setCellValue("Sem Check-in/Check-out: " + none);
-            noneRow.getCell(0).setCellStyle(labelStyle);
-
-            Row headerRow = sheet.createRow(rowIdx++);
-            createHeaderCell(headerRow, 0, "Nome", headerStyle);
-            createHeaderCell(headerRow, 1, "Email", headerStyle);
-            createHeaderCell(headerRow, 2, "Check-in", headerStyle);
-            createHeaderCell(headerRow, 3, "Check-out", headerStyle);
-
-            for (Check check : checks) {
-                Row row = sheet.createRow(rowIdx++);
-                createDataCell(row, 0, check.getUser().getName(), dataStyle);
-                createDataCell(row, 1, check.getUser().getEmail(), dataStyle);
-                createDataCell(row, 2, check.getCheckinTime() != null
-                        ? check.getCheckinTime().format(DATE_TIME_FORMATTER) : "-", dataStyle);
-                createDataCell(row, 3, check.getCheckoutTime() != null
-                        ? check.getCheckoutTime().format(DATE_TIME_FORMATTER) : "-", dataStyle);
+        void attendanceRow(AttendanceRow attendance) {
+            Row row = sheet.createRow(rowIdx++);
+            dataCell(row, 0, attendance.getUserName());
+            dataCell(row, 1, attendance.getUserEmail());
+            dataCell(row, 2, attendance.getCheckinTime() != null
+                    ? attendance.getCheckinTime().format(DATE_TIME_FORMATTER) : "-");
+            dataCell(row, 3, attendance.getCheckoutTime() != null
+                    ? attendance.getCheckoutTime().format(DATE_TIME_FORMATTER) : "-");
+        }
+
+        void applyEstimatedWidths() {
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+                if (maxChars[i] > 0) {
+                    sheet.setColumnWidth(i, Math.min(MAX_COLUMN_WIDTH, (maxChars[i] + 2) * CHAR_WIDTH));
+                }
             }
+        }
 
-            for (int i = 0; i < 4; i++) {
-                sheet.autoSizeColumn(i);
+        private void dataCell(Row row, int index, String value) {
+            createDataCell(row, index, value, dataStyle);
+            observe(index, value != null ? value.length() : 0);
+        }
+
+        private void cell(Row row, int index, String value, CellStyle style, int width) {
+            org.apache.poi.ss.usermodel.Cell cell = row.createCell(index);
+            cell.setCellValue(value);
+            if (style != null) {
+                cell.setCellStyle(style);
             }
+            observe(index, width);
+        }
 
-            workbook.write(baos);
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao gerar relatório Excel", e);
+        private void observe(int column, int chars) {
+            if (chars > maxChars[column]) {
+                maxChars[column] = chars;
+            }
         }
     }
 
@@ -321,20 +356,4 @@ public class ExcelReportService {
         cell.setCellValue(value);
         cell.setCellStyle(style);
     }
-
-    private boolean hasCheckinAndCheckout(Check check) {
-        return check.getCheckinTime() != null && check.getCheckoutTime() != null;
-    }
-
-    private boolean hasOnlyCheckin(Check check) {
-        return check.getCheckinTime() != null && check.getCheckoutTime() == null;
-    }
-
-    private boolean hasOnlyCheckout(Check check) {
-        return check.getCheckinTime() == null && check.getCheckoutTime() != null;
-    }
-
-    private boolean hasNoCheckinOrCheckout(Check check) {
-        return check.getCheckinTime() == null && check.getCheckoutTime() == null;
-    }
 }
\ No newline at end of file
@@ -1,34 +1,32 @@
 package org.fdsmartcheck.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.fdsmartcheck.dto.request.CheckRequest;
 import org.fdsmartcheck.dto.request.GeoSignRequest;
+import org.fdsmartcheck.metrics.CheckMetrics;
+import org.fdsmartcheck.metrics.CheckMetrics.Rejection;
+import org.fdsmartcheck.metrics.CheckMetrics.Stage;
+import org.fdsmartcheck.security.GeoPayloadSigner;
+import org.fdsmartcheck.security.NonceCheckResult;
+import org.fdsmartcheck.security.NonceStore;
 import org.fdsmartcheck.utils.GeoUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.Map;
-import java.util.TreeMap;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 @Service
 @RequiredArgsConstructor
 public class GeoSecurityService {
 
     private final GeoUtils geoUtils;
-    private final ObjectMapper objectMapper;
-
-    private final java.util.concurrent.ConcurrentHashMap<String, Long> usedNonces = new java.util.concurrent.ConcurrentHashMap<>();
-
-    @Value("${app.geo.secret-key}")
-    private String secretKey;
+    private final GeoPayloadSigner payloadSigner;
+    private final NonceStore nonceStore;
+    private final CheckMetrics checkMetrics;
 
     @Value("${app.geo.max-time-diff-seconds:60}")
     private long maxTimeDiffSeconds;
@@ -51,16 +49,50 @@ public class GeoSecurityService {
             Double customRadius
     ) {
         // 1. Validar assinatura
-        validateSignature(request);
+        checkMetrics.time(Stage.SIGNATURE, () -> validateSignature(request));
 
         // 2. Validar nonce (anti-replay)
-        validateNonce(request.getRequestId());
+        checkMetrics.time(Stage.NONCE, () -> validateNonce(request.getRequestId()));
 
         // 3. Validar timestamp (anti-replay)
-        validateTimestamp(request.getGeoPayload().getTimestamp());
+        checkMetrics.time(Stage.TIMESTAMP, () -> validateTimestamp(request.getGeoPayload().getTimestamp()));
 
         // 4. Validar distância (coordenadas do evento são obrigatórias)
+        checkMetrics.time(Stage.LOCATION, () -> validateLocation(request, eventLat, eventLng, customRadius));
+    }
+
+    /**
+     * Valida o payload de um check-in capturado offline (sincronização em lote)
+     *
+     * Mesmas etapas de validateGeoPayload, exceto o timestamp: a captura pode ter ocorrido
+     * bem antes do envio, então o limite passa a ser a janela do subevento, verificada pelo
+     * chamador com o horário de captura retornado. Aqui só se recusa timestamp no futuro.
+     *
+     * @return Horário em que a geolocalização foi capturada
+     */
+    public LocalDateTime validateOfflineGeoPayload(
+            CheckRequest request,
+            Double eventLat,
+            Double eventLng,
+            Double customRadius
+    ) {
+        validateSignature(request);
+        validateNonce(request.getRequestId());
+
+        long timestamp = request.getGeoPayload().getTimestamp();
+        validateNotInFuture(timestamp);
+
+        validateLocation(request, eventLat, eventLng, customRadius);
+
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+
+    /**
+     * Valida as coordenadas do evento e do usuário e a distância entre eles
+     */
+    private void validateLocation(CheckRequest request, Double eventLat, Double eventLng, Double customRadius) {
         if (eventLat == null || eventLng == null) {
+            checkMetrics.reject(Rejection.INVALID_LOCATION);
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
                     "Este subevento não possui localização configurada. Check-in presencial não pode ser validado."
@@ -71,6 +103,7 @@ public class GeoSecurityService {
         double userLng = request.getGeoPayload().getLongitude();
 
         if (userLat == 0.0 && userLng == 0.0) {
+            checkMetrics.reject(Rejection.INVALID_LOCATION);
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
                     "Coordenadas inválidas. Verifique se o GPS está ativado e tente novamente."
@@ -95,16 +128,12 @@ public class GeoSecurityService {
         }
 
         try {
-            TreeMap<String, Object> sortedMap = new TreeMap<>();
-            sortedMap.put("deviceId", request.getDeviceId());
-            sortedMap.put("latitude", request.getLatitude());
-            sortedMap.put("longitude", request.getLongitude());
-            sortedMap.put("timestamp", request.getTimestamp());
-
-            String payloadJson = objectMapper.writeValueAsString(sortedMap);
-            return generateSignature(payloadJson);
-        } catch (ResponseStatusException e) {
-            throw e;
+            return payloadSigner.sign(
+                    request.getDeviceId(),
+                    request.getLatitude(),
+                    request.getLongitude(),
+                    request.getTimestamp()
+            );
         } catch (Exception e) {
             throw new ResponseStatusException(
                     HttpStatus.INTERNAL_SERVER_ERROR,
@@ -113,20 +142,33 @@ public class GeoSecurityService {
         }
     }
 
+    /**
+     * Estatísticas do store de nonces (tamanho, duplicados, rejeições por capacidade)
+     */
+    public NonceStore.Stats getNonceStoreStats() {
+        return nonceStore.stats();
+    }
+
     /**
      * Valida nonce para prevenir replay attacks
      */
     private void validateNonce(String requestId) {
-        long now = System.currentTimeMillis();
-        // Clean up expired nonces (older than maxTimeDiffSeconds * 2)
-        usedNonces.entrySet().removeIf(entry -> now - entry.getValue() > maxTimeDiffSeconds * 2000);
+        NonceCheckResult result = nonceStore.register(requestId);
 
-        if (usedNonces.putIfAbsent(requestId, now) != null) {
+        if (result == NonceCheckResult.DUPLICATE) {
+            checkMetrics.reject(Rejection.REPLAY);
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
                     "Requisição duplicada. Este check-in já foi processado."
             );
         }
+        if (result == NonceCheckResult.CAPACITY_EXCEEDED) {
+            checkMetrics.reject(Rejection.NONCE_CAPACITY);
+            throw new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE,
+                    "Muitas requisições de check-in no momento. Tente novamente em instantes."
+            );
+        }
     }
 
     /**
@@ -134,18 +176,18 @@ public class GeoSecurityService {
      */
     private void validateSignature(CheckRequest request) {
         try {
-            Map<String, Object> map = objectMapper.convertValue(
-                    request.getGeoPayload(),
-                    new TypeReference<Map<String, Object>>() {}
+            CheckRequest.GeoPayload payload = request.getGeoPayload();
+
+            boolean valid = payloadSigner.verify(
+                    payload.getDeviceId(),
+                    payload.getLatitude(),
+                    payload.getLongitude(),
+                    payload.getTimestamp(),
+                    request.getSignature()
             );
 
-            TreeMap<String, Object> sortedMap = new TreeMap<>(map);
-
-            String payloadJson = objectMapper.writeValueAsString(sortedMap);
-
-            String expectedSignature = generateSignature(payloadJson);
-
-            if (!expectedSignature.equals(request.getSignature())) {
+            if (!valid) {
+                checkMetrics.reject(Rejection.BAD_SIGNATURE);
                 throw new ResponseStatusException(
                         HttpStatus.UNAUTHORIZED,
                         "Assinatura de geolocalização inválida. Possível tentativa de fraude."
@@ -154,6 +196,7 @@ public class GeoSecurityService {
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
+            checkMetrics.reject(Rejection.BAD_SIGNATURE);
             throw new ResponseStatusException(
                     HttpStatus.UNAUTHORIZED,
                     "Erro ao validar assinatura de geolocalização"
@@ -170,6 +213,7 @@ public class GeoSecurityService {
         long diff = Math.abs(now - timestamp);
 
         if (diff > maxTimeDiffSeconds * 1000) {
+            checkMetrics.reject(Rejection.EXPIRED_TIMESTAMP);
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
                     String.format(
@@ -181,6 +225,22 @@ public class GeoSecurityService {
         }
     }
 
+    /**
+     * Captura offline: o timestamp pode ser antigo, mas não posterior ao horário do servidor
+     * (além da mesma tolerância de relógio do fluxo online)
+     */
+    private void validateNotInFuture(long timestamp) {
+        long now = Instant.now().toEpochMilli();
+
+        if (timestamp - now > maxTimeDiffSeconds * 1000) {
+            checkMetrics.reject(Rejection.EXPIRED_TIMESTAMP);
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Horário da geolocalização está no futuro. Verifique o relógio do dispositivo."
+            );
+        }
+    }
+
     /**
      * Valida se o usuário está dentro do raio permitido do evento
      */
@@ -195,6 +255,7 @@ public class GeoSecurityService {
         double distance = geoUtils.calculateDistance(userLat, userLng, eventLat, eventLng);
 
         if (distance > allowedRadius) {
+            checkMetrics.reject(Rejection.OUT_OF_RADIUS);
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
                     String.format(
@@ -206,30 +267,4 @@ public class GeoSecurityService {
             );
         }
     }
-
-    /**
-     * Gera assinatura HMAC-SHA256 para um payload
-     */
-    private String generateSignature(String data) throws Exception {
-        Mac sha256Hmac = Mac.getInstance("HmacSHA256");
-        SecretKeySpec secretKeySpec = new SecretKeySpec(
-                secretKey.getBytes(StandardCharsets.UTF_8),
-                "HmacSHA256"
-        );
-        sha256Hmac.init(secretKeySpec);
-
-        byte[] hash = sha256Hmac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-        return bytesToHex(hash);
-    }
-
-    /**
-     * Converte bytes para string hexadecimal
-     */
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder result = new StringBuilder();
-        for (byte b : bytes) {
-            result.append(String.format("%02x", b));
-        }
-        return result.toString();
-    }
 }
\ No newline at end of file
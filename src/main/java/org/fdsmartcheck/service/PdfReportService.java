@@ -10,20 +10,25 @@ import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import lombok.RequiredArgsConstructor;
+import org.fdsmartcheck.dto.report.AttendanceRow;
 import org.fdsmartcheck.exception.ResourceNotFoundException;
-import org.fdsmartcheck.model.Check;
 import org.fdsmartcheck.model.Event;
 import org.fdsmartcheck.model.SubEvent;
-import org.fdsmartcheck.repository.CheckRepository;
 import org.fdsmartcheck.repository.EventRepository;
 import org.fdsmartcheck.repository.SubEventRepository;
-import org.fdsmartcheck.repository.SubscriptionRepository;
+import org.fdsmartcheck.repository.SubEventRepository.AttendanceSummaryView;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -34,53 +39,90 @@ public class PdfReportService {
 
     private final EventRepository eventRepository;
     private final SubEventRepository subEventRepository;
-    private final CheckRepository checkRepository;
-    private final SubscriptionRepository subscriptionRepository;
+    private final ReportDataService reportDataService;
 
-    public byte[] generatePdfReport(String eventId) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new ResourceNotFoundException("Evento não encontrado"));
+    // A cada N linhas a tabela é descarregada no documento
+    @Value("${app.reports.pdf.flush-rows:500}")
+    private int flushRows;
 
-        List<SubEvent> subEvents = subEventRepository.findByEventId(eventId);
+    public byte[] generatePdfReport(String eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Evento não encontrado");
+        }
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeEventReport(eventId, baos);
+        return baos.toByteArray();
+    }
 
-            addHeader(document, event);
+    public byte[] generateSubEventPdfReport(String subEventId) {
+        if (!subEventRepository.existsById(subEventId)) {
+            throw new ResourceNotFoundException("Subevento não encontrado");
+        }
 
-            for (SubEvent subEvent : subEvents) {
-                List<Check> checks = checkRepository.findBySubEventId(subEvent.getId());
-                addSubEventSection(document, subEvent, checks);
-            }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeSubEventReport(subEventId, baos);
+        return baos.toByteArray();
+    }
 
-            addGeneralStatistics(document, subEvents);
+    /**
+     * Relatório do evento escrito direto na resposta, com memória constante:
+     * linhas lidas por cursor e tabela grande do iText descarregada a cada flush-rows linhas
+     *
+     * A existência do evento é verificada antes de a resposta começar (404 continua possível).
+     */
+    public StreamingResponseBody streamPdfReport(String eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Evento não encontrado");
+        }
+        return out -> writeEventReport(eventId, out);
+    }
 
-            document.close();
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao gerar relatório PDF", e);
+    public StreamingResponseBody streamSubEventPdfReport(String subEventId) {
+        if (!subEventRepository.existsById(subEventId)) {
+            throw new ResourceNotFoundException("Subevento não encontrado");
         }
+        return out -> writeSubEventReport(subEventId, out);
     }
 
-    public byte[] generateSubEventPdfReport(String subEventId) {
-        SubEvent subEvent = subEventRepository.findById(subEventId)
-                .orElseThrow(() -> new ResourceNotFoundException("Subevento não encontrado"));
+    private void writeEventReport(String eventId, OutputStream out) {
+        writeDocument(out, document -> {
+            addHeader(document, reportDataService.getEvent(eventId));
+
+            List<AttendanceSummaryView> summaries = new ArrayList<>();
+            reportDataService.forEachSubEvent(eventId, (summary, rows) -> {
+                addSubEventSection(document, summary, rows);
+                summaries.add(summary);
+            });
+
+            addGeneralStatistics(document, summaries);
+        });
+    }
 
-        Event event = subEvent.getEvent();
-        List<Check> checks = checkRepository.findBySubEventId(subEventId);
+    private void writeSubEventReport(String subEventId, OutputStream out) {
+        writeDocument(out, document -> {
+            SubEvent subEvent = reportDataService.getSubEvent(subEventId);
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+            addHeader(document, subEvent.getEvent());
+            reportDataService.forSubEvent(subEventId, (summary, rows) -> addSubEventSection(document, summary, rows));
+        });
+    }
+
+    /**
+     * Abre o documento sobre o stream, sem fechá-lo ao final
+     */
+    private void writeDocument(OutputStream out, Consumer<Document> content) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdf = new PdfDocument(writer);
             Document document = new Document(pdf);
 
-            addHeader(document, event);
-            addSubEventSection(document, subEvent, checks);
+            content.accept(document);
 
             document.close();
-            return baos.toByteArray();
+        } catch (ResourceNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Erro ao gerar relatório PDF", e);
         }
@@ -102,34 +144,32 @@ public class PdfReportService {
                 .setMarginBottom(20));
     }
 
-    private void addSubEventSection(Document document, SubEvent subEvent, List<Check> checks) {
-        document.add(new Paragraph("\n" + subEvent.getTitle())
+    /**
+     * Seção do subevento: os totais vêm da agregação (precisam aparecer antes da tabela)
+     * e as linhas vão direto do cursor para uma tabela grande do iText
+     */
+    private void addSubEventSection(Document document, AttendanceSummaryView summary, Iterator<AttendanceRow> rows) {
+        document.add(new Paragraph("\n" + summary.getTitle())
                 .setFontSize(14)
                 .setBold());
 
-        document.add(new Paragraph("Data: " + subEvent.getStartDate().format(DATE_TIME_FORMATTER) +
-                " a " + subEvent.getEndDate().format(DATE_TIME_FORMATTER))
+        document.add(new Paragraph("Data: " + summary.getStartDate().format(DATE_TIME_FORMATTER) +
+                " a " + summary.getEndDate().format(DATE_TIME_FORMATTER))
                 .setFontSize(10));
 
-        long totalSubscriptions = subscriptionRepository.findBySubEventId(subEvent.getId()).size();
-        long totalChecks = checks.size();
-        long full = checks.stream().filter(this::hasCheckinAndCheckout).count();
-        long onlyCheckin = checks.stream().filter(this::hasOnlyCheckin).count();
-        long onlyCheckout = checks.stream().filter(this::hasOnlyCheckout).count();
-        long none = checks.stream().filter(this::hasNoCheckinOrCheckout).count();
-        document.add(new Paragraph("Inscritos: " + totalSubscriptions).setMarginBottom(2));
-        document.add(new Paragraph("Registros: " + totalChecks).setMarginBottom(2));
-        document.add(new Paragraph("Check-in e Check-out: " + full));
-        document.add(new Paragraph("Somente Check-in: " + onlyCheckin));
-        document.add(new Paragraph("Somente Check-out: " + onlyCheckout));
-        document.add(new Paragraph("Sem Check-in/Check-out: " + none).setMarginBottom(10));
-
-        if (checks.isEmpty()) {
+        document.add(new Paragraph("Inscritos: " + summary.getSubscriptions()).setMarginBottom(2));
+        document.add(new Paragraph("Registros: " + summary.getTotal()).setMarginBottom(2));
+        document.add(new Paragraph("Check-in e Check-out: " + summary.getWithBoth()));
+        document.add(new Paragraph("Somente Check-in: " + summary.getOnlyCheckin()));
+        document.add(new Paragraph("Somente Check-out: " + summary.getOnlyCheckout()));
+        document.add(new Paragraph("Sem Check-in/Check-out: " + summary.getWithNeither()).setMarginBottom(10));
+
+        if (!rows.hasNext()) {
             document.add(new Paragraph("Nenhum registro de presença.\n"));
             return;
         }
 
-        Table table = new Table(new float[]{3, 3, 2, 2});
+        Table table = new Table(UnitValue.createPercentArray(new float[]{3, 3, 2, 2}), true);
         table.setWidth(UnitValue.createPercentValue(100));
         table.setMarginBottom(15);
 
@@ -138,16 +178,24 @@ public class PdfReportService {
         table.addHeaderCell(createHeaderCell("Check-in"));
         table.addHeaderCell(createHeaderCell("Check-out"));
 
-        checks.forEach(check -> {
-            table.addCell(createCell(check.getUser().getName()));
-            table.addCell(createCell(check.getUser().getEmail()));
-            table.addCell(createCell(check.getCheckinTime() != null
-                    ? check.getCheckinTime().format(DATE_TIME_FORMATTER) : "-"));
-            table.addCell(createCell(check.getCheckoutTime() != null
-                    ? check.getCheckoutTime().format(DATE_TIME_FORMATTER) : "-"));
-        });
-
         document.add(table);
+
+        int count = 0;
+        while (rows.hasNext()) {
+            AttendanceRow row = rows.next();
+            table.addCell(createCell(row.getUserName()));
+            table.addCell(createCell(row.getUserEmail()));
+            table.addCell(createCell(row.getCheckinTime() != null
+                    ? row.getCheckinTime().format(DATE_TIME_FORMATTER) : "-"));
+            table.addCell(createCell(row.getCheckoutTime() != null
+                    ? row.getCheckoutTime().format(DATE_TIME_FORMATTER) : "-"));
+
+            if (++count % flushRows == 0) {
+                table.flush();
+            }
+        }
+
+        table.complete();
     }
 
     private Cell createHeaderCell(String text) {
@@ -164,7 +212,7 @@ public class PdfReportService {
                 .setFontSize(9);
     }
 
-    private void addGeneralStatistics(Document document, List<SubEvent> subEvents) {
+    private void addGeneralStatistics(Document document, List<AttendanceSummaryView> subEvents) {
         document.add(new Paragraph("\nESTATÍSTICAS GERAIS")
                 .setFontSize(14)
                 .setBold()
@@ -178,14 +226,13 @@ public class PdfReportService {
         long totalOnlyCheckout = 0;
         long totalNone = 0;
 
-        for (SubEvent subEvent : subEvents) {
-            totalSubscriptions += subscriptionRepository.findBySubEventId(subEvent.getId()).size();
-            List<Check> checks = checkRepository.findBySubEventId(subEvent.getId());
-            totalChecks += checks.size();
-            totalFull += checks.stream().filter(this::hasCheckinAndCheckout).count();
-            totalOnlyCheckin += checks.stream().filter(this::hasOnlyCheckin).count();
-            totalOnlyCheckout += checks.stream().filter(this::hasOnlyCheckout).count();
-            totalNone += checks.stream().filter(this::hasNoCheckinOrCheckout).count();
+        for (AttendanceSummaryView subEvent : subEvents) {
+            totalSubscriptions += subEvent.getSubscriptions();
+            totalChecks += subEvent.getTotal();
+            totalFull += subEvent.getWithBoth();
+            totalOnlyCheckin += subEvent.getOnlyCheckin();
+            totalOnlyCheckout += subEvent.getOnlyCheckout();
+            totalNone += subEvent.getWithNeither();
         }
 
         document.add(new Paragraph("Total de Subeventos: " + totalSubEvents));
@@ -201,20 +248,4 @@ public class PdfReportService {
             document.add(new Paragraph("Taxa de Presença (com check-in e check-out): " + String.format("%.2f%%", percentage)));
         }
     }
-
-    private boolean hasCheckinAndCheckout(Check check) {
-        return check.getCheckinTime() != null && check.getCheckoutTime() != null;
-    }
-
-    private boolean hasOnlyCheckin(Check check) {
-        return check.getCheckinTime() != null && check.getCheckoutTime() == null;
-    }
-
-    private boolean hasOnlyCheckout(Check check) {
-        return check.getCheckinTime() == null && check.getCheckoutTime() != null;
-    }
-
-    private boolean hasNoCheckinOrCheckout(Check check) {
-        return check.getCheckinTime() == null && check.getCheckoutTime() == null;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package org.fdsmartcheck.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache limitado (LRU + TTL) de QR Codes resolvidos, indexado por codeData
+ *
+ * Evita que cada leitura do mesmo QR Code projetado vá ao banco durante o pico de check-ins.
+ * As alterações administrativas (gerar/ativar/desativar QR Code, editar SubEvent/Event)
+ * invalidam as entradas afetadas imediatamente e novamente após o commit.
+ */
+@Component
+public class QRCodeResolutionCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, CachedEntry> entries;
+
+    private final CacheInvalidation invalidation = new CacheInvalidation();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public QRCodeResolutionCache(
+            @Value("${app.qrcode.cache.max-size:1000}") int maxSize,
+            @Value("${app.qrcode.cache.ttl-seconds:30}") long ttlSeconds
+    ) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedEntry> eldest) {
+                if (size() > QRCodeResolutionCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Retorna o snapshot em cache ou carrega via loader (fora do lock)
+     * Resultados nulos não são armazenados
+     */
+    public ResolvedQRCode get(String codeData, Function<String, ResolvedQRCode> loader) {
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            CachedEntry cached = entries.get(codeData);
+            if (cached != null) {
+                if (now - cached.getLoadedAt() <= ttlMillis) {
+                    hits.increment();
+                    return cached.getValue();
+                }
+                entries.remove(codeData);
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        long loadGeneration = invalidation.generation();
+        ResolvedQRCode loaded = loader.apply(codeData);
+
+        if (loaded != null) {
+            synchronized (entries) {
+                if (invalidation.isCurrent(loadGeneration)) {
+                    entries.put(codeData, new CachedEntry(loaded, now));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Snapshot em cache, sem carregar do banco nem contar nas estatísticas
+     *
+     * @return null se não estiver em cache ou se já tiver expirado
+     */
+    public ResolvedQRCode peek(String codeData) {
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            CachedEntry cached = entries.get(codeData);
+            return cached != null && now - cached.getLoadedAt() <= ttlMillis ? cached.getValue() : null;
+        }
+    }
+
+    /**
+     * Invalida todos os QR Codes de um SubEvent
+     */
+    public void invalidateSubEvent(String subEventId) {
+        invalidateWhere(value -> subEventId.equals(value.getSubEventId()));
+    }
+
+    /**
+     * Invalida todos os QR Codes dos SubEvents de um Event
+     */
+    public void invalidateEvent(String eventId) {
+        invalidateWhere(value -> eventId.equals(value.getEventId()));
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size, maxSize);
+    }
+
+    private void invalidateWhere(Predicate<ResolvedQRCode> predicate) {
+        invalidation.invalidate(() -> {
+            synchronized (entries) {
+                entries.values().removeIf(entry -> predicate.test(entry.getValue()));
+            }
+        });
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class CachedEntry {
+        private final ResolvedQRCode value;
+        private final long loadedAt;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final int maxSize;
+    }
+}
@@ -2,10 +2,12 @@ package org.fdsmartcheck.service;
 
 import lombok.RequiredArgsConstructor;
 import org.fdsmartcheck.dto.response.QRCodeResponse;
+import org.fdsmartcheck.model.Event;
 import org.fdsmartcheck.model.QRCode;
 import org.fdsmartcheck.model.SubEvent;
 import org.fdsmartcheck.repository.QRCodeRepository;
 import org.fdsmartcheck.repository.SubEventRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,6 +24,7 @@ public class QRCodeService {
 
     private final QRCodeRepository qrCodeRepository;
     private final SubEventRepository subEventRepository;
+    private final QRCodeResolutionCache resolutionCache;
 
     /**
      * Listar TODOS os QR Codes de um SubEvent (ativos e inativos)
@@ -62,7 +65,8 @@ public class QRCodeService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "SubEvent não encontrado"));
 
         // 1. Desativar todos os QR Codes anteriores deste SubEvent
-        qrCodeRepository.deactivateAllBySubEventId(subEventId);
+        qrCodeRepository.deactivateAllBySubEventId(subEventId, LocalDateTime.now());
+        resolutionCache.invalidateSubEvent(subEventId);
 
         // 2. Gerar código único
         String uniqueCode = generateUniqueCode();
@@ -74,7 +78,7 @@ public class QRCodeService {
                 .isActive(true)
                 .build();
 
-        QRCode savedQrCode = qrCodeRepository.save(qrCode);
+        QRCode savedQrCode = saveActive(qrCode);
 
         return toResponse(savedQrCode);
     }
@@ -91,31 +95,66 @@ public class QRCodeService {
     }
 
     /**
-     * Validar QR Code e retornar SubEvent
+     * Validar QR Code e retornar o snapshot do SubEvent
      * IMPORTANTE: Valida apenas se o QR Code está ATIVO
+     * A resolução (QR Code + SubEvent + Event) é servida pelo cache na maioria das leituras
      */
-    @Transactional(readOnly = true)
-    public SubEvent validateAndGetSubEvent(String codeData) {
-        QRCode qrCode = qrCodeRepository.findByCodeData(codeData)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "QR Code inválido"));
+    public ResolvedQRCode validateAndResolve(String codeData) {
+        ResolvedQRCode resolved = resolutionCache.get(codeData, this::loadResolved);
+        if (resolved == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "QR Code inválido");
+        }
 
         // ✅ Validar se o QR Code está ativo
-        if (!qrCode.getIsActive()) {
+        if (!resolved.isActive()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Este QR Code foi desativado. Solicite um novo QR Code ao administrador.");
         }
 
-        SubEvent subEvent = qrCode.getSubEvent();
         LocalDateTime now = LocalDateTime.now();
 
         // QR code is only valid while checkin or checkout windows are open
-        if (now.isAfter(subEvent.getCheckinEnd()) && now.isAfter(subEvent.getCheckoutEnd())) {
+        if (now.isAfter(resolved.getCheckinEnd()) && now.isAfter(resolved.getCheckoutEnd())) {
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
                     "QR Code expirado. O período de check-in e checkout deste evento foi encerrado."
             );
         }
 
-        return subEvent;
+        return resolved;
+    }
+
+    /**
+     * Resolve o QR Code de uma leitura offline, sem as validações que dependem do horário atual
+     * (ativo agora, período encerrado): o lote pode chegar depois da sessão ou de uma rotação do
+     * QR Code. A leitura é conferida depois com validateActiveAt, no horário da captura.
+     */
+    public ResolvedQRCode resolveForCapture(String codeData) {
+        ResolvedQRCode resolved = resolutionCache.get(codeData, this::loadResolved);
+        if (resolved == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "QR Code inválido");
+        }
+        return resolved;
+    }
+
+    /**
+     * Valida se o QR Code estava ativo no momento da captura
+     * O período considerado vai da criação até a última desativação
+     */
+    public void validateActiveAt(ResolvedQRCode resolved, LocalDateTime capturedAt) {
+        boolean created = resolved.getCreatedAt() == null || !capturedAt.isBefore(resolved.getCreatedAt());
+        boolean notYetDeactivated = resolved.isActive()
+                || (resolved.getDeactivatedAt() != null && !capturedAt.isAfter(resolved.getDeactivatedAt()));
+
+        if (!created || !notYetDeactivated) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Este QR Code não estava ativo no momento da leitura.");
+        }
+    }
+
+    /**
+     * Estatísticas do cache de resolução de QR Codes
+     */
+    public QRCodeResolutionCache.Stats getResolutionCacheStats() {
+        return resolutionCache.stats();
     }
 
     /**
@@ -132,6 +171,7 @@ public class QRCodeService {
 
         qrCode.setIsActive(false);
         QRCode updatedQrCode = qrCodeRepository.save(qrCode);
+        resolutionCache.invalidateSubEvent(qrCode.getSubEvent().getId());
 
         return toResponse(updatedQrCode);
     }
@@ -149,15 +189,28 @@ public class QRCodeService {
         }
 
         // Desativar todos os outros QR Codes deste SubEvent
-        qrCodeRepository.deactivateAllBySubEventId(qrCode.getSubEvent().getId());
+        qrCodeRepository.deactivateAllBySubEventId(qrCode.getSubEvent().getId(), LocalDateTime.now());
 
         // Ativar este QR Code
         qrCode.setIsActive(true);
-        QRCode updatedQrCode = qrCodeRepository.save(qrCode);
+        QRCode updatedQrCode = saveActive(qrCode);
+        resolutionCache.invalidateSubEvent(qrCode.getSubEvent().getId());
 
         return toResponse(updatedQrCode);
     }
 
+    /**
+     * Grava um QR Code ativo na hora, para que a violação do índice de um ativo por subevento
+     * (outra geração/ativação simultânea venceu) vire um 409 em vez de falhar no commit
+     */
+    private QRCode saveActive(QRCode qrCode) {
+        try {
+            return qrCodeRepository.saveAndFlush(qrCode);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Outro QR Code foi ativado ao mesmo tempo para este SubEvent. Tente novamente.");
+        }
+    }
+
     private String generateUniqueCode() {
         String code;
         do {
@@ -167,6 +220,52 @@ public class QRCodeService {
         return code;
     }
 
+    private ResolvedQRCode loadResolved(String codeData) {
+        return qrCodeRepository.findWithSubEventByCodeData(codeData)
+                .map(this::toResolved)
+                .orElse(null);
+    }
+
+    private ResolvedQRCode toResolved(QRCode qrCode) {
+        SubEvent subEvent = qrCode.getSubEvent();
+        Event event = subEvent.getEvent();
+
+        Double latitude = subEvent.getLatitude();
+        Double longitude = subEvent.getLongitude();
+        Double radius = subEvent.getRadius();
+
+        // SubEvent sem localização herda a do Event
+        if (latitude == null || longitude == null) {
+            latitude = event.getLatitude();
+            longitude = event.getLongitude();
+            radius = event.getRadius();
+        }
+
+        return ResolvedQRCode.builder()
+                .qrCodeId(qrCode.getId())
+                .codeData(qrCode.getCodeData())
+                .active(Boolean.TRUE.equals(qrCode.getIsActive()))
+                .createdAt(qrCode.getCreatedAt())
+                .deactivatedAt(Boolean.TRUE.equals(qrCode.getIsActive()) ? null : qrCode.getUpdatedAt())
+                .subEventId(subEvent.getId())
+                .subEventTitle(subEvent.getTitle())
+                .subEventDescription(subEvent.getDescription())
+                .locationDescription(subEvent.getLocationDescription())
+                .startDate(subEvent.getStartDate())
+                .endDate(subEvent.getEndDate())
+                .checkinStart(subEvent.getCheckinStart())
+                .checkinEnd(subEvent.getCheckinEnd())
+                .checkoutStart(subEvent.getCheckoutStart())
+                .checkoutEnd(subEvent.getCheckoutEnd())
+                .eventId(event.getId())
+                .eventTitle(event.getTitle())
+                .eventDescription(event.getDescription())
+                .latitude(latitude)
+                .longitude(longitude)
+                .radius(radius)
+                .build();
+    }
+
     private QRCodeResponse toResponse(QRCode qrCode) {
         return QRCodeResponse.builder()
                 .id(qrCode.getId())
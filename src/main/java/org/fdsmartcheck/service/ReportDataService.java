@@ -0,0 +1,134 @@
+package org.fdsmartcheck.service;
+
+import lombok.RequiredArgsConstructor;
+import org.fdsmartcheck.dto.report.AttendanceRow;
+import org.fdsmartcheck.exception.ResourceNotFoundException;
+import org.fdsmartcheck.model.Event;
+import org.fdsmartcheck.model.SubEvent;
+import org.fdsmartcheck.repository.CheckRepository;
+import org.fdsmartcheck.repository.EventRepository;
+import org.fdsmartcheck.repository.SubEventRepository;
+import org.fdsmartcheck.repository.SubEventRepository.AttendanceSummaryView;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Leitura dos dados dos relatórios de presença, compartilhada pelos exportadores PDF e Excel
+ *
+ * Um relatório custa um número fixo de consultas, qualquer que seja o número de subeventos e checks:
+ * - os totais de todos os subeventos vêm dos contadores materializados (AttendanceCounterService),
+ *   uma linha por stripe de subevento; com os contadores desligados, de um único GROUP BY sobre os checks
+ * - as linhas de todos os subeventos vêm de um único cursor, já com nome e email do usuário,
+ *   projetadas em AttendanceRow (nenhuma entidade fica no contexto de persistência)
+ *
+ * As duas consultas rodam no mesmo snapshot (REPEATABLE READ); como os contadores são gravados na
+ * mesma transação dos checks, os totais batem com as linhas nos dois casos.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportDataService {
+
+    private final EventRepository eventRepository;
+    private final SubEventRepository subEventRepository;
+    private final CheckRepository checkRepository;
+    private final AttendanceCounterService attendanceCounterService;
+
+    /**
+     * Recebe cada subevento do relatório: os totais primeiro e depois as linhas, que só
+     * podem ser percorridas durante a chamada
+     */
+    @FunctionalInterface
+    public interface SectionWriter {
+        void write(AttendanceSummaryView summary, Iterator<AttendanceRow> rows);
+    }
+
+    @Transactional(readOnly = true)
+    public Event getEvent(String eventId) {
+        return eventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Evento não encontrado"));
+    }
+
+    @Transactional(readOnly = true)
+    public SubEvent getSubEvent(String subEventId) {
+        return subEventRepository.findWithEventById(subEventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Subevento não encontrado"));
+    }
+
+    /**
+     * Percorre os subeventos do evento em ordem cronológica
+     *
+     * As linhas chegam ordenadas por subevento, na mesma ordem dos totais; cada seção recebe
+     * um iterador que avança o cursor compartilhado só enquanto a linha for daquele subevento.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void forEachSubEvent(String eventId, SectionWriter writer) {
+        List<? extends AttendanceSummaryView> summaries = attendanceCounterService.summarizeByEventId(eventId);
+
+        try (Stream<AttendanceRow> rows = checkRepository.streamAttendanceByEventId(eventId)) {
+            RowCursor cursor = new RowCursor(rows.iterator());
+            for (AttendanceSummaryView summary : summaries) {
+                cursor.writeSection(summary, writer);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void forSubEvent(String subEventId, SectionWriter writer) {
+        AttendanceSummaryView summary = attendanceCounterService.summarizeBySubEventId(subEventId).orElseThrow(() -> new ResourceNotFoundException("Subevento não encontrado"));
+
+        try (Stream<AttendanceRow> rows = checkRepository.streamAttendanceBySubEventId(subEventId)) {
+            new RowCursor(rows.iterator()).writeSection(summary, writer);
+        }
+    }
+
+    /**
+     * Cursor com uma linha de antecipação, dividido em seções por subevento
+     */
+    private static final class RowCursor {
+
+        private final Iterator<AttendanceRow> source;
+        private AttendanceRow current;
+
+        private RowCursor(Iterator<AttendanceRow> source) {
+            this.source = source;
+            advance();
+        }
+
+        private void writeSection(AttendanceSummaryView summary, SectionWriter writer) {
+            String subEventId = summary.getSubEventId();
+            Iterator<AttendanceRow> section = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return current != null && current.getSubEventId().equals(subEventId);
+                }
+
+                @Override
+                public AttendanceRow next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    AttendanceRow row = current;
+                    advance();
+                    return row;
+                }
+            };
+
+            writer.write(summary, section);
+
+            // Linhas que o exportador não consumiu não podem vazar para a próxima seção
+            while (section.hasNext()) {
+                section.next();
+            }
+        }
+
+        private void advance() {
+            current = source.hasNext() ? source.next() : null;
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package org.fdsmartcheck.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.fdsmartcheck.config.ExecutionMode;
+import org.fdsmartcheck.dto.response.ReportJobResponse;
+import org.fdsmartcheck.exception.BadRequestException;
+import org.fdsmartcheck.exception.ResourceNotFoundException;
+import org.fdsmartcheck.model.enums.ReportFormat;
+import org.fdsmartcheck.model.enums.ReportJobStatus;
+import org.fdsmartcheck.repository.EventRepository;
+import org.fdsmartcheck.repository.EventRepository.ReportVersionView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geração assíncrona dos relatórios de evento, com os arquivos guardados em disco
+ *
+ * - Cada pedido vira um job; um pool limitado (max-concurrent threads + fila de queue-capacity)
+ *   renderiza o relatório pelo PdfReportService/ExcelReportService num arquivo local
+ * - O arquivo é identificado por (evento, formato, versão dos dados). A versão é uma impressão
+ *   digital barata do que aparece no relatório (contagens e últimas alterações): enquanto ela
+ *   não muda, um novo pedido reaproveita o arquivo sem gerar nada
+ * - Pedidos repetidos enquanto o mesmo relatório está na fila ou sendo gerado recebem o mesmo job
+ * - Arquivos sem acesso há artifact-ttl-ms são apagados e o total em disco fica limitado a
+ *   max-disk-bytes (os acessados há mais tempo saem primeiro)
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    // Incrementar quando o conteúdo/layout dos relatórios mudar, invalidando os arquivos já gerados
+    private static final int LAYOUT_REVISION = 1;
+
+    // O envio por sendfile acontece depois que o controller retorna: arquivo baixado há pouco não é apagado
+    private static final long DOWNLOAD_GRACE_MS = 60_000;
+
+    private static final String PART_SUFFIX = ".part";
+    private static final DateTimeFormatter FILENAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final EventRepository eventRepository;
+    private final PdfReportService pdfReportService;
+    private final ExcelReportService excelReportService;
+
+    private final Path directory;
+    private final long artifactTtlMs;
+    private final long maxDiskBytes;
+    private final long jobTtlMs;
+    private final ThreadPoolExecutor executor;
+
+    private final ConcurrentHashMap<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ArtifactKey, ReportJob> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ArtifactKey, Artifact> artifacts = new ConcurrentHashMap<>();
+
+    public ReportJobService(
+            EventRepository eventRepository,
+            PdfReportService pdfReportService,
+            ExcelReportService excelReportService,
+            ExecutionMode executionMode,
+            @Value("${app.reports.jobs.dir:${java.io.tmpdir}/fdsmartcheck-reports}") String directory,
+            @Value("${app.reports.jobs.max-concurrent:2}") int maxConcurrent,
+            @Value("${app.reports.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${app.reports.jobs.artifact-ttl-ms:86400000}") long artifactTtlMs,
+            @Value("${app.reports.jobs.max-disk-bytes:1073741824}") long maxDiskBytes,
+            @Value("${app.reports.jobs.job-ttl-ms:3600000}") long jobTtlMs
+    ) {
+        this.eventRepository = eventRepository;
+        this.pdfReportService = pdfReportService;
+        this.excelReportService = excelReportService;
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.artifactTtlMs = artifactTtlMs;
+        this.maxDiskBytes = maxDiskBytes;
+        this.jobTtlMs = jobTtlMs;
+
+        // Mesmo em threads virtuais o pool continua limitado: max-concurrent protege memória e CPU
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                executionMode.threadFactory("report-job-"));
+    }
+
+    /**
+     * Reaproveita os arquivos que sobreviveram a um restart e descarta gerações interrompidas
+     */
+    @PostConstruct
+    void loadArtifacts() throws IOException {
+        Files.createDirectories(directory);
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(PART_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+
+                ArtifactKey key = ArtifactKey.parse(name);
+                if (key != null) {
+                    long modifiedAt = Files.getLastModifiedTime(file).toMillis();
+                    artifacts.put(key, new Artifact(file, Files.size(file), modifiedAt, modifiedAt));
+                }
+            }
+        }
+
+        logger.info("{} relatórios em cache em {}", artifacts.size(), directory);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ReportJobResponse submit(String eventId, String format) {
+        ArtifactKey key = new ArtifactKey(eventId, parseFormat(format), dataVersion(eventId));
+
+        Artifact artifact = artifacts.get(key);
+        if (artifact != null) {
+            ReportJob job = new ReportJob(key);
+            job.complete(artifact.size, true);
+            jobs.put(job.id, job);
+            return toResponse(job);
+        }
+
+        ReportJob created = new ReportJob(key);
+        ReportJob job = inFlight.putIfAbsent(key, created);
+        if (job != null) {
+            return toResponse(job);
+        }
+
+        jobs.put(created.id, created);
+        try {
+            executor.execute(() -> render(created));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            jobs.remove(created.id);
+            throw new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE,
+                    "Muitos relatórios sendo gerados no momento. Tente novamente em instantes."
+            );
+        }
+        return toResponse(created);
+    }
+
+    public ReportJobResponse getJob(String jobId) {
+        return toResponse(findJob(jobId));
+    }
+
+    public ReportDownload download(String jobId) {
+        ReportJob job = findJob(jobId);
+
+        if (job.status == ReportJobStatus.FAILED) {
+            throw new BadRequestException("A geração do relatório falhou: " + job.error);
+        }
+        if (job.status != ReportJobStatus.COMPLETED) {
+            throw new BadRequestException("O relatório ainda está sendo gerado");
+        }
+
+        Artifact artifact = artifacts.get(job.key);
+        if (artifact == null || !Files.isReadable(artifact.path)) {
+            throw new ResourceNotFoundException("Relatório expirado. Solicite uma nova geração");
+        }
+
+        artifact.lastAccessMs = System.currentTimeMillis();
+
+        String filename = "relatorio_evento_" + job.finishedAt.format(FILENAME_FORMATTER) + "." + job.key.format.getExtension();
+        return new ReportDownload(artifact.path, artifact.size, job.key.format, filename);
+    }
+
+    /**
+     * Remove jobs antigos, versões superadas e aplica a retenção e o limite de disco dos arquivos
+     */
+    @Scheduled(
+            fixedDelayString = "${app.reports.jobs.cleanup-interval-ms:300000}",
+            initialDelayString = "${app.reports.jobs.cleanup-interval-ms:300000}"
+    )
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+
+        jobs.values().removeIf(job -> job.finishedAtMs > 0 && now - job.finishedAtMs > jobTtlMs);
+
+        Map<String, Map.Entry<ArtifactKey, Artifact>> newest = new HashMap<>();
+        for (Map.Entry<ArtifactKey, Artifact> entry : artifacts.entrySet()) {
+            newest.merge(entry.getKey().getEventId() + "_" + entry.getKey().getFormat(), entry,
+                    (a, b) -> a.getValue().createdAtMs >= b.getValue().createdAtMs ? a : b);
+        }
+        newest.values().forEach(entry -> evictOlderVersions(entry.getKey()));
+
+        long totalBytes = 0;
+        List<Map.Entry<ArtifactKey, Artifact>> candidates = new ArrayList<>();
+        for (Map.Entry<ArtifactKey, Artifact> entry : artifacts.entrySet()) {
+            Artifact artifact = entry.getValue();
+            if (now - artifact.lastAccessMs > Math.max(artifactTtlMs, DOWNLOAD_GRACE_MS)) {
+                evict(entry.getKey(), artifact);
+                continue;
+            }
+            totalBytes += artifact.size;
+            if (now - artifact.lastAccessMs > DOWNLOAD_GRACE_MS) {
+                candidates.add(entry);
+            }
+        }
+
+        if (totalBytes > maxDiskBytes) {
+            candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccessMs));
+            for (Map.Entry<ArtifactKey, Artifact> entry : candidates) {
+                if (totalBytes <= maxDiskBytes) {
+                    break;
+                }
+                if (evict(entry.getKey(), entry.getValue())) {
+                    totalBytes -= entry.getValue().size;
+                }
+            }
+        }
+    }
+
+    private void render(ReportJob job) {
+        job.start();
+        ArtifactKey key = job.key;
+        Path part = null;
+
+        try {
+            part = Files.createTempFile(directory, key.fileName(), PART_SUFFIX);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                reportBody(key).writeTo(out);
+            }
+
+            Path target = directory.resolve(key.fileName());
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long size = Files.size(target);
+            long now = System.currentTimeMillis();
+            artifacts.put(key, new Artifact(target, size, now, now));
+            evictOlderVersions(key);
+            job.complete(size, false);
+        } catch (Exception e) {
+            logger.error("Falha ao gerar relatório {} do evento {}", key.format, key.eventId, e);
+            job.fail(e instanceof ResourceNotFoundException ? e.getMessage() : "Erro ao gerar relatório");
+            if (part != null) {
+                deleteQuietly(part);
+            }
+        } finally {
+            inFlight.remove(key, job);
+        }
+    }
+
+    private StreamingResponseBody reportBody(ArtifactKey key) {
+        return key.format == ReportFormat.PDF
+                ? pdfReportService.streamPdfReport(key.eventId)
+                : excelReportService.streamExcelReport(key.eventId);
+    }
+
+    /**
+     * Com dados novos, os arquivos das versões anteriores do mesmo relatório não serão mais servidos
+     */
+    private void evictOlderVersions(ArtifactKey current) {
+        long now = System.currentTimeMillis();
+        artifacts.forEach((key, artifact) -> {
+            if (key.eventId.equals(current.eventId)
+                    && key.format == current.format
+                    && !key.version.equals(current.version)
+                    && now - artifact.lastAccessMs > DOWNLOAD_GRACE_MS) {
+                evict(key, artifact);
+            }
+        });
+    }
+
+    private boolean evict(ArtifactKey key, Artifact artifact) {
+        if (!artifacts.remove(key, artifact)) {
+            return false;
+        }
+        deleteQuietly(artifact.path);
+        return true;
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Falha ao apagar arquivo de relatório {}: {}", path, e.getMessage());
+        }
+    }
+
+    private String dataVersion(String eventId) {
+        ReportVersionView version = eventRepository.findReportVersion(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Evento não encontrado"));
+
+        String fingerprint = LAYOUT_REVISION + "|" +
+                version.getEventUpdatedAt() + "|" +
+                version.getSubEvents() + "|" +
+                version.getSubEventsUpdatedAt() + "|" +
+                version.getSubscriptions() + "|" +
+                version.getSubscriptionsCreatedAt() + "|" +
+                version.getSubscribersUpdatedAt() + "|" +
+                version.getChecks() + "|" +
+                version.getChecksUpdatedAt() + "|" +
+                version.getCheckUsersUpdatedAt();
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ReportFormat parseFormat(String format) {
+        try {
+            return ReportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Formato inválido. Use PDF ou EXCEL");
+        }
+    }
+
+    private ReportJob findJob(String jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Job de relatório não encontrado");
+        }
+        return job;
+    }
+
+    private ReportJobResponse toResponse(ReportJob job) {
+        return ReportJobResponse.builder()
+                .id(job.id)
+                .eventId(job.key.eventId)
+                .format(job.key.format.name())
+                .status(job.status.name())
+                .cached(job.cached)
+                .sizeBytes(job.status == ReportJobStatus.COMPLETED ? job.sizeBytes : null)
+                .error(job.error)
+                .downloadUrl(job.status == ReportJobStatus.COMPLETED ? "/api/reports/jobs/" + job.id + "/download" : null)
+                .createdAt(job.createdAt)
+                .startedAt(job.startedAt)
+                .finishedAt(job.finishedAt)
+                .build();
+    }
+
+    /**
+     * Arquivo pronto para envio
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class ReportDownload {
+        private final Path path;
+        private final long size;
+        private final ReportFormat format;
+        private final String filename;
+    }
+
+    /**
+     * Relatório de um evento num formato, numa versão dos dados; também é o nome do arquivo em disco
+     */
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class ArtifactKey {
+        private final String eventId;
+        private final ReportFormat format;
+        private final String version;
+
+        String fileName() {
+            return eventId + "_" + format.name() + "_" + version + "." + format.getExtension();
+        }
+
+        static ArtifactKey parse(String fileName) {
+            String[] parts = fileName.split("_");
+            if (parts.length != 3) {
+                return null;
+            }
+            for (ReportFormat format : ReportFormat.values()) {
+                String suffix = "." + format.getExtension();
+                if (format.name().equals(parts[1]) && parts[2].endsWith(suffix)) {
+                    return new ArtifactKey(parts[0], format, parts[2].substring(0, parts[2].length() - suffix.length()));
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Artifact {
+        private final Path path;
+        private final long size;
+        private final long createdAtMs;
+        private volatile long lastAccessMs;
+
+        private Artifact(Path path, long size, long createdAtMs, long lastAccessMs) {
+            this.path = path;
+            this.size = size;
+            this.createdAtMs = createdAtMs;
+            this.lastAccessMs = lastAccessMs;
+        }
+    }
+
+    private static final class ReportJob {
+        private final String id = UUID.randomUUID().toString();
+        private final ArtifactKey key;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile boolean cached;
+        private volatile long sizeBytes;
+        private volatile String error;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedAtMs;
+
+        private ReportJob(ArtifactKey key) {
+            this.key = key;
+        }
+
+        private void start() {
+            startedAt = LocalDateTime.now();
+            status = ReportJobStatus.RUNNING;
+        }
+
+        private void complete(long size, boolean fromCache) {
+            sizeBytes = size;
+            cached = fromCache;
+            finish(ReportJobStatus.COMPLETED);
+        }
+
+        private void fail(String message) {
+            error = message;
+            finish(ReportJobStatus.FAILED);
+        }
+
+        // O status é escrito por último: quem o lê como COMPLETED também vê os demais campos
+        private void finish(ReportJobStatus finalStatus) {
+            finishedAt = LocalDateTime.now();
+            finishedAtMs = System.currentTimeMillis();
+            status = finalStatus;
+        }
+    }
+}
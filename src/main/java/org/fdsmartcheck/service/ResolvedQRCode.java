@@ -0,0 +1,46 @@
+package org.fdsmartcheck.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot imutável de um QR Code já resolvido (QR Code + SubEvent + Event)
+ * Contém tudo o que o fluxo de check-in precisa sem tocar nas entidades JPA
+ */
+@Value
+@Builder
+public class ResolvedQRCode {
+
+    String qrCodeId;
+    String codeData;
+    boolean active;
+    // Período em que o QR Code esteve ativo: da criação até a desativação (null enquanto ativo)
+    LocalDateTime createdAt;
+    LocalDateTime deactivatedAt;
+
+    // SubEvento
+    String subEventId;
+    String subEventTitle;
+    String subEventDescription;
+    String locationDescription;
+    LocalDateTime startDate;
+    LocalDateTime endDate;
+
+    // Janelas de Check-in/Checkout
+    LocalDateTime checkinStart;
+    LocalDateTime checkinEnd;
+    LocalDateTime checkoutStart;
+    LocalDateTime checkoutEnd;
+
+    // Evento pai
+    String eventId;
+    String eventTitle;
+    String eventDescription;
+
+    // Localização já resolvida (SubEvent ou, na falta dele, Event)
+    Double latitude;
+    Double longitude;
+    Double radius;
+}
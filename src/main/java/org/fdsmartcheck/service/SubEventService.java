@@ -21,6 +21,7 @@ public class SubEventService {
 
     private final SubEventRepository subEventRepository;
     private final EventRepository eventRepository;
+    private final QRCodeResolutionCache qrCodeResolutionCache;
 
     @Transactional
     public SubEventResponse createSubEvent(SubEventRequest request) {
@@ -80,13 +81,16 @@ public class SubEventService {
         subEvent.setCheckoutStart(request.getCheckoutStart());
         subEvent.setCheckoutEnd(request.getCheckoutEnd());
 
-        return toResponse(subEventRepository.save(subEvent));
+        SubEventResponse response = toResponse(subEventRepository.save(subEvent));
+        qrCodeResolutionCache.invalidateSubEvent(id);
+        return response;
     }
 
     @Transactional
     public void deleteSubEvent(String id) {
         SubEvent subEvent = findSubEventOrThrow(id);
         subEventRepository.delete(subEvent);
+        qrCodeResolutionCache.invalidateSubEvent(id);
     }
 
     private SubEvent findSubEventOrThrow(String id) {
@@ -24,6 +24,7 @@ public class SubscriptionService {
     private final SubscriptionRepository subscriptionRepository;
     private final SubEventRepository subEventRepository;
     private final UserRepository userRepository;
+    private final AttendanceCounterService attendanceCounterService;
 
     @Transactional
     public SubscriptionResponse subscribe(SubscriptionRequest request) {
@@ -42,7 +43,9 @@ public class SubscriptionService {
                 .user(user)
                 .build();
 
-        return toResponse(subscriptionRepository.save(subscription));
+        Subscription saved = subscriptionRepository.save(subscription);
+        attendanceCounterService.subscriptionsChanged(subEvent.getId(), 1);
+        return toResponse(saved);
     }
 
     @Transactional
@@ -57,7 +60,8 @@ public class SubscriptionService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Inscrição não encontrada");
         }
 
-        subscriptionRepository.deleteBySubEventIdAndUserId(subEventId, userId);
+        long removed = subscriptionRepository.deleteBySubEventIdAndUserId(subEventId, userId);
+        attendanceCounterService.subscriptionsChanged(subEventId, -removed);
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,79 @@
+package org.fdsmartcheck.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.fdsmartcheck.dto.response.EventResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Cache curto (TTL) da página de próximos eventos, a leitura mais frequente da aplicação
+ *
+ * Guarda uma única lista; quando ela expira, só uma requisição recarrega e as demais esperam
+ * por ela em vez de irem todas ao banco. Criar, editar ou cancelar um evento invalida a lista
+ * na hora e novamente após o commit; alterações feitas em outras instâncias aparecem em até ttl-seconds.
+ */
+@Component
+public class UpcomingEventsCache {
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    // ReentrantLock e não synchronized: a recarga consulta o banco com o lock, e uma thread
+    // virtual bloqueada dentro de synchronized prende a thread do sistema que a executa
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private final CacheInvalidation invalidation = new CacheInvalidation();
+    private volatile CachedList cached;
+
+    public UpcomingEventsCache(
+            @Value("${app.events.upcoming.cache.enabled:true}") boolean enabled,
+            @Value("${app.events.upcoming.cache.ttl-seconds:15}") long ttlSeconds
+    ) {
+        this.enabled = enabled;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public List<EventResponse> get(Supplier<List<EventResponse>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        CachedList current = cached;
+        if (current != null && System.currentTimeMillis() - current.getLoadedAt() <= ttlMillis) {
+            return current.getEvents();
+        }
+
+        loadLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            current = cached;
+            if (current != null && now - current.getLoadedAt() <= ttlMillis) {
+                return current.getEvents();
+            }
+
+            long loadGeneration = invalidation.generation();
+            List<EventResponse> loaded = List.copyOf(loader.get());
+            if (invalidation.isCurrent(loadGeneration)) {
+                cached = new CachedList(loaded, now);
+            }
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        invalidation.invalidate(() -> cached = null);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class CachedList {
+        private final List<EventResponse> events;
+        private final long loadedAt;
+    }
+}
@@ -11,6 +11,7 @@ import org.fdsmartcheck.exception.BadRequestException;
 import org.fdsmartcheck.exception.ResourceNotFoundException;
 import org.fdsmartcheck.model.User;
 import org.fdsmartcheck.repository.UserRepository;
+import org.fdsmartcheck.security.AccountStatusService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -20,6 +21,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AccountStatusService accountStatusService;
 
     // método createUser
     public UserResponse createUser(UserRequest request) {
@@ -33,6 +35,7 @@ public class UserService {
                 .password(passwordEncoder.encode(request.getPassword()))
                 .role(request.getRole())
                 .isActive(true)
+                .accountVersion(0L)
                 .build();
 
         User savedUser = userRepository.save(user);
@@ -49,15 +52,24 @@ public class UserService {
             throw new BadRequestException("Email já cadastrado");
         }
 
+        boolean credentialsChanged = !user.getEmail().equals(request.getEmail()) || user.getRole() != request.getRole();
+
         user.setName(request.getName());
         user.setEmail(request.getEmail());
         user.setRole(request.getRole());
 
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(request.getPassword()));
+            credentialsChanged = true;
+        }
+
+        // Tokens emitidos com o email/papel/senha anteriores deixam de ser aceitos
+        if (credentialsChanged) {
+            bumpAccountVersion(user);
         }
 
         User updatedUser = userRepository.save(user);
+        accountStatusService.evict(updatedUser.getId());
         return mapToResponse(updatedUser);
 
     }
@@ -95,7 +107,14 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
         user.setIsActive(false);
+        bumpAccountVersion(user);
         userRepository.save(user);
+        accountStatusService.evict(id);
+    }
+
+    private void bumpAccountVersion(User user) {
+        long current = user.getAccountVersion() != null ? user.getAccountVersion() : 0L;
+        user.setAccountVersion(current + 1);
     }
 
     private UserResponse mapToResponse(User user) {
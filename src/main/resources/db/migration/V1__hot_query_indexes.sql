@@ -0,0 +1,50 @@
+-- Índices das consultas mais frequentes
+-- As tabelas são criadas pelo Hibernate (ddl-auto=update); as migrações rodam depois dele
+-- (ver SchemaMigrationConfig). Os índices já declarados nas entidades (Check, Event) não se repetem aqui;
+-- checks(user_id) é atendido por idx_checks_user_created_at_id.
+
+-- Inscrições por subevento: listagem, contagens dos relatórios, verificação do check-in e cancelamento
+-- A constraint única (user_id, sub_event_id) só serve às buscas que começam pelo usuário
+CREATE INDEX IF NOT EXISTS idx_subscriptions_sub_event_user ON subscriptions (sub_event_id, user_id);
+
+-- Subeventos do evento, já na ordem cronológica usada pelos relatórios e pela listagem
+CREATE INDEX IF NOT EXISTS idx_sub_events_event_start_date ON sub_events (event_id, start_date);
+
+-- Listagem de eventos sem filtro de status/período: lida já na ordem da página (startDate, id)
+CREATE INDEX IF NOT EXISTS idx_events_start_date_id ON events (start_date, id);
+
+-- QR Codes do subevento (listagem, desativação em massa, busca do ativo)
+CREATE INDEX IF NOT EXISTS idx_qr_codes_sub_event_active ON qr_codes (sub_event_id, is_active);
+
+-- No máximo um QR Code ativo por subevento. Se houver mais de um (gerações simultâneas antes deste
+-- índice), fica ativo só o mais recente.
+UPDATE qr_codes q
+SET is_active = false, updated_at = CURRENT_TIMESTAMP
+WHERE q.is_active
+  AND EXISTS (
+    SELECT 1 FROM qr_codes n
+    WHERE n.sub_event_id = q.sub_event_id
+      AND n.is_active
+      AND (n.created_at, n.id) > (q.created_at, q.id)
+  );
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_qr_codes_active_sub_event ON qr_codes (sub_event_id) WHERE is_active;
+
+-- Login e cadastro buscam o usuário pelo e-mail. O Hibernate cria a constraint única com nome gerado;
+-- o índice só é criado quando nenhum índice único sobre users(email) existe.
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1
+        FROM pg_index i
+        JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0]
+        WHERE i.indrelid = 'users'::regclass
+          AND i.indisunique
+          AND i.indnkeyatts = 1
+          AND i.indpred IS NULL
+          AND a.attname = 'email'
+    ) THEN
+        CREATE UNIQUE INDEX ux_users_email ON users (email);
+    END IF;
+END
+$$;
@@ -0,0 +1,17 @@
+-- Busca de usuários por trecho do nome ou do e-mail (UserRepository, LIKE '%termo%' sem diferenciar
+-- maiúsculas). Um btree não atende padrões que começam com '%'; índices de trigramas (pg_trgm) atendem.
+-- Sem permissão para criar a extensão, a migração segue sem os índices e a busca continua sequencial.
+DO $$
+BEGIN
+    BEGIN
+        CREATE EXTENSION IF NOT EXISTS pg_trgm;
+    EXCEPTION
+        WHEN insufficient_privilege OR undefined_file THEN
+            RAISE NOTICE 'pg_trgm indisponível (%): busca de usuários sem índice', SQLERRM;
+            RETURN;
+    END;
+
+    CREATE INDEX IF NOT EXISTS idx_users_name_trgm ON users USING gin (upper(name) gin_trgm_ops);
+    CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING gin (upper(email) gin_trgm_ops);
+END
+$$;
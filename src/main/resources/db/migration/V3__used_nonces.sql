@@ -0,0 +1,11 @@
+-- Nonces (requestId) do check-in compartilhados entre instâncias (app.geo.nonce-store=postgres,
+-- PostgresNonceStore). UNLOGGED: sem WAL; os nonces só precisam sobreviver à janela de retenção,
+-- e perder o conteúdo num crash do banco equivale a reiniciar o store em memória.
+-- Até esta migração a tabela era criada pelo próprio store; IF NOT EXISTS mantém as já existentes.
+CREATE UNLOGGED TABLE IF NOT EXISTS used_nonces (
+    request_id VARCHAR(255) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Limpeza dos vencidos em lotes (deleteExpired)
+CREATE INDEX IF NOT EXISTS idx_used_nonces_expires_at ON used_nonces (expires_at);
@@ -0,0 +1,11 @@
+-- Revogações de token (logout) compartilhadas entre instâncias
+-- (app.security.revocation-store=postgres, PostgresRevocationStore).
+-- Até esta migração a tabela era criada pelo próprio store; IF NOT EXISTS mantém as já existentes.
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    token_id TEXT PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+);
+
+-- Leitura incremental das revogações pelas demais instâncias (findRevokedSince)
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
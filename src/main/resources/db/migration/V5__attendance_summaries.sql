@@ -0,0 +1,13 @@
+-- Contadores de presença materializados por subevento, em stripes (AttendanceSummaryRepository).
+-- Até esta migração a tabela era criada pelo próprio repositório; IF NOT EXISTS mantém as já existentes.
+CREATE TABLE IF NOT EXISTS attendance_summaries (
+    sub_event_id VARCHAR(255) NOT NULL,
+    stripe SMALLINT NOT NULL,
+    subscriptions BIGINT NOT NULL DEFAULT 0,
+    total BIGINT NOT NULL DEFAULT 0,
+    with_both BIGINT NOT NULL DEFAULT 0,
+    only_checkin BIGINT NOT NULL DEFAULT 0,
+    only_checkout BIGINT NOT NULL DEFAULT 0,
+    with_neither BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (sub_event_id, stripe)
+);
@@ -0,0 +1,5 @@
+-- used_nonces.expires_at passa a ser um instante (timestamptz) comparado com now().
+-- Como TIMESTAMP preenchido com LOCALTIMESTAMP, o valor seguia o fuso da sessão, que o pgjdbc
+-- toma do fuso da JVM: nós com fusos diferentes viam os nonces uns dos outros como vencidos.
+-- A conversão usa o fuso desta sessão; os nonces duram só a janela de retenção (minutos).
+ALTER TABLE used_nonces ALTER COLUMN expires_at TYPE TIMESTAMPTZ;